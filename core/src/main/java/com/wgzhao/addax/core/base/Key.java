@@ -64,6 +64,8 @@ public class Key
     public static final String QUERY_SQL = "querySql";
     // The primary key will be split. string type
     public static final String SPLIT_PK = "splitPk";
+    // How to choose the split points of splitPk, `range` (default) or `quantile`. string type
+    public static final String SPLIT_STRATEGY = "splitStrategy";
     // Auto guess table's split primary key, boolean type
     public static final String AUTO_PK = "autoPk";
     // The split number for each table, if primary key is present. numeric type
@@ -76,6 +78,8 @@ public class Key
     public static final String BATCH_BYTE_SIZE = "batchByteSize";
     // The max number of records each batch, numeric type
     public static final String BATCH_SIZE = "batchSize";
+    // How to find the dirty records of a failed batch, `bisect` (default) or `row`. string type
+    public static final String BATCH_RETRY_MODE = "batchRetryMode";
     // The buffer size of reading or writing file, numeric type
     public static final String BUFFER_SIZE = "bufferSize";
     // Specify date type's format, default is 'yyyy-MM-dd hh:mm:ss', string type
@@ -118,6 +122,12 @@ public class Key
     public static final String CSV_READER_CONFIG = "csvReaderConfig";
     // Whether skip csv/tsv header or not. default is false. boolean type
     public static final String SKIP_HEADER = "skipHeader";
+    // The minimum bytes of a range when a large uncompressed text file is read by several tasks, 0 disables it. numeric type
+    public static final String SPLIT_SIZE = "splitSize";
+    // The byte offset where the range of a file read by a task starts, set by the split of the job. numeric type
+    public static final String RANGE_START = "rangeStart";
+    // The byte offset where the range of a file read by a task ends, absent for the end of the file. numeric type
+    public static final String RANGE_END = "rangeEnd";
 
     // For decimal type
     // The max precision of decimal. numeric type
@@ -130,6 +140,7 @@ public class Key
 
     // For Oracle reader ONLY
     public static final String HINT = "hint";
+    // The percentage of rows sampled to find the split points with the quantile split strategy. numeric type
     public static final String SAMPLE_PERCENTAGE = "samplePercentage";
     // For RDBMS reader or write, configure extra jdbc connection session. map type
     public static final String SESSION = "session";
@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.element;
+
+import com.wgzhao.addax.core.util.ClassSize;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A column-oriented batch of rows.
+ * <p>
+ * Integral and floating values are kept in primitive {@code long[]} / {@code double[]} vectors,
+ * strings are encoded as UTF-8 into one byte arena shared by the whole batch, and each column
+ * has a null bitmap. Values of any other type, and the null values of another type, are kept as
+ * {@link Column} objects in an {@link VectorType#OBJECT} vector, so a batch can always represent
+ * what a {@link Record} can.
+ * <p>
+ * A reader fills it row by row through {@link #addRow()} and the typed setters, a writer reads
+ * it column by column through the typed getters, without creating an object per cell.
+ */
+public class ColumnarBatch
+{
+    private static final int DEFAULT_ARENA_BYTES_PER_VALUE = 16;
+
+    private final VectorType[] types;
+
+    private final int capacity;
+
+    private final long[][] nulls;
+
+    private final long[][] longs;
+
+    private final double[][] doubles;
+
+    private final int[][] offsets;
+
+    private final int[][] lengths;
+
+    private final Column[][] objects;
+
+    private byte[] arena;
+
+    private int arenaUsed = 0;
+
+    private int rowCount = 0;
+
+    private int byteSize = 0;
+
+    public ColumnarBatch(VectorType[] types, int capacity)
+    {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("The batch capacity [%d] must be greater than 0.", capacity));
+        }
+        this.types = types.clone();
+        this.capacity = capacity;
+        int columnCount = types.length;
+        this.nulls = new long[columnCount][];
+        this.longs = new long[columnCount][];
+        this.doubles = new double[columnCount][];
+        this.offsets = new int[columnCount][];
+        this.lengths = new int[columnCount][];
+        this.objects = new Column[columnCount][];
+        int stringColumns = 0;
+        for (int i = 0; i < columnCount; i++) {
+            nulls[i] = new long[(capacity + 63) >>> 6];
+            allocate(i);
+            if (types[i] == VectorType.STRING) {
+                stringColumns++;
+            }
+        }
+        this.arena = new byte[Math.max(64, stringColumns * capacity * DEFAULT_ARENA_BYTES_PER_VALUE)];
+    }
+
+    /**
+     * Guess the vector types from the columns of a record.
+     * A double column holds a decimal string, which a {@code double} can not always represent,
+     * so it is kept as an object vector unless a reader asks for a double vector explicitly.
+     *
+     * @param record the sample record
+     * @return one vector type per column
+     */
+    public static VectorType[] inferTypes(Record record)
+    {
+        VectorType[] types = new VectorType[record.getColumnNumber()];
+        for (int i = 0; i < types.length; i++) {
+            Column column = record.getColumn(i);
+            if (column == null) {
+                types[i] = VectorType.OBJECT;
+                continue;
+            }
+            switch (column.getType()) {
+                case INT:
+                case LONG:
+                    types[i] = VectorType.LONG;
+                    break;
+                case STRING:
+                    types[i] = VectorType.STRING;
+                    break;
+                default:
+                    types[i] = VectorType.OBJECT;
+                    break;
+            }
+        }
+        return types;
+    }
+
+    public int getColumnCount()
+    {
+        return types.length;
+    }
+
+    public VectorType getVectorType(int column)
+    {
+        return types[column];
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public boolean isEmpty()
+    {
+        return rowCount == 0;
+    }
+
+    public boolean isFull()
+    {
+        return rowCount >= capacity;
+    }
+
+    /**
+     * Append an empty row whose values are filled by the setters afterwards.
+     *
+     * @return the index of the new row
+     */
+    public int addRow()
+    {
+        if (rowCount >= capacity) {
+            throw new IllegalStateException(String.format("The batch is full, the capacity is %d.", capacity));
+        }
+        return rowCount++;
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < types.length; i++) {
+            Arrays.fill(nulls[i], 0L);
+            if (objects[i] != null) {
+                Arrays.fill(objects[i], 0, rowCount, null);
+            }
+        }
+        rowCount = 0;
+        arenaUsed = 0;
+        byteSize = 0;
+    }
+
+    public void setNull(int column, int row)
+    {
+        nulls[column][row >>> 6] |= 1L << row;
+        if (objects[column] != null) {
+            objects[column][row] = null;
+        }
+    }
+
+    public boolean isNull(int column, int row)
+    {
+        return (nulls[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    public void setLong(int column, int row, long value)
+    {
+        longs[column][row] = value;
+        byteSize += 8;
+    }
+
+    public long getLong(int column, int row)
+    {
+        return longs[column][row];
+    }
+
+    public void setDouble(int column, int row, double value)
+    {
+        doubles[column][row] = value;
+        byteSize += 8;
+    }
+
+    public double getDouble(int column, int row)
+    {
+        return doubles[column][row];
+    }
+
+    public void setString(int column, int row, String value)
+    {
+        if (value == null) {
+            setNull(column, row);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        setBytes(column, row, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Copy UTF-8 encoded string bytes into the arena of the batch.
+     *
+     * @param column the column index
+     * @param row the row index
+     * @param src the source bytes
+     * @param offset the start offset in the source
+     * @param length the number of bytes
+     */
+    public void setBytes(int column, int row, byte[] src, int offset, int length)
+    {
+        if (arenaUsed + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaUsed + length));
+        }
+        System.arraycopy(src, offset, arena, arenaUsed, length);
+        offsets[column][row] = arenaUsed;
+        lengths[column][row] = length;
+        arenaUsed += length;
+        byteSize += length;
+    }
+
+    public String getString(int column, int row)
+    {
+        if (isNull(column, row)) {
+            return null;
+        }
+        return new String(arena, offsets[column][row], lengths[column][row], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The arena holding the string values, use it with {@link #getOffset(int, int)} and
+     * {@link #getLength(int, int)} to read a value without decoding it.
+     *
+     * @return the byte arena of the batch
+     */
+    public byte[] getArena()
+    {
+        return arena;
+    }
+
+    public int getOffset(int column, int row)
+    {
+        return offsets[column][row];
+    }
+
+    public int getLength(int column, int row)
+    {
+        return lengths[column][row];
+    }
+
+    /**
+     * Set the column object of a cell in an object vector. A column without value is kept as well,
+     * so that the null value keeps its type.
+     *
+     * @param column the column index
+     * @param row the row index
+     * @param value the column object, or null for a missing column
+     */
+    public void setObject(int column, int row, Column value)
+    {
+        if (value == null || value.getRawData() == null) {
+            setNull(column, row);
+            objects[column][row] = value;
+            return;
+        }
+        objects[column][row] = value;
+        byteSize += value.getByteSize();
+    }
+
+    /**
+     * Materialize one cell as a {@link Column}, mainly for the adapter to record based plugins.
+     *
+     * @param column the column index
+     * @param row the row index
+     * @return the column object, a cell of an object vector set to null comes back as null
+     */
+    public Column getColumn(int column, int row)
+    {
+        boolean isNull = isNull(column, row);
+        switch (types[column]) {
+            case LONG:
+                return isNull ? new LongColumn() : new LongColumn(longs[column][row]);
+            case DOUBLE:
+                return isNull ? new DoubleColumn() : new DoubleColumn(doubles[column][row]);
+            case STRING:
+                return isNull ? new StringColumn() : new StringColumn(getString(column, row));
+            default:
+                return objects[column][row];
+        }
+    }
+
+    /**
+     * Fill the columns of the given row into an empty record.
+     *
+     * @param row the row index
+     * @param record the target record
+     */
+    public void toRecord(int row, Record record)
+    {
+        for (int i = 0; i < types.length; i++) {
+            record.addColumn(getColumn(i, row));
+        }
+    }
+
+    /**
+     * Append a record as a new row. A column whose value does not fit its primitive vector
+     * turns the whole vector into an object vector, so no value is ever converted lossy.
+     *
+     * @param record the record to be appended
+     */
+    public void appendRecord(Record record)
+    {
+        int row = addRow();
+        int columnCount = Math.min(types.length, record.getColumnNumber());
+        for (int i = 0; i < columnCount; i++) {
+            Column column = record.getColumn(i);
+            if (!accepts(types[i], column)) {
+                promoteToObject(i, row);
+            }
+            if (types[i] == VectorType.OBJECT) {
+                setObject(i, row, column);
+                continue;
+            }
+            if (column.getRawData() == null) {
+                setNull(i, row);
+                continue;
+            }
+            switch (types[i]) {
+                case LONG:
+                    setLong(i, row, column.asLong());
+                    break;
+                case DOUBLE:
+                    setDouble(i, row, column.asDouble());
+                    break;
+                case STRING:
+                    setString(i, row, column.asString());
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (int i = columnCount; i < types.length; i++) {
+            setNull(i, row);
+        }
+    }
+
+    public int getByteSize()
+    {
+        return byteSize;
+    }
+
+    public int getMemorySize()
+    {
+        // the vectors are preallocated, so the footprint depends on the capacity rather than the row count
+        long size = ClassSize.OBJECT + ClassSize.ARRAY + arena.length;
+        for (int i = 0; i < types.length; i++) {
+            size += ClassSize.ARRAY + ((long) nulls[i].length << 3);
+            switch (types[i]) {
+                case LONG:
+                case DOUBLE:
+                    size += ClassSize.ARRAY + ((long) capacity << 3);
+                    break;
+                case STRING:
+                    size += 2 * ClassSize.ARRAY + ((long) capacity << 3);
+                    break;
+                default:
+                    size += ClassSize.ARRAY + (long) capacity * ClassSize.REFERENCE;
+                    for (int row = 0; row < rowCount; row++) {
+                        if (objects[i][row] != null) {
+                            size += ClassSize.COLUMN_HEAD + objects[i][row].getByteSize();
+                        }
+                    }
+                    break;
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    private void allocate(int column)
+    {
+        switch (types[column]) {
+            case LONG:
+                longs[column] = new long[capacity];
+                break;
+            case DOUBLE:
+                doubles[column] = new double[capacity];
+                break;
+            case STRING:
+                offsets[column] = new int[capacity];
+                lengths[column] = new int[capacity];
+                break;
+            default:
+                objects[column] = new Column[capacity];
+                break;
+        }
+    }
+
+    // a primitive vector only takes the values, and the null values, of its own type
+    private static boolean accepts(VectorType type, Column column)
+    {
+        if (column == null) {
+            return type == VectorType.OBJECT;
+        }
+        boolean isNull = column.getRawData() == null;
+        switch (type) {
+            case LONG:
+                return (column.getType() == Column.Type.LONG || column.getType() == Column.Type.INT)
+                        && (isNull || column.asBigInteger().bitLength() < 64);
+            case DOUBLE:
+                if (column.getType() != Column.Type.DOUBLE) {
+                    return false;
+                }
+                if (isNull) {
+                    return true;
+                }
+                try {
+                    String raw = column.asString();
+                    return new BigDecimal(String.valueOf(Double.parseDouble(raw))).toPlainString().equals(raw);
+                }
+                catch (NumberFormatException e) {
+                    return false;
+                }
+            case STRING:
+                return column.getType() == Column.Type.STRING;
+            default:
+                return true;
+        }
+    }
+
+    // rows before `upToRow` have already been filled and are converted to column objects, the null ones of the vector type
+    private void promoteToObject(int column, int upToRow)
+    {
+        Column[] values = new Column[capacity];
+        for (int row = 0; row < upToRow; row++) {
+            values[row] = getColumn(column, row);
+        }
+        types[column] = VectorType.OBJECT;
+        objects[column] = values;
+        longs[column] = null;
+        doubles[column] = null;
+        offsets[column] = null;
+        lengths[column] = null;
+    }
+
+    public enum VectorType
+    {
+        LONG, DOUBLE, STRING, OBJECT
+    }
+}
@@ -40,6 +40,9 @@ import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 import com.wgzhao.addax.core.statistics.container.communicator.job.StandAloneJobContainerCommunicator;
 import com.wgzhao.addax.core.statistics.plugin.DefaultJobPluginCollector;
+import com.wgzhao.addax.core.taskgroup.SharedTaskQueue;
+import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
+import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.util.ErrorRecordChecker;
 import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
 import com.wgzhao.addax.core.util.container.CoreConstant;
@@ -90,6 +93,8 @@ public class JobContainer
     private long endTransferTimeStamp;
     private int needChannelNumber;
     private int totalStage = 1;
+    // the task sizes estimated by the reader, only collected in the dynamic schedule mode
+    private List<Long> readerTaskSizes;
 
     public JobContainer(Configuration configuration)
     {
@@ -205,8 +210,7 @@ public class JobContainer
     {
         Thread.currentThread().setName("job-0");
 
-        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(
-                this.getContainerCommunicator());
+        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this);
         this.jobReader = this.preCheckReaderInit(jobPluginCollector);
         this.jobWriter = this.preCheckWriterInit(jobPluginCollector);
     }
@@ -274,7 +278,7 @@ public class JobContainer
     {
         Thread.currentThread().setName("job-0");
 
-        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this.getContainerCommunicator());
+        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this);
         //必须先Reader ，后Writer
         this.jobReader = this.initJobReader(jobPluginCollector);
         this.jobWriter = this.initJobWriter(jobPluginCollector);
@@ -310,7 +314,7 @@ public class JobContainer
 
         AbstractJobPlugin handler = LoadUtil.loadJobPlugin(handlerPluginType, handlerPluginName);
 
-        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this.getContainerCommunicator());
+        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this);
         handler.setJobPluginCollector(jobPluginCollector);
 
         handler.preHandler(configuration);
@@ -342,7 +346,7 @@ public class JobContainer
 
         AbstractJobPlugin handler = LoadUtil.loadJobPlugin(handlerPluginType, handlerPluginName);
 
-        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this.getContainerCommunicator());
+        JobPluginCollector jobPluginCollector = new DefaultJobPluginCollector(this);
         handler.setJobPluginCollector(jobPluginCollector);
 
         handler.postHandler(configuration);
@@ -386,7 +390,10 @@ public class JobContainer
         int needChannelNumberByByte = Integer.MAX_VALUE;
         int needChannelNumberByRecord = Integer.MAX_VALUE;
 
-        boolean isByteLimit = (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_BYTE, 0) > 0);
+        // the token buckets enforce the job speed limit directly, the channel number is taken as configured
+        boolean isSharedLimit = Channel.isTokenBucketMode(this.configuration);
+
+        boolean isByteLimit = !isSharedLimit && (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_BYTE, 0) > 0);
         if (isByteLimit) {
             long globalLimitedByteSpeed = this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_BYTE, 10 * 1024 * 1024);
 
@@ -403,7 +410,7 @@ public class JobContainer
             LOG.info("Job set Max-Byte-Speed to {} bytes.", globalLimitedByteSpeed);
         }
 
-        boolean isRecordLimit = (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_RECORD, 0)) > 0;
+        boolean isRecordLimit = !isSharedLimit && (this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_RECORD, 0)) > 0;
         if (isRecordLimit) {
             long globalLimitedRecordSpeed = this.configuration.getInt(CoreConstant.JOB_SETTING_SPEED_RECORD, 100000);
             Long channelLimitedRecordSpeed = this.configuration.getLong(CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_RECORD, -1);
@@ -457,6 +464,12 @@ public class JobContainer
         AbstractScheduler scheduler;
         try {
             scheduler = initStandaloneScheduler(this.configuration);
+            Channel.initJobFlowControl(this.configuration);
+            TaskGroupContainer.resetSplitTaskId(taskNumber);
+            if (SharedTaskQueue.isDynamicMode(this.configuration)) {
+                LOG.info("The task groups take the {} tasks from a shared queue, the biggest first.", taskNumber);
+                SharedTaskQueue.getInstance().init(this.configuration.getListConfiguration(CoreConstant.JOB_CONTENT));
+            }
             this.startTransferTimeStamp = System.currentTimeMillis();
             scheduler.schedule(taskGroupConfigs);
             this.endTransferTimeStamp = System.currentTimeMillis();
@@ -467,6 +480,9 @@ public class JobContainer
             throw AddaxException.asAddaxException(
                     RUNTIME_ERROR, e);
         }
+        finally {
+            SharedTaskQueue.getInstance().clear();
+        }
 
         /*
          * 检查任务执行情况
@@ -670,6 +686,12 @@ public class JobContainer
                     "The number of tasks divided by the reader's job cannot be less than or equal to zero");
         }
         LOG.info("The Reader.Job [{}] is divided into [{}] task(s).", this.readerPluginName, readerSlicesConfigs.size());
+        if (SharedTaskQueue.isDynamicMode(this.configuration)) {
+            this.readerTaskSizes = new ArrayList<>(readerSlicesConfigs.size());
+            for (Configuration readerSliceConfig : readerSlicesConfigs) {
+                this.readerTaskSizes.add(this.jobReader.estimateSize(readerSliceConfig));
+            }
+        }
         classLoaderSwapper.restoreCurrentThreadClassLoader();
         return readerSlicesConfigs;
     }
@@ -718,6 +740,9 @@ public class JobContainer
             }
 
             taskConfig.set(CoreConstant.TASK_ID, i);
+            if (this.readerTaskSizes != null) {
+                taskConfig.set(CoreConstant.TASK_SIZE, this.readerTaskSizes.get(i));
+            }
             contentConfigs.add(taskConfig);
         }
 
@@ -107,7 +107,7 @@ public abstract class AbstractScheduler
                 dealFailedStat(this.containerCommunicator, nowJobContainerCommunication.getThrowable());
             }
             try {
-                TimeUnit.MILLISECONDS.sleep(jobSleepIntervalInMillSec);
+                awaitNextCheck(jobSleepIntervalInMillSec);
             }
             catch (InterruptedException e) {
                 // 以 failed 状态退出
@@ -119,6 +119,18 @@ public abstract class AbstractScheduler
 
     protected abstract void startAllTaskGroup(List<Configuration> configurations);
 
+    /**
+     * Wait before checking the state of the job again.
+     *
+     * @param timeoutInMillSec the longest time to wait
+     * @throws InterruptedException if the thread is interrupted
+     */
+    protected void awaitNextCheck(long timeoutInMillSec)
+            throws InterruptedException
+    {
+        TimeUnit.MILLISECONDS.sleep(timeoutInMillSec);
+    }
+
     protected abstract void dealFailedStat(AbstractContainerCommunicator frameworkCollector, Throwable throwable);
 
     protected abstract void dealKillingStat(AbstractContainerCommunicator frameworkCollector, int totalTasks);
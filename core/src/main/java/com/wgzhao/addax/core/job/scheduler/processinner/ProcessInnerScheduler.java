@@ -25,19 +25,29 @@ import com.wgzhao.addax.core.job.scheduler.AbstractScheduler;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
 import com.wgzhao.addax.core.taskgroup.runner.TaskGroupContainerRunner;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import com.wgzhao.addax.core.util.container.VirtualThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import static com.wgzhao.addax.core.spi.ErrorCode.RUNTIME_ERROR;
 
 public abstract class ProcessInnerScheduler
         extends AbstractScheduler
 {
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessInnerScheduler.class);
 
     private ExecutorService taskGroupContainerExecutorService;
 
+    // released whenever a task group container exits, so that the job notices it without waiting for the whole interval
+    private final Semaphore taskGroupExited = new Semaphore(0);
+
     public ProcessInnerScheduler(AbstractContainerCommunicator containerCommunicator)
     {
         super(containerCommunicator);
@@ -46,17 +56,46 @@ public abstract class ProcessInnerScheduler
     @Override
     public void startAllTaskGroup(List<Configuration> configurations)
     {
-        this.taskGroupContainerExecutorService = Executors
-                .newFixedThreadPool(configurations.size());
+        boolean virtualThread = configurations.get(0).getBool(CoreConstant.CORE_CONTAINER_VIRTUAL_THREAD, false);
+        if (virtualThread && !VirtualThreadUtil.isSupported()) {
+            LOG.warn("The virtual thread requires JDK 21 or later, the current JDK is {}, use platform threads instead.",
+                    System.getProperty("java.version"));
+            virtualThread = false;
+        }
+        if (virtualThread) {
+            LOG.info("The task groups, readers and writers run in virtual threads.");
+            this.taskGroupContainerExecutorService = Executors
+                    .newFixedThreadPool(configurations.size(), VirtualThreadUtil.getFactory());
+        }
+        else {
+            this.taskGroupContainerExecutorService = Executors
+                    .newFixedThreadPool(configurations.size());
+        }
 
         for (Configuration taskGroupConfiguration : configurations) {
             TaskGroupContainerRunner taskGroupContainerRunner = newTaskGroupContainerRunner(taskGroupConfiguration);
-            this.taskGroupContainerExecutorService.execute(taskGroupContainerRunner);
+            this.taskGroupContainerExecutorService.execute(() -> {
+                try {
+                    taskGroupContainerRunner.run();
+                }
+                finally {
+                    taskGroupExited.release();
+                }
+            });
         }
 
         this.taskGroupContainerExecutorService.shutdown();
     }
 
+    @Override
+    protected void awaitNextCheck(long timeoutInMillSec)
+            throws InterruptedException
+    {
+        if (taskGroupExited.tryAcquire(timeoutInMillSec, TimeUnit.MILLISECONDS)) {
+            taskGroupExited.drainPermits();
+        }
+    }
+
     @Override
     public void dealFailedStat(AbstractContainerCommunicator frameworkCollector, Throwable throwable)
     {
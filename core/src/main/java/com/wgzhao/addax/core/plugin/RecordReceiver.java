@@ -33,6 +33,7 @@
 
 package com.wgzhao.addax.core.plugin;
 
+import com.wgzhao.addax.core.element.ColumnarBatch;
 import com.wgzhao.addax.core.element.Record;
 
 public interface RecordReceiver
@@ -40,5 +41,39 @@ public interface RecordReceiver
 
     Record getFromReader();
 
+    /**
+     * Get the next rows sent by the reader as a columnar batch.
+     * The default implementation collects up to {@code maxRows} records into a new batch,
+     * so a batch aware writer works with any reader.
+     *
+     * @param maxRows the max number of rows of the batch when it has to be assembled from records
+     * @return the batch, or null if the reader has finished
+     */
+    default ColumnarBatch getBatchFromReader(int maxRows)
+    {
+        Record record = getFromReader();
+        if (record == null) {
+            return null;
+        }
+        ColumnarBatch batch = new ColumnarBatch(ColumnarBatch.inferTypes(record), maxRows);
+        batch.appendRecord(record);
+        while (!batch.isFull() && (record = getFromReader()) != null) {
+            batch.appendRecord(record);
+        }
+        return batch;
+    }
+
+    /**
+     * Give back a record the writer has completely finished with, so it can be reused for a later row.
+     * The writer must not touch the record afterwards, and should not call it for records it still buffers.
+     * It takes effect only when {@code core.transport.record.pool} is enabled.
+     *
+     * @param record the consumed record
+     */
+    default void recycle(Record record)
+    {
+        // no pooling by default
+    }
+
     void shutdown();
 }
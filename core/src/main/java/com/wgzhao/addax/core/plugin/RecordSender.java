@@ -17,6 +17,7 @@
 
 package com.wgzhao.addax.core.plugin;
 
+import com.wgzhao.addax.core.element.ColumnarBatch;
 import com.wgzhao.addax.core.element.Record;
 
 public interface RecordSender
@@ -26,6 +27,22 @@ public interface RecordSender
 
     void sendToWriter(Record record);
 
+    /**
+     * Send a whole columnar batch to the writer.
+     * The batch is owned by the framework after this call, the reader should create a new one for the next rows.
+     * The default implementation adapts the batch into records one row at a time.
+     *
+     * @param batch the rows to be sent
+     */
+    default void sendBatchToWriter(ColumnarBatch batch)
+    {
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            Record record = createRecord();
+            batch.toRecord(row, record);
+            sendToWriter(record);
+        }
+    }
+
     void flush();
 
     void terminate();
@@ -50,11 +50,35 @@ public abstract class Reader
          * @return list of configuration
          */
         public abstract List<Configuration> split(int adviceNumber);
+
+        /**
+         * Estimate the size of a task returned by {@link #split(int)}, such as the bytes or rows it reads.
+         * When the job runs in the dynamic schedule mode, the bigger tasks are started first.
+         *
+         * @param taskConfig the configuration of one task
+         * @return the estimated size, or a negative number if it is unknown
+         */
+        public long estimateSize(Configuration taskConfig)
+        {
+            return -1;
+        }
     }
 
     public abstract static class Task
             extends AbstractTaskPlugin
     {
         public abstract void startRead(RecordSender recordSender);
+
+        /**
+         * Give away the second half of the data not read yet, so that an idle channel can read it as a new task.
+         * It is called by the task group thread while {@link #startRead(RecordSender)} is running, so it must be
+         * thread safe, and this task must not send any record of the part given away afterwards.
+         *
+         * @return the reader configuration of the part given away, or null if the task can not be split
+         */
+        public Configuration trySplitRemaining()
+        {
+            return null;
+        }
     }
 }
@@ -48,5 +48,19 @@ public abstract class Writer
         public abstract void startWrite(RecordReceiver lineReceiver);
 
         public boolean supportFailOver() {return false;}
+
+        /**
+         * Give the writer configuration of a new task that writes the part a running reader task gives away,
+         * see {@link Reader.Task#trySplitRemaining()}. It is called by the task group thread
+         * while {@link #startWrite(RecordReceiver)} is running, and the new task must not write to the same target
+         * as this task, e.g. the same file.
+         *
+         * @param taskId the id of the new task
+         * @return the writer configuration of the new task, or null if the writer can not take a split task
+         */
+        public Configuration getSplitTaskConfig(int taskId)
+        {
+            return null;
+        }
     }
 }
@@ -25,10 +25,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Communication
         extends BaseObject
@@ -36,6 +38,9 @@ public class Communication
 
     // Message about the task is given to the job
     Map<String, List<String>> message;
+    // the hot counters, updated by the reader and writer threads without any lock
+    private final LongAdder[] adders = new LongAdder[CounterKey.VALUES.length];
+    // the other counters, mostly the derived ones set by the reports
     private Map<String, Number> counter;
     // Running status
     private State state;
@@ -84,6 +89,9 @@ public class Communication
 
     private void init()
     {
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
         this.counter = new ConcurrentHashMap<>();
         this.state = State.RUNNING;
         this.throwable = null;
@@ -91,9 +99,19 @@ public class Communication
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * @return a snapshot of all counters
+     */
     public Map<String, Number> getCounter()
     {
-        return this.counter;
+        Map<String, Number> snapshot = new HashMap<>(this.counter);
+        for (CounterKey counterKey : CounterKey.VALUES) {
+            long value = adders[counterKey.ordinal()].sum();
+            if (value != 0) {
+                snapshot.put(counterKey.getKey(), value);
+            }
+        }
+        return snapshot;
     }
 
     public synchronized State getState()
@@ -168,38 +186,78 @@ public class Communication
         valueList.add(value);
     }
 
-    public synchronized Long getLongCounter(String key)
+    public Long getLongCounter(String key)
     {
+        CounterKey counterKey = CounterKey.of(key);
+        if (counterKey != null) {
+            return getLongCounter(counterKey);
+        }
         Number value = this.counter.get(key);
         return value == null ? 0 : value.longValue();
     }
 
-    public synchronized void setLongCounter(String key, long value)
+    public long getLongCounter(CounterKey counterKey)
+    {
+        return adders[counterKey.ordinal()].sum();
+    }
+
+    public void setLongCounter(String key, long value)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of setting counter can not be empty.");
-        this.counter.put(key, value);
+        CounterKey counterKey = CounterKey.of(key);
+        if (counterKey != null) {
+            setLongCounter(counterKey, value);
+        }
+        else {
+            this.counter.put(key, value);
+        }
     }
 
-    public synchronized Double getDoubleCounter(String key)
+    /**
+     * Set a hot counter. It is exact as long as the counter has a single writer,
+     * which is the case for the gauges such as the wait time of a channel.
+     *
+     * @param counterKey the counter
+     * @param value the new value
+     */
+    public void setLongCounter(CounterKey counterKey, long value)
     {
+        LongAdder adder = adders[counterKey.ordinal()];
+        adder.add(value - adder.sum());
+    }
+
+    public Double getDoubleCounter(String key)
+    {
+        CounterKey counterKey = CounterKey.of(key);
+        if (counterKey != null) {
+            return (double) getLongCounter(counterKey);
+        }
         Number value = this.counter.get(key);
 
         return value == null ? 0.0d : value.doubleValue();
     }
 
-    public synchronized void setDoubleCounter(String key, double value)
+    public void setDoubleCounter(String key, double value)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of setting counter can not be empty.");
         this.counter.put(key, value);
     }
 
-    public synchronized void increaseCounter(String key, long deltaValue)
+    public void increaseCounter(String key, long deltaValue)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "The key of the added counter can not be empty.");
+        CounterKey counterKey = CounterKey.of(key);
+        if (counterKey != null) {
+            increaseCounter(counterKey, deltaValue);
+        }
+        else {
+            this.counter.merge(key, deltaValue, (a, b) -> a.longValue() + b.longValue());
+        }
+    }
 
-        long value = this.getLongCounter(key);
-
-        this.counter.put(key, value + deltaValue);
+    public void increaseCounter(CounterKey counterKey, long deltaValue)
+    {
+        adders[counterKey.ordinal()].add(deltaValue);
     }
 
     public synchronized void mergeFrom(Communication otherComm)
@@ -209,7 +267,13 @@ public class Communication
         }
 
         // merge counter, add otherComm's value to this, create if not exist
-        for (Entry<String, Number> entry : otherComm.getCounter().entrySet()) {
+        for (int i = 0; i < adders.length; i++) {
+            long otherValue = otherComm.adders[i].sum();
+            if (otherValue != 0) {
+                adders[i].add(otherValue);
+            }
+        }
+        for (Entry<String, Number> entry : otherComm.counter.entrySet()) {
             String key = entry.getKey();
             Number otherValue = entry.getValue();
             if (otherValue == null) {
@@ -225,7 +289,7 @@ public class Communication
                     value = value.longValue() + otherValue.longValue();
                 }
                 else {
-                    value = value.doubleValue() + value.doubleValue();
+                    value = value.doubleValue() + otherValue.doubleValue();
                 }
             }
 
@@ -80,7 +80,8 @@ public final class CommunicationTool
 
         now.setLongCounter(BYTE_SPEED, bytesSpeed < 0 ? 0 : bytesSpeed);
         now.setLongCounter(RECORD_SPEED, recordsSpeed < 0 ? 0 : recordsSpeed);
-        now.setDoubleCounter(PERCENTAGE, now.getLongCounter(STAGE) / (double) totalStage);
+        // the tasks split from running ones at runtime are not part of totalStage
+        now.setDoubleCounter(PERCENTAGE, Math.min(1.0, now.getLongCounter(STAGE) / (double) totalStage));
 
         if (old.getThrowable() != null) {
             now.setThrowable(old.getThrowable());
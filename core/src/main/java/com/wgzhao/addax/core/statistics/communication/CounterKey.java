@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.communication;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The counters updated for every record or batch, they are kept in a fixed array of
+ * {@link java.util.concurrent.atomic.LongAdder} instead of the map of {@link Communication}.
+ */
+public enum CounterKey
+{
+    READ_SUCCEED_RECORDS(CommunicationTool.READ_SUCCEED_RECORDS),
+    READ_SUCCEED_BYTES(CommunicationTool.READ_SUCCEED_BYTES),
+    READ_FAILED_RECORDS(CommunicationTool.READ_FAILED_RECORDS),
+    READ_FAILED_BYTES(CommunicationTool.READ_FAILED_BYTES),
+    WRITE_RECEIVED_RECORDS(CommunicationTool.WRITE_RECEIVED_RECORDS),
+    WRITE_RECEIVED_BYTES(CommunicationTool.WRITE_RECEIVED_BYTES),
+    WRITE_FAILED_RECORDS(CommunicationTool.WRITE_FAILED_RECORDS),
+    WRITE_FAILED_BYTES(CommunicationTool.WRITE_FAILED_BYTES),
+    WAIT_WRITER_TIME(CommunicationTool.WAIT_WRITER_TIME),
+    WAIT_READER_TIME(CommunicationTool.WAIT_READER_TIME),
+    TRANSFORMER_USED_TIME(CommunicationTool.TRANSFORMER_USED_TIME),
+    TRANSFORMER_SUCCEED_RECORDS(CommunicationTool.TRANSFORMER_SUCCEED_RECORDS),
+    TRANSFORMER_FAILED_RECORDS(CommunicationTool.TRANSFORMER_FAILED_RECORDS),
+    TRANSFORMER_FILTER_RECORDS(CommunicationTool.TRANSFORMER_FILTER_RECORDS),
+    STAGE(CommunicationTool.STAGE);
+
+    static final CounterKey[] VALUES = values();
+
+    private static final Map<String, CounterKey> BY_KEY = new HashMap<>();
+
+    static {
+        for (CounterKey counterKey : VALUES) {
+            BY_KEY.put(counterKey.key, counterKey);
+        }
+    }
+
+    private final String key;
+
+    CounterKey(String key)
+    {
+        this.key = key;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    static CounterKey of(String key)
+    {
+        return BY_KEY.get(key);
+    }
+}
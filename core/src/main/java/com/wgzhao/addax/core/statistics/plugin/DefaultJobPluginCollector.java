@@ -19,10 +19,12 @@
 
 package com.wgzhao.addax.core.statistics.plugin;
 
+import com.wgzhao.addax.core.AbstractContainer;
 import com.wgzhao.addax.core.plugin.JobPluginCollector;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -32,24 +34,34 @@ import java.util.Map;
 public final class DefaultJobPluginCollector
         implements JobPluginCollector
 {
-    private final AbstractContainerCommunicator jobCollector;
+    // the container communicator is only created when the job is scheduled, after the plugins are initialized,
+    // so it is looked up from the container on each call
+    private final AbstractContainer container;
 
-    public DefaultJobPluginCollector(AbstractContainerCommunicator containerCollector)
+    public DefaultJobPluginCollector(AbstractContainer container)
     {
-        this.jobCollector = containerCollector;
+        this.container = container;
     }
 
     @Override
     public Map<String, List<String>> getMessage()
     {
-        Communication totalCommunication = this.jobCollector.collect();
+        AbstractContainerCommunicator jobCollector = this.container.getContainerCommunicator();
+        if (jobCollector == null) {
+            return Collections.emptyMap();
+        }
+        Communication totalCommunication = jobCollector.collect();
         return totalCommunication.getMessage();
     }
 
     @Override
     public List<String> getMessage(String key)
     {
-        Communication totalCommunication = this.jobCollector.collect();
+        AbstractContainerCommunicator jobCollector = this.container.getContainerCommunicator();
+        if (jobCollector == null) {
+            return null;
+        }
+        Communication totalCommunication = jobCollector.collect();
         return totalCommunication.getMessage(key);
     }
 }
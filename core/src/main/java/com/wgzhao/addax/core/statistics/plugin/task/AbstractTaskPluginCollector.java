@@ -25,7 +25,7 @@ import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CounterKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,12 +83,12 @@ public abstract class AbstractTaskPluginCollector
         }
 
         if (this.pluginType == PluginType.READER) {
-            this.communication.increaseCounter(CommunicationTool.READ_FAILED_RECORDS, 1);
-            this.communication.increaseCounter(CommunicationTool.READ_FAILED_BYTES, dirtyRecord.getByteSize());
+            this.communication.increaseCounter(CounterKey.READ_FAILED_RECORDS, 1);
+            this.communication.increaseCounter(CounterKey.READ_FAILED_BYTES, dirtyRecord.getByteSize());
         }
         else if (this.pluginType.equals(PluginType.WRITER)) {
-            this.communication.increaseCounter(CommunicationTool.WRITE_FAILED_RECORDS, 1);
-            this.communication.increaseCounter(CommunicationTool.WRITE_FAILED_BYTES, dirtyRecord.getByteSize());
+            this.communication.increaseCounter(CounterKey.WRITE_FAILED_RECORDS, 1);
+            this.communication.increaseCounter(CounterKey.WRITE_FAILED_BYTES, dirtyRecord.getByteSize());
         }
         else {
             throw AddaxException.asAddaxException(RUNTIME_ERROR, "Unknown plugin type " + this.pluginType);
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.taskgroup;
+
+import com.wgzhao.addax.core.util.Configuration;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The tasks of the job shared by all task groups in the dynamic schedule mode.
+ * <p>
+ * Instead of running the tasks assigned to it up front, a task group takes the next task
+ * whenever one of its channels is free, so a task group that finishes early keeps helping
+ * with the rest of the job. The tasks are handed out largest first, according to the size
+ * estimated by the reader, which keeps a big task from being started last.
+ */
+public final class SharedTaskQueue
+{
+    public static final String SCHEDULE_MODE_DYNAMIC = "dynamic";
+
+    private static final SharedTaskQueue instance = new SharedTaskQueue();
+
+    private final ConcurrentLinkedQueue<Configuration> tasks = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean enabled = false;
+
+    private SharedTaskQueue() {}
+
+    public static SharedTaskQueue getInstance()
+    {
+        return instance;
+    }
+
+    public static boolean isDynamicMode(Configuration configuration)
+    {
+        return SCHEDULE_MODE_DYNAMIC.equalsIgnoreCase(configuration.getString(CoreConstant.CORE_CONTAINER_JOB_SCHEDULE_MODE, "static"));
+    }
+
+    /**
+     * Fill the queue with all tasks of the job, the tasks without a size estimate keep their order after the others.
+     *
+     * @param taskConfigs the elements of {@code job.content}
+     */
+    public void init(List<Configuration> taskConfigs)
+    {
+        List<Configuration> sorted = new ArrayList<>(taskConfigs);
+        sorted.sort(Comparator.comparingLong((Configuration c) -> c.getLong(CoreConstant.TASK_SIZE, -1L)).reversed());
+        tasks.clear();
+        tasks.addAll(sorted);
+        enabled = true;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @return the next task, or null if all tasks have been taken
+     */
+    public Configuration poll()
+    {
+        return tasks.poll();
+    }
+
+    public boolean isEmpty()
+    {
+        return tasks.isEmpty();
+    }
+
+    public void clear()
+    {
+        tasks.clear();
+        enabled = false;
+    }
+}
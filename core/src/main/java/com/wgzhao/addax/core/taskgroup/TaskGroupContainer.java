@@ -43,18 +43,23 @@ import com.wgzhao.addax.core.transport.exchanger.BufferedRecordTransformerExchan
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.ClassUtil;
 import com.wgzhao.addax.core.util.TransformerUtil;
+import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import com.wgzhao.addax.core.util.container.LoadUtil;
+import com.wgzhao.addax.core.util.container.VirtualThreadUtil;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
 import static com.wgzhao.addax.core.spi.ErrorCode.RUNTIME_ERROR;
@@ -77,6 +82,15 @@ public class TaskGroupContainer
 
     private final TaskMonitor taskMonitor = TaskMonitor.getInstance();
 
+    // run the readers and writers in virtual threads
+    private final boolean virtualThread;
+
+    // released whenever a reader or writer exits, so that the loop does not wait for the whole sleep interval
+    private final Semaphore runnerExited = new Semaphore(0);
+
+    // the id of the next task split from a running one, shared by all task groups of the job
+    private static final AtomicInteger nextSplitTaskId = new AtomicInteger();
+
     public TaskGroupContainer(Configuration configuration)
     {
         super(configuration);
@@ -86,6 +100,12 @@ public class TaskGroupContainer
         this.taskGroupId = this.configuration.getInt(CoreConstant.CORE_CONTAINER_TASK_GROUP_ID);
         this.channelClazz = this.configuration.getString(CoreConstant.CORE_TRANSPORT_CHANNEL_CLASS, MemoryChannel.class.getName());
         this.taskCollectorClass = this.configuration.getString(CoreConstant.CORE_STATISTICS_COLLECTOR_PLUGIN_TASK_CLASS, StdoutPluginCollector.class.getName());
+        this.virtualThread = this.configuration.getBool(CoreConstant.CORE_CONTAINER_VIRTUAL_THREAD, false) && VirtualThreadUtil.isSupported();
+    }
+
+    public static void resetSplitTaskId(int taskNumber)
+    {
+        nextSplitTaskId.set(taskNumber);
     }
 
     private void initCommunicator(Configuration configuration)
@@ -117,12 +137,24 @@ public class TaskGroupContainer
 
         long taskMaxWaitInMs = this.configuration.getLong(CoreConstant.CORE_CONTAINER_TASK_FAIL_OVER_MAX_WAIT_IN_MSEC, 60000);
 
-        List<Configuration> taskConfigs = this.configuration.getListConfiguration(CoreConstant.JOB_CONTENT);
+        // whether an idle channel may take over a part of a long-running task
+        boolean splitRemaining = this.configuration.getBool(CoreConstant.CORE_CONTAINER_TASK_SPLIT_REMAINING, false);
+
+        // in the dynamic schedule mode the tasks are taken from the queue shared by all task groups
+        SharedTaskQueue sharedTaskQueue = SharedTaskQueue.isDynamicMode(this.configuration) ? SharedTaskQueue.getInstance() : null;
+
+        List<Configuration> taskConfigs = sharedTaskQueue == null
+                ? this.configuration.getListConfiguration(CoreConstant.JOB_CONTENT) : new ArrayList<>();
 
         LOG.debug("The task configuration [{} for taskGroup[{}]", this.taskGroupId, JSON.toJSONString(taskConfigs));
 
         int taskCountInThisTaskGroup = taskConfigs.size();
-        LOG.info("The taskGroupId=[{}] started [{}] channels for [{}] tasks.", this.taskGroupId, channelNumber, taskCountInThisTaskGroup);
+        if (sharedTaskQueue == null) {
+            LOG.info("The taskGroupId=[{}] started [{}] channels for [{}] tasks.", this.taskGroupId, channelNumber, taskCountInThisTaskGroup);
+        }
+        else {
+            LOG.info("The taskGroupId=[{}] started [{}] channels for the shared task queue.", this.taskGroupId, channelNumber);
+        }
 
         this.containerCommunicator.registerCommunication(taskConfigs);
         // setup the taskId and task configuration map
@@ -192,6 +224,30 @@ public class TaskGroupContainer
                 throw AddaxException.asAddaxException(RUNTIME_ERROR, lastTaskGroupContainerCommunication.getThrowable());
             }
 
+            // take as many shared tasks as there are free channels, the tasks waiting for a retry come first
+            while (sharedTaskQueue != null && runTasks.size() + taskQueue.size() < channelNumber) {
+                Configuration taskConfig = sharedTaskQueue.poll();
+                if (taskConfig == null) {
+                    break;
+                }
+                this.containerCommunicator.registerCommunication(Collections.singletonList(taskConfig));
+                taskConfigMap.put(taskConfig.getInt(CoreConstant.TASK_ID), taskConfig);
+                taskQueue.add(taskConfig);
+                taskCountInThisTaskGroup++;
+            }
+
+            // nothing left to start but a channel is idle, so split the oldest task running for longer than a report interval
+            if (splitRemaining && taskQueue.isEmpty() && (sharedTaskQueue == null || sharedTaskQueue.isEmpty())
+                    && runTasks.size() < channelNumber) {
+                Configuration splitTaskConfig = splitRemainingTask(runTasks, taskStartTimeMap, reportIntervalInMillSec);
+                if (splitTaskConfig != null) {
+                    this.containerCommunicator.registerCommunication(Collections.singletonList(splitTaskConfig));
+                    taskConfigMap.put(splitTaskConfig.getInt(CoreConstant.TASK_ID), splitTaskConfig);
+                    taskQueue.add(splitTaskConfig);
+                    taskCountInThisTaskGroup++;
+                }
+            }
+
             // the task that has not been executed, and the number of running tasks is less than the channel number
             Iterator<Configuration> iterator = taskQueue.iterator();
             while (iterator.hasNext() && runTasks.size() < channelNumber) {
@@ -238,7 +294,7 @@ public class TaskGroupContainer
             }
 
             // the task queue is empty, the executor has ended, and the collection status is success
-            if (taskQueue.isEmpty() && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
+            if (taskQueue.isEmpty() && (sharedTaskQueue == null || sharedTaskQueue.isEmpty()) && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
                 lastTaskGroupContainerCommunication = reportTaskGroupCommunication(lastTaskGroupContainerCommunication, taskCountInThisTaskGroup);
                 LOG.debug("The taskGroup[{}] has completed it's tasks.", this.taskGroupId);
                 break;
@@ -257,7 +313,9 @@ public class TaskGroupContainer
                 }
             }
             try {
-                TimeUnit.MILLISECONDS.sleep(sleepIntervalInMillSec);
+                if (runnerExited.tryAcquire(sleepIntervalInMillSec, TimeUnit.MILLISECONDS)) {
+                    runnerExited.drainPermits();
+                }
             }
             catch (InterruptedException e) {
                 Communication nowTaskGroupContainerCommunication = this.containerCommunicator.collect();
@@ -290,6 +348,44 @@ public class TaskGroupContainer
         return new ArrayList<>(configurations);
     }
 
+    private Configuration splitRemainingTask(List<TaskExecutor> runTasks, Map<Integer, Long> taskStartTimeMap, long minRunTimeInMs)
+    {
+        long now = System.currentTimeMillis();
+        TaskExecutor oldest = null;
+        long oldestStartTime = Long.MAX_VALUE;
+        for (TaskExecutor taskExecutor : runTasks) {
+            Long startTime = taskStartTimeMap.get(taskExecutor.getTaskId());
+            // a task retried after a failure would read the part given away again
+            if (startTime == null || now - startTime < minRunTimeInMs || !taskExecutor.isSplittable()) {
+                continue;
+            }
+            if (startTime < oldestStartTime) {
+                oldest = taskExecutor;
+                oldestStartTime = startTime;
+            }
+        }
+        if (oldest == null) {
+            return null;
+        }
+        // ask the writer first, the part the reader gives away can not be taken back
+        int splitTaskId = nextSplitTaskId.getAndIncrement();
+        Configuration writerConfig = oldest.getSplitWriterConfig(splitTaskId);
+        if (writerConfig == null) {
+            return null;
+        }
+        Configuration readerConfig = oldest.trySplitRemaining();
+        if (readerConfig == null) {
+            return null;
+        }
+        Configuration splitTaskConfig = oldest.taskConfig.clone();
+        splitTaskConfig.set(CoreConstant.JOB_READER_PARAMETER, readerConfig);
+        splitTaskConfig.set(CoreConstant.JOB_WRITER_PARAMETER, writerConfig);
+        splitTaskConfig.set(CoreConstant.TASK_ID, splitTaskId);
+        LOG.info("TaskGroup[{}] TaskId[{}] split the remaining part of TaskId[{}].",
+                this.taskGroupId, splitTaskConfig.getInt(CoreConstant.TASK_ID), oldest.getTaskId());
+        return splitTaskConfig;
+    }
+
     private TaskExecutor removeTask(List<TaskExecutor> taskList, int taskId)
     {
         Iterator<TaskExecutor> iterator = taskList.iterator();
@@ -351,6 +447,12 @@ public class TaskGroupContainer
         // and the taskPluginCollector of reader and writer
         private final Communication taskCommunication;
 
+        // the number of reader and writer threads that have not finished their runner yet
+        private final AtomicInteger runningThreads = new AtomicInteger(2);
+
+        // false once the reader or the writer refused to split, it is not asked again
+        private boolean splittable = true;
+
         public TaskExecutor(Configuration taskConf, int attemptCount)
         {
             this.taskConfig = taskConf;
@@ -372,12 +474,12 @@ public class TaskGroupContainer
             List<TransformerExecution> transformerInfoExecs = TransformerUtil.buildTransformerInfo(taskConfig);
 
             writerRunner = (WriterRunner) generateRunner(PluginType.WRITER, null);
-            this.writerThread = new Thread(writerRunner, String.format("writer-%d-%d", taskGroupId, this.taskId));
+            this.writerThread = VirtualThreadUtil.newThread(notifyOnExit(writerRunner), String.format("writer-%d-%d", taskGroupId, this.taskId), virtualThread);
             // through setting the contextClassLoader of the thread, we can achieve the synchronization and the main program
             this.writerThread.setContextClassLoader(LoadUtil.getJarLoader(PluginType.WRITER, this.taskConfig.getString(CoreConstant.JOB_WRITER_NAME)));
 
             readerRunner = (ReaderRunner) generateRunner(PluginType.READER, transformerInfoExecs);
-            this.readerThread = new Thread(readerRunner, String.format("reader-%d-%d", taskGroupId, this.taskId));
+            this.readerThread = VirtualThreadUtil.newThread(notifyOnExit(readerRunner), String.format("reader-%d-%d", taskGroupId, this.taskId), virtualThread);
 
             this.readerThread.setContextClassLoader(LoadUtil.getJarLoader(PluginType.READER, this.taskConfig.getString(CoreConstant.JOB_READER_NAME)));
         }
@@ -397,6 +499,19 @@ public class TaskGroupContainer
             }
         }
 
+        private Runnable notifyOnExit(Runnable runner)
+        {
+            return () -> {
+                try {
+                    runner.run();
+                }
+                finally {
+                    runningThreads.decrementAndGet();
+                    runnerExited.release();
+                }
+            };
+        }
+
         private AbstractRunner generateRunner(PluginType pluginType, List<TransformerExecution> transformerInfoExecs)
         {
             AbstractRunner newRunner;
@@ -445,7 +560,7 @@ public class TaskGroupContainer
 
         private boolean isTaskFinished()
         {
-            if (readerThread.isAlive() || writerThread.isAlive()) {
+            if (runningThreads.get() > 0) {
                 return false;
             }
 
@@ -472,6 +587,49 @@ public class TaskGroupContainer
             return writerRunner.supportFailOver();
         }
 
+        private boolean isSplittable()
+        {
+            return splittable && !supportFailOver() && readerThread.isAlive();
+        }
+
+        private Configuration getSplitWriterConfig(int splitTaskId)
+        {
+            ClassLoaderSwapper classLoaderSwapper = ClassLoaderSwapper.newCurrentThreadClassLoaderSwapper();
+            classLoaderSwapper.setCurrentThreadClassLoader(writerThread.getContextClassLoader());
+            try {
+                Configuration writerConfig = writerRunner.getSplitTaskConfig(splitTaskId);
+                splittable = writerConfig != null;
+                return writerConfig;
+            }
+            catch (Exception e) {
+                LOG.warn("TaskGroup[{}] TaskId[{}] failed to get the writer configuration of a split task.", taskGroupId, taskId, e);
+                splittable = false;
+                return null;
+            }
+            finally {
+                classLoaderSwapper.restoreCurrentThreadClassLoader();
+            }
+        }
+
+        private Configuration trySplitRemaining()
+        {
+            ClassLoaderSwapper classLoaderSwapper = ClassLoaderSwapper.newCurrentThreadClassLoaderSwapper();
+            classLoaderSwapper.setCurrentThreadClassLoader(readerThread.getContextClassLoader());
+            try {
+                Configuration readerConfig = readerRunner.trySplitRemaining();
+                splittable = readerConfig != null;
+                return readerConfig;
+            }
+            catch (Exception e) {
+                LOG.warn("TaskGroup[{}] TaskId[{}] failed to split the remaining part.", taskGroupId, taskId, e);
+                splittable = false;
+                return null;
+            }
+            finally {
+                classLoaderSwapper.restoreCurrentThreadClassLoader();
+            }
+        }
+
         private void shutdown()
         {
             writerRunner.shutdown();
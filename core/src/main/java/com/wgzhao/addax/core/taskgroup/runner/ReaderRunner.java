@@ -24,6 +24,7 @@ import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.spi.Reader;
 import com.wgzhao.addax.core.statistics.PerfRecord;
 import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.util.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -116,4 +117,9 @@ public class ReaderRunner
     {
         recordSender.shutdown();
     }
+
+    public Configuration trySplitRemaining()
+    {
+        return ((Reader.Task) this.getPlugin()).trySplitRemaining();
+    }
 }
@@ -24,6 +24,7 @@ import com.wgzhao.addax.core.plugin.RecordReceiver;
 import com.wgzhao.addax.core.spi.Writer;
 import com.wgzhao.addax.core.statistics.PerfRecord;
 import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.util.Configuration;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -105,6 +106,11 @@ public class WriterRunner
         return taskWriter.supportFailOver();
     }
 
+    public Configuration getSplitTaskConfig(int taskId)
+    {
+        return ((Writer.Task) this.getPlugin()).getSplitTaskConfig(taskId);
+    }
+
     public void shutdown()
     {
         recordReceiver.shutdown();
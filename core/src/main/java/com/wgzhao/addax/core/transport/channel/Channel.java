@@ -23,20 +23,33 @@ import com.wgzhao.addax.core.element.Record;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CounterKey;
+import com.wgzhao.addax.core.transport.record.ColumnarBatchRecord;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_CONTAINER_TASK_GROUP_ID;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_FLOW_CONTROL;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_FLOW_CONTROL_INTERVAL;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_BYTE;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_SPEED_RECORD;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_EXCHANGER_BATCH_TRANSFER;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_RECORD_CLASS;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_RECORD_POOL;
+import static com.wgzhao.addax.core.util.container.CoreConstant.JOB_SETTING_SPEED_BYTE;
+import static com.wgzhao.addax.core.util.container.CoreConstant.JOB_SETTING_SPEED_RECORD;
 
 /**
  * The Channel is a queue between Reader and Writer.
@@ -44,9 +57,17 @@ import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_C
  */
 public abstract class Channel
 {
+    /**
+     * The flow control mode that enforces the speed limits with token buckets,
+     * the job level limits are shared by all channels of the job.
+     */
+    public static final String FLOW_CONTROL_TOKEN_BUCKET = "tokenBucket";
 
     private static final Logger LOG = LoggerFactory.getLogger(Channel.class);
     private static Boolean isFirstPrint = true;
+    // the job level limits shared by all channels, only used in token bucket mode
+    private static volatile TokenBucket jobByteBucket;
+    private static volatile TokenBucket jobRecordBucket;
     private final Communication lastCommunication = new Communication();
     protected int taskGroupId;
     protected int capacity;
@@ -58,6 +79,12 @@ public abstract class Channel
     protected Configuration configuration;
     protected volatile AtomicLong waitReaderTime = new AtomicLong(0);
     protected volatile AtomicLong waitWriterTime = new AtomicLong(0);
+    protected int batchCapacity;
+    private final RecordBatchPool batchPool;
+    private final RecordPool recordPool;
+    private final boolean tokenBucketMode;
+    private final TokenBucket byteBucket;
+    private final TokenBucket recordBucket;
     private Communication currentCommunication;
 
     public Channel(Configuration configuration)
@@ -83,6 +110,68 @@ public abstract class Channel
         this.flowControlInterval = configuration.getLong(CORE_TRANSPORT_CHANNEL_FLOW_CONTROL_INTERVAL, 1000);
         this.byteCapacity = configuration.getInt(CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
         this.configuration = configuration;
+
+        // in batch transfer mode the channel holds whole batches, the capacity is converted to the number of batches
+        int batchSize = configuration.getInt(CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
+        this.batchCapacity = Math.max(1, capacity / Math.max(1, batchSize));
+        if (configuration.getBool(CORE_TRANSPORT_EXCHANGER_BATCH_TRANSFER, false)) {
+            // the batches in the channel plus the one being filled by reader and the one being consumed by writer
+            this.batchPool = new RecordBatchPool(batchCapacity + 2, batchSize);
+        }
+        else {
+            this.batchPool = null;
+        }
+
+        this.tokenBucketMode = isTokenBucketMode(configuration);
+        if (tokenBucketMode) {
+            long burstNanos = TimeUnit.MILLISECONDS.toNanos(this.flowControlInterval);
+            this.byteBucket = byteSpeed > 0 ? new TokenBucket(byteSpeed, burstNanos) : null;
+            this.recordBucket = recordSpeed > 0 ? new TokenBucket(recordSpeed, burstNanos) : null;
+        }
+        else {
+            this.byteBucket = null;
+            this.recordBucket = null;
+        }
+
+        if (configuration.getBool(CORE_TRANSPORT_RECORD_POOL, false)) {
+            this.recordPool = new RecordPool(RecordFactory.of(configuration.getString(CORE_TRANSPORT_RECORD_CLASS,
+                    DefaultRecord.class.getName())), capacity);
+        }
+        else {
+            this.recordPool = null;
+        }
+    }
+
+    public static boolean isTokenBucketMode(Configuration configuration)
+    {
+        return FLOW_CONTROL_TOKEN_BUCKET.equalsIgnoreCase(configuration.getString(CORE_TRANSPORT_CHANNEL_FLOW_CONTROL, "interval"));
+    }
+
+    /**
+     * Set up the job level speed limits shared by all channels, it is called once by the job before scheduling.
+     * In token bucket mode {@code job.setting.speed.byte} and {@code job.setting.speed.record} are enforced
+     * as a whole, instead of being divided into the number of channels.
+     *
+     * @param configuration the job configuration
+     */
+    public static void initJobFlowControl(Configuration configuration)
+    {
+        jobByteBucket = null;
+        jobRecordBucket = null;
+        if (!isTokenBucketMode(configuration)) {
+            return;
+        }
+        long burstNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getLong(CORE_TRANSPORT_CHANNEL_FLOW_CONTROL_INTERVAL, 1000));
+        long byteSpeed = configuration.getLong(JOB_SETTING_SPEED_BYTE, -1);
+        long recordSpeed = configuration.getLong(JOB_SETTING_SPEED_RECORD, -1);
+        if (byteSpeed > 0) {
+            jobByteBucket = new TokenBucket(byteSpeed, burstNanos);
+            LOG.info("The job shares a byte speed limit of {} bytes/s between all channels.", byteSpeed);
+        }
+        if (recordSpeed > 0) {
+            jobRecordBucket = new TokenBucket(recordSpeed, burstNanos);
+            LOG.info("The job shares a record speed limit of {} records/s between all channels.", recordSpeed);
+        }
     }
 
     public void close()
@@ -95,6 +184,31 @@ public abstract class Channel
         return this.taskGroupId;
     }
 
+    /**
+     * Whether the reader and writer should exchange whole batches through this channel.
+     *
+     * @return true if batch transfer is enabled and supported by the implementation
+     */
+    public boolean isBatchTransfer()
+    {
+        return batchPool != null && supportBatch();
+    }
+
+    public RecordBatchPool getBatchPool()
+    {
+        return batchPool;
+    }
+
+    /**
+     * The pool of reusable records, it is null unless {@code core.transport.record.pool} is enabled.
+     *
+     * @return the record pool of this channel
+     */
+    public RecordPool getRecordPool()
+    {
+        return recordPool;
+    }
+
     public int getCapacity()
     {
         return capacity;
@@ -126,7 +240,15 @@ public abstract class Channel
     public void pushTerminate(TerminateRecord r)
     {
         Validate.notNull(r, "The record cannot be empty.");
-        this.doPush(r);
+        if (this.isBatchTransfer()) {
+            // the writer only pulls batches in batch transfer mode
+            List<Record> batch = batchPool.borrow();
+            batch.add(r);
+            this.doPushBatch(batch);
+        }
+        else {
+            this.doPush(r);
+        }
     }
 
     public void pushAll(Collection<Record> rs)
@@ -134,7 +256,7 @@ public abstract class Channel
         Validate.notNull(rs, "The Record must not be empty");
         Validate.noNullElements(rs);
         this.doPushAll(rs);
-        this.statPush(rs.size(), this.getByteSize(rs));
+        this.statPush(this.getRecordCount(rs), this.getByteSize(rs));
     }
 
     public Record pull()
@@ -148,7 +270,50 @@ public abstract class Channel
     {
         Validate.notNull(rs, "The Record must not be empty");
         this.doPullAll(rs);
-        this.statPull(rs.size(), this.getByteSize(rs));
+        this.statPull(this.getRecordCount(rs), this.getByteSize(rs));
+    }
+
+    /**
+     * Hand over the whole batch to the writer, the batch must not be touched by the caller afterwards.
+     *
+     * @param batch the records to be sent
+     */
+    public void pushBatch(List<Record> batch)
+    {
+        Validate.notNull(batch, "The Record must not be empty");
+        Validate.noNullElements(batch);
+        // the batch may be consumed and recycled by the writer as soon as it is pushed, measure it first
+        long recordSize = this.getRecordCount(batch);
+        long byteSize = this.getByteSize(batch);
+        this.doPushBatch(batch);
+        this.statPush(recordSize, byteSize);
+    }
+
+    /**
+     * Take the next batch sent by the reader, it should be given back to {@link #getBatchPool()} once consumed.
+     *
+     * @return the batch
+     */
+    public List<Record> pullBatch()
+    {
+        List<Record> batch = this.doPullBatch();
+        this.statPull(this.getRecordCount(batch), this.getByteSize(batch));
+        return batch;
+    }
+
+    protected boolean supportBatch()
+    {
+        return false;
+    }
+
+    protected void doPushBatch(List<Record> batch)
+    {
+        throw new UnsupportedOperationException(this.getClass().getName() + " does not support batch transfer.");
+    }
+
+    protected List<Record> doPullBatch()
+    {
+        throw new UnsupportedOperationException(this.getClass().getName() + " does not support batch transfer.");
     }
 
     protected abstract void doPush(Record r);
@@ -165,6 +330,16 @@ public abstract class Channel
 
     public abstract void clear();
 
+    // a columnar batch travels as one element but stands for all of its rows
+    private long getRecordCount(Collection<Record> rs)
+    {
+        long count = 0;
+        for (Record each : rs) {
+            count += each instanceof ColumnarBatchRecord ? ((ColumnarBatchRecord) each).getRowCount() : 1;
+        }
+        return count;
+    }
+
     private long getByteSize(Collection<Record> rs)
     {
         long size = 0;
@@ -176,11 +351,16 @@ public abstract class Channel
 
     private void statPush(long recordSize, long byteSize)
     {
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_RECORDS, recordSize);
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_BYTES, byteSize);
+        currentCommunication.increaseCounter(CounterKey.READ_SUCCEED_RECORDS, recordSize);
+        currentCommunication.increaseCounter(CounterKey.READ_SUCCEED_BYTES, byteSize);
+
+        currentCommunication.setLongCounter(CounterKey.WAIT_READER_TIME, waitReaderTime.get());
+        currentCommunication.setLongCounter(CounterKey.WAIT_WRITER_TIME, waitWriterTime.get());
 
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_READER_TIME, waitReaderTime.get());
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_WRITER_TIME, waitWriterTime.get());
+        if (tokenBucketMode) {
+            throttle(recordSize, byteSize);
+            return;
+        }
 
         boolean isChannelByteSpeedLimit = (this.byteSpeed > 0);
         boolean isChannelRecordSpeedLimit = (this.recordSpeed > 0);
@@ -220,21 +400,42 @@ public abstract class Channel
                 }
             }
 
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_RECORDS));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_RECORDS));
+            lastCommunication.setLongCounter(CounterKey.READ_SUCCEED_BYTES,
+                    currentCommunication.getLongCounter(CounterKey.READ_SUCCEED_BYTES));
+            lastCommunication.setLongCounter(CounterKey.READ_FAILED_BYTES,
+                    currentCommunication.getLongCounter(CounterKey.READ_FAILED_BYTES));
+            lastCommunication.setLongCounter(CounterKey.READ_SUCCEED_RECORDS,
+                    currentCommunication.getLongCounter(CounterKey.READ_SUCCEED_RECORDS));
+            lastCommunication.setLongCounter(CounterKey.READ_FAILED_RECORDS,
+                    currentCommunication.getLongCounter(CounterKey.READ_FAILED_RECORDS));
             lastCommunication.setTimestamp(nowTimestamp);
         }
     }
 
+    // reserve from every bucket at once and wait for the slowest of them
+    private void throttle(long recordSize, long byteSize)
+    {
+        long waitNanos = 0;
+        TokenBucket bucket = jobByteBucket;
+        if (bucket != null) {
+            waitNanos = Math.max(waitNanos, bucket.reserve(byteSize));
+        }
+        bucket = jobRecordBucket;
+        if (bucket != null) {
+            waitNanos = Math.max(waitNanos, bucket.reserve(recordSize));
+        }
+        if (byteBucket != null) {
+            waitNanos = Math.max(waitNanos, byteBucket.reserve(byteSize));
+        }
+        if (recordBucket != null) {
+            waitNanos = Math.max(waitNanos, recordBucket.reserve(recordSize));
+        }
+        TokenBucket.sleep(waitNanos);
+    }
+
     private void statPull(long recordSize, long byteSize)
     {
-        currentCommunication.increaseCounter(CommunicationTool.WRITE_RECEIVED_RECORDS, recordSize);
-        currentCommunication.increaseCounter(CommunicationTool.WRITE_RECEIVED_BYTES, byteSize);
+        currentCommunication.increaseCounter(CounterKey.WRITE_RECEIVED_RECORDS, recordSize);
+        currentCommunication.increaseCounter(CounterKey.WRITE_RECEIVED_BYTES, byteSize);
     }
 }
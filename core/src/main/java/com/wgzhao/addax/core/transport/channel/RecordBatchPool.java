@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel;
+
+import com.wgzhao.addax.core.element.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A pool of empty record batches shared by the reader and the writer of one task.
+ * The reader borrows a batch, fills it and hands it through the channel,
+ * the writer clears it after consuming and gives it back,
+ * so in steady state no batch list is allocated at all.
+ */
+public class RecordBatchPool
+{
+    private final ArrayBlockingQueue<List<Record>> pool;
+
+    private final int batchSize;
+
+    public RecordBatchPool(int poolSize, int batchSize)
+    {
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.batchSize = batchSize;
+    }
+
+    public List<Record> borrow()
+    {
+        List<Record> batch = pool.poll();
+        if (batch == null) {
+            batch = new ArrayList<>(batchSize);
+        }
+        return batch;
+    }
+
+    public void giveBack(List<Record> batch)
+    {
+        if (batch == null) {
+            return;
+        }
+        batch.clear();
+        // the pool is bounded, the extra batch is left to gc
+        pool.offer(batch);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel;
+
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * A pool of records shared by the reader and the writer of one task.
+ * <p>
+ * The reader thread borrows records, the writer thread gives back the records it has consumed.
+ * Records move between the two threads in chunks, so the pool pays one queue operation per
+ * {@value #CHUNK_SIZE} records rather than one per record. Only {@link DefaultRecord} is recycled,
+ * any other record is left to gc.
+ */
+public class RecordPool
+{
+    private static final int CHUNK_SIZE = 256;
+
+    private final Supplier<Record> factory;
+
+    // chunks of recycled records, from writer to reader
+    private final ArrayBlockingQueue<ArrayDeque<Record>> fullChunks;
+
+    // drained chunks, from reader back to writer
+    private final ArrayBlockingQueue<ArrayDeque<Record>> emptyChunks;
+
+    // only touched by the reader thread
+    private ArrayDeque<Record> borrowChunk = new ArrayDeque<>(CHUNK_SIZE);
+
+    // only touched by the writer thread
+    private ArrayDeque<Record> returnChunk = new ArrayDeque<>(CHUNK_SIZE);
+
+    public RecordPool(Supplier<Record> factory, int capacity)
+    {
+        this.factory = factory;
+        int chunks = Math.max(1, capacity / CHUNK_SIZE) + 2;
+        this.fullChunks = new ArrayBlockingQueue<>(chunks);
+        this.emptyChunks = new ArrayBlockingQueue<>(chunks);
+    }
+
+    /**
+     * Called by the reader thread.
+     *
+     * @return a recycled record, or a new one if none is available
+     */
+    public Record borrow()
+    {
+        Record record = borrowChunk.poll();
+        if (record != null) {
+            return record;
+        }
+        ArrayDeque<Record> next = fullChunks.poll();
+        if (next == null) {
+            return factory.get();
+        }
+        emptyChunks.offer(borrowChunk);
+        borrowChunk = next;
+        return borrowChunk.poll();
+    }
+
+    /**
+     * Called by the writer thread once it does not reference the record anymore.
+     *
+     * @param record the consumed record
+     */
+    public void giveBack(Record record)
+    {
+        if (!(record instanceof DefaultRecord)) {
+            return;
+        }
+        ((DefaultRecord) record).reset();
+        returnChunk.add(record);
+        if (returnChunk.size() >= CHUNK_SIZE) {
+            if (!fullChunks.offer(returnChunk)) {
+                // the reader has enough records already
+                returnChunk.clear();
+                return;
+            }
+            ArrayDeque<Record> empty = emptyChunks.poll();
+            returnChunk = empty == null ? new ArrayDeque<>(CHUNK_SIZE) : empty;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A lock-free token bucket with nanosecond accounting, safe to share between threads.
+ * <p>
+ * Instead of counting tokens, it keeps the time at which all permits granted so far are paid off.
+ * Each caller reserves its permits by moving that time forward with a CAS, and then parks until its
+ * own reservation is due, so concurrent callers are served in order and the overall rate stays smooth.
+ * Permits not used while idle are kept for at most {@code burstNanos}.
+ */
+public class TokenBucket
+{
+    // park in small slices so that an interrupt or a shutdown is noticed quickly
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final long rate;
+
+    private final long burstNanos;
+
+    private final AtomicLong paidOffAt;
+
+    /**
+     * @param rate the permits per second, must be positive
+     * @param burstNanos how long idle permits are kept
+     */
+    public TokenBucket(long rate, long burstNanos)
+    {
+        if (rate <= 0) {
+            throw new IllegalArgumentException(String.format("The rate [%d] must be greater than 0.", rate));
+        }
+        this.rate = rate;
+        this.burstNanos = Math.max(0, burstNanos);
+        this.paidOffAt = new AtomicLong(System.nanoTime());
+    }
+
+    public long getRate()
+    {
+        return rate;
+    }
+
+    /**
+     * Reserve the permits and return how long the caller has to wait before using them.
+     *
+     * @param permits the number of permits
+     * @return the time to wait in nanoseconds, 0 if the permits are available now
+     */
+    public long reserve(long permits)
+    {
+        if (permits <= 0) {
+            return 0;
+        }
+        long cost = permitsToNanos(permits);
+        while (true) {
+            long now = System.nanoTime();
+            long prev = paidOffAt.get();
+            long next = Math.max(prev, now - burstNanos) + cost;
+            if (paidOffAt.compareAndSet(prev, next)) {
+                return Math.max(0, next - now);
+            }
+        }
+    }
+
+    /**
+     * Block until the permits are available.
+     *
+     * @param permits the number of permits
+     */
+    public void acquire(long permits)
+    {
+        sleep(reserve(permits));
+    }
+
+    /**
+     * Park the current thread for the given time in small slices.
+     *
+     * @param nanos the time to wait in nanoseconds
+     */
+    public static void sleep(long nanos)
+    {
+        if (nanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    private long permitsToNanos(long permits)
+    {
+        // avoid overflow of permits * 1e9 for large byte counts
+        if (permits < Long.MAX_VALUE / TimeUnit.SECONDS.toNanos(1)) {
+            return permits * TimeUnit.SECONDS.toNanos(1) / rate;
+        }
+        return (long) ((double) permits / rate * TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -26,6 +26,7 @@ import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -46,6 +47,8 @@ public class MemoryChannel
 
     private final ArrayBlockingQueue<Record> queue;
 
+    private final ArrayBlockingQueue<List<Record>> batchQueue;
+
     private final ReentrantLock lock;
 
     private final Condition notInsufficient;
@@ -55,6 +58,7 @@ public class MemoryChannel
     {
         super(configuration);
         this.queue = new ArrayBlockingQueue<>(this.getCapacity());
+        this.batchQueue = new ArrayBlockingQueue<>(this.batchCapacity);
         this.bufferSize = configuration.getInt(CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
 
         lock = new ReentrantLock();
@@ -78,6 +82,7 @@ public class MemoryChannel
     public void clear()
     {
         this.queue.clear();
+        this.batchQueue.clear();
     }
 
     @Override
@@ -157,6 +162,60 @@ public class MemoryChannel
         }
     }
 
+    @Override
+    protected boolean supportBatch()
+    {
+        return true;
+    }
+
+    @Override
+    protected void doPushBatch(List<Record> batch)
+    {
+        try {
+            long startTime = System.nanoTime();
+            lock.lockInterruptibly();
+            int bytes = getRecordBytes(batch);
+            // an empty queue always accepts the batch, otherwise an oversize batch could never be pushed
+            while ((memoryBytes.get() + bytes > this.byteCapacity && !this.batchQueue.isEmpty())
+                    || this.batchQueue.remainingCapacity() == 0) {
+                notInsufficient.await(200L, TimeUnit.MILLISECONDS);
+            }
+            this.batchQueue.add(batch);
+            waitReaderTime.addAndGet(System.nanoTime() - startTime);
+            memoryBytes.addAndGet(bytes);
+            notEmpty.signalAll();
+        }
+        catch (InterruptedException e) {
+            throw AddaxException.asAddaxException(RUNTIME_ERROR, e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected List<Record> doPullBatch()
+    {
+        try {
+            long startTime = System.nanoTime();
+            lock.lockInterruptibly();
+            List<Record> batch;
+            while ((batch = this.batchQueue.poll()) == null) {
+                notEmpty.await(200L, TimeUnit.MILLISECONDS);
+            }
+            waitReaderTime.addAndGet(System.nanoTime() - startTime);
+            memoryBytes.addAndGet(-getRecordBytes(batch));
+            notInsufficient.signalAll();
+            return batch;
+        }
+        catch (InterruptedException e) {
+            throw AddaxException.asAddaxException(RUNTIME_ERROR, e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
     private int getRecordBytes(Collection<Record> rs)
     {
         int bytes = 0;
@@ -169,12 +228,12 @@ public class MemoryChannel
     @Override
     public int size()
     {
-        return this.queue.size();
+        return this.queue.size() + this.batchQueue.size();
     }
 
     @Override
     public boolean isEmpty()
     {
-        return this.queue.isEmpty();
+        return this.queue.isEmpty() && this.batchQueue.isEmpty();
     }
 }
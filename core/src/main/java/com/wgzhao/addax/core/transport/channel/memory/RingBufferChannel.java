@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.memory;
+
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.exception.AddaxException;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import com.wgzhao.addax.core.util.Configuration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.wgzhao.addax.core.spi.ErrorCode.RUNTIME_ERROR;
+import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE;
+
+/**
+ * A lock-free single-producer/single-consumer channel backed by a ring buffer.
+ * <p>
+ * Every task owns exactly one reader thread (the producer) and one writer thread (the consumer),
+ * so the two sides only need to publish their own cursor, no lock or condition is involved.
+ * A side that has to wait spins briefly and then parks for a short, fixed period instead of
+ * being signalled, which avoids the park/unpark churn of {@link MemoryChannel}.
+ * <p>
+ * Enable it with {@code "core.transport.channel.class": "com.wgzhao.addax.core.transport.channel.memory.RingBufferChannel"}
+ */
+public class RingBufferChannel
+        extends Channel
+{
+    private static final int SPIN_TRIES = 128;
+
+    private static final int YIELD_TRIES = 16;
+
+    private static final long PARK_NANOS = 50_000L;
+
+    private final int bufferSize;
+
+    private final int mask;
+
+    // holds records, or whole record batches when batch transfer is enabled
+    private final Object[] ring;
+
+    private final AtomicInteger memoryBytes = new AtomicInteger(0);
+
+    // the next slot to be read, only advanced by the consumer
+    private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+    // the next slot to be written, only advanced by the producer
+    private final PaddedAtomicLong tail = new PaddedAtomicLong();
+
+    // the producer's last observed value of head, saves a volatile read per record
+    private long cachedHead = 0;
+
+    // the consumer's last observed value of tail
+    private long cachedTail = 0;
+
+    public RingBufferChannel(Configuration configuration)
+    {
+        super(configuration);
+        int slots = this.getBatchPool() != null ? this.batchCapacity : this.getCapacity();
+        int ringSize = 1;
+        while (ringSize < slots) {
+            ringSize <<= 1;
+        }
+        this.ring = new Object[ringSize];
+        this.mask = ringSize - 1;
+        this.bufferSize = configuration.getInt(CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        this.doPush(TerminateRecord.get());
+    }
+
+    @Override
+    public void clear()
+    {
+        long current = head.get();
+        long end = tail.get();
+        while (current < end) {
+            ring[(int) (current & mask)] = null;
+            current++;
+        }
+        head.lazySet(end);
+        memoryBytes.set(0);
+    }
+
+    @Override
+    protected void doPush(Record r)
+    {
+        long startTime = System.nanoTime();
+        memoryBytes.addAndGet(r.getMemorySize());
+        offer(r);
+        waitWriterTime.addAndGet(System.nanoTime() - startTime);
+    }
+
+    @Override
+    protected void doPushAll(Collection<Record> rs)
+    {
+        long startTime = System.nanoTime();
+        int bytes = getRecordBytes(rs);
+        int idle = 0;
+        // an empty ring always accepts the batch, otherwise an oversize batch could never be pushed
+        while (memoryBytes.get() + bytes > this.byteCapacity && tail.get() != head.get()) {
+            idle = idle(idle);
+        }
+        memoryBytes.addAndGet(bytes);
+
+        long t = tail.get();
+        idle = 0;
+        for (Record r : rs) {
+            while (t - cachedHead >= ring.length) {
+                // publish what has been written so far so that the consumer can make room
+                tail.lazySet(t);
+                cachedHead = head.get();
+                if (t - cachedHead >= ring.length) {
+                    idle = idle(idle);
+                }
+            }
+            ring[(int) (t & mask)] = r;
+            t++;
+        }
+        tail.lazySet(t);
+        waitWriterTime.addAndGet(System.nanoTime() - startTime);
+    }
+
+    @Override
+    protected Record doPull()
+    {
+        long startTime = System.nanoTime();
+        Record r = (Record) poll();
+        memoryBytes.addAndGet(-r.getMemorySize());
+        waitReaderTime.addAndGet(System.nanoTime() - startTime);
+        return r;
+    }
+
+    @Override
+    protected void doPullAll(Collection<Record> rs)
+    {
+        assert rs != null;
+        rs.clear();
+        long startTime = System.nanoTime();
+        int idle = 0;
+        long h = head.get();
+        while (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                idle = idle(idle);
+            }
+        }
+        long end = Math.min(cachedTail, h + bufferSize);
+        int bytes = 0;
+        while (h < end) {
+            int index = (int) (h & mask);
+            Record r = (Record) ring[index];
+            ring[index] = null;
+            rs.add(r);
+            bytes += r.getMemorySize();
+            h++;
+        }
+        head.lazySet(h);
+        memoryBytes.addAndGet(-bytes);
+        waitReaderTime.addAndGet(System.nanoTime() - startTime);
+    }
+
+    @Override
+    protected boolean supportBatch()
+    {
+        return true;
+    }
+
+    @Override
+    protected void doPushBatch(List<Record> batch)
+    {
+        long startTime = System.nanoTime();
+        int bytes = getRecordBytes(batch);
+        int idle = 0;
+        while (memoryBytes.get() + bytes > this.byteCapacity && tail.get() != head.get()) {
+            idle = idle(idle);
+        }
+        memoryBytes.addAndGet(bytes);
+        offer(batch);
+        waitWriterTime.addAndGet(System.nanoTime() - startTime);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected List<Record> doPullBatch()
+    {
+        long startTime = System.nanoTime();
+        List<Record> batch = (List<Record>) poll();
+        memoryBytes.addAndGet(-getRecordBytes(batch));
+        waitReaderTime.addAndGet(System.nanoTime() - startTime);
+        return batch;
+    }
+
+    @Override
+    public int size()
+    {
+        return (int) (tail.get() - head.get());
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return tail.get() == head.get();
+    }
+
+    // producer side: wait for a free slot and publish one item
+    private void offer(Object item)
+    {
+        int idle = 0;
+        long t = tail.get();
+        while (t - cachedHead >= ring.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= ring.length) {
+                idle = idle(idle);
+            }
+        }
+        ring[(int) (t & mask)] = item;
+        tail.lazySet(t + 1);
+    }
+
+    // consumer side: wait for a published slot and take its item
+    private Object poll()
+    {
+        int idle = 0;
+        long h = head.get();
+        while (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                idle = idle(idle);
+            }
+        }
+        int index = (int) (h & mask);
+        Object item = ring[index];
+        ring[index] = null;
+        head.lazySet(h + 1);
+        return item;
+    }
+
+    private int getRecordBytes(Collection<Record> rs)
+    {
+        int bytes = 0;
+        for (Record r : rs) {
+            bytes += r.getMemorySize();
+        }
+        return bytes;
+    }
+
+    /*
+     * back off while the other side catches up: busy spin first, then yield, then park shortly.
+     * the waiting side is never woken up explicitly, so no unpark is needed on the fast path.
+     */
+    private static int idle(int idle)
+    {
+        if (Thread.interrupted()) {
+            throw AddaxException.asAddaxException(RUNTIME_ERROR, new InterruptedException("The channel wait is interrupted."));
+        }
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        }
+        else if (idle < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        }
+        else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return idle + 1;
+    }
+
+    /*
+     * keep head and tail on different cache lines to avoid false sharing between the reader and the writer
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedAtomicLong
+            extends AtomicLong
+    {
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
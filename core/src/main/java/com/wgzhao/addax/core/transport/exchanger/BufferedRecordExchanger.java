@@ -19,6 +19,7 @@
 
 package com.wgzhao.addax.core.transport.exchanger;
 
+import com.wgzhao.addax.core.element.ColumnarBatch;
 import com.wgzhao.addax.core.element.Record;
 import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.RecordReceiver;
@@ -26,6 +27,11 @@ import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.channel.RecordBatchPool;
+import com.wgzhao.addax.core.transport.channel.RecordPool;
+import com.wgzhao.addax.core.transport.record.ColumnarBatchRecord;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -34,8 +40,8 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
-import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
 import static com.wgzhao.addax.core.spi.ErrorCode.SHUT_DOWN_TASK;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE;
 import static com.wgzhao.addax.core.util.container.CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE;
@@ -45,10 +51,12 @@ public class BufferedRecordExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> recordClass;
     protected final int byteCapacity;
+    private final Supplier<Record> recordFactory;
+    private final RecordPool recordPool;
     private final Channel channel;
-    private final List<Record> buffer;
+    private final RecordBatchPool batchPool;
+    private List<Record> buffer;
     private final AtomicInteger memoryBytes = new AtomicInteger(0);
     private final TaskPluginCollector pluginCollector;
 
@@ -56,8 +64,11 @@ public class BufferedRecordExchanger
     private int bufferSize;
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
+    // the columnar batch being unpacked into records for a record based writer
+    private ColumnarBatch pendingBatch;
+    private int pendingRow = 0;
+    private boolean terminated = false;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordExchanger(Channel channel, TaskPluginCollector pluginCollector)
     {
         assert null != channel;
@@ -68,32 +79,28 @@ public class BufferedRecordExchanger
         Configuration configuration = channel.getConfiguration();
 
         this.bufferSize = configuration.getInt(CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
-        this.buffer = new ArrayList<>(bufferSize);
+        if (channel.isBatchTransfer()) {
+            // the buffer itself is handed over to the channel, and a recycled one takes its place
+            this.batchPool = channel.getBatchPool();
+            this.buffer = batchPool.borrow();
+        }
+        else {
+            this.batchPool = null;
+            this.buffer = new ArrayList<>(bufferSize);
+        }
 
         //channel的queue默认大小为8M，原来为64M
         this.byteCapacity = configuration.getInt(
                 CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
 
-        try {
-            BufferedRecordExchanger.recordClass = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(CONFIG_ERROR, e);
-        }
+        this.recordFactory = RecordFactory.of(configuration.getString(CORE_TRANSPORT_RECORD_CLASS, DefaultRecord.class.getName()));
+        this.recordPool = channel.getRecordPool();
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordExchanger.recordClass.getConstructor().newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(CONFIG_ERROR, e);
-        }
+        return recordPool != null ? recordPool.borrow() : recordFactory.get();
     }
 
     @Override
@@ -122,14 +129,49 @@ public class BufferedRecordExchanger
         memoryBytes.addAndGet(record.getMemorySize());
     }
 
+    @Override
+    public void sendBatchToWriter(ColumnarBatch batch)
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(SHUT_DOWN_TASK, "");
+        }
+
+        Validate.notNull(batch, "The batch cannot be empty.");
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.getMemorySize() > this.byteCapacity) {
+            // too large to be put into the channel as a whole, fall back to send it row by row
+            RecordSender.super.sendBatchToWriter(batch);
+            return;
+        }
+
+        // keep the order with the records sent before, then hand the batch over as one element
+        if (!this.buffer.isEmpty()) {
+            flush();
+        }
+        this.buffer.add(new ColumnarBatchRecord(batch));
+        flush();
+    }
+
     @Override
     public void flush()
     {
         if (shutdown) {
             throw AddaxException.asAddaxException(SHUT_DOWN_TASK, "");
         }
-        this.channel.pushAll(this.buffer);
-        this.buffer.clear();
+        if (batchPool != null) {
+            if (!this.buffer.isEmpty()) {
+                this.channel.pushBatch(this.buffer);
+                this.buffer = batchPool.borrow();
+            }
+        }
+        else {
+            this.channel.pushAll(this.buffer);
+            this.buffer.clear();
+        }
         this.bufferIndex = 0;
         this.memoryBytes.set(0);
     }
@@ -150,16 +192,66 @@ public class BufferedRecordExchanger
         if (shutdown) {
             throw AddaxException.asAddaxException(SHUT_DOWN_TASK, "");
         }
-        boolean isEmpty = (this.bufferIndex >= this.buffer.size());
-        if (isEmpty) {
-            receive();
+        while (true) {
+            if (pendingBatch != null) {
+                if (pendingRow < pendingBatch.getRowCount()) {
+                    // the record pool belongs to the reader thread, so create the record directly here
+                    Record record = recordFactory.get();
+                    pendingBatch.toRecord(pendingRow++, record);
+                    return record;
+                }
+                pendingBatch = null;
+            }
+
+            if (terminated) {
+                return null;
+            }
+
+            boolean isEmpty = (this.bufferIndex >= this.buffer.size());
+            if (isEmpty) {
+                receive();
+            }
+
+            Record record = this.buffer.get(this.bufferIndex++);
+            if (record instanceof TerminateRecord) {
+                terminated = true;
+                return null;
+            }
+            if (record instanceof ColumnarBatchRecord) {
+                pendingBatch = ((ColumnarBatchRecord) record).getBatch();
+                pendingRow = 0;
+                continue;
+            }
+            return record;
+        }
+    }
+
+    @Override
+    public ColumnarBatch getBatchFromReader(int maxRows)
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(SHUT_DOWN_TASK, "");
+        }
+        if (pendingBatch == null && !terminated) {
+            if (this.bufferIndex >= this.buffer.size()) {
+                receive();
+            }
+            Record record = this.buffer.get(this.bufferIndex);
+            if (record instanceof ColumnarBatchRecord) {
+                // the reader sent a batch, pass it to the writer as it is
+                this.bufferIndex++;
+                return ((ColumnarBatchRecord) record).getBatch();
+            }
         }
+        return RecordReceiver.super.getBatchFromReader(maxRows);
+    }
 
-        Record record = this.buffer.get(this.bufferIndex++);
-        if (record instanceof TerminateRecord) {
-            record = null;
+    @Override
+    public void recycle(Record record)
+    {
+        if (recordPool != null && record != null) {
+            recordPool.giveBack(record);
         }
-        return record;
     }
 
     @Override
@@ -177,7 +269,13 @@ public class BufferedRecordExchanger
 
     private void receive()
     {
-        this.channel.pullAll(this.buffer);
+        if (batchPool != null) {
+            batchPool.giveBack(this.buffer);
+            this.buffer = this.channel.pullBatch();
+        }
+        else {
+            this.channel.pullAll(this.buffer);
+        }
         this.bufferIndex = 0;
         this.bufferSize = this.buffer.size();
     }
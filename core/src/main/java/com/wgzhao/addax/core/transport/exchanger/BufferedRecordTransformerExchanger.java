@@ -28,6 +28,10 @@ import com.wgzhao.addax.core.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.channel.RecordBatchPool;
+import com.wgzhao.addax.core.transport.channel.RecordPool;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import com.wgzhao.addax.core.transport.record.RecordFactory;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.container.CoreConstant;
@@ -36,24 +40,24 @@ import org.apache.commons.lang3.Validate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
-
-import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
+import java.util.function.Supplier;
 
 public class BufferedRecordTransformerExchanger
         extends TransformerExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> RECORD_CLASS;
     protected final int byteCapacity;
+    private final Supplier<Record> recordFactory;
+    private final RecordPool recordPool;
     private final Channel channel;
-    private final List<Record> buffer;
+    private final RecordBatchPool batchPool;
+    private List<Record> buffer;
     private final AtomicInteger memoryBytes = new AtomicInteger(0);
     private int bufferSize;
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordTransformerExchanger(int taskGroupId, int taskId,
             Channel channel, Communication communication,
             TaskPluginCollector pluginCollector,
@@ -67,32 +71,28 @@ public class BufferedRecordTransformerExchanger
         Configuration configuration = channel.getConfiguration();
 
         this.bufferSize = configuration.getInt(CoreConstant.CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE, 32);
-        this.buffer = new ArrayList<>(bufferSize);
+        if (channel.isBatchTransfer()) {
+            // the buffer itself is handed over to the channel, and a recycled one takes its place
+            this.batchPool = channel.getBatchPool();
+            this.buffer = batchPool.borrow();
+        }
+        else {
+            this.batchPool = null;
+            this.buffer = new ArrayList<>(bufferSize);
+        }
 
         //channel的queue默认大小为8M，原来为64M
         this.byteCapacity = configuration.getInt(
                 CoreConstant.CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
 
-        try {
-            BufferedRecordTransformerExchanger.RECORD_CLASS = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(CONFIG_ERROR, e);
-        }
+        this.recordFactory = RecordFactory.of(configuration.getString(CoreConstant.CORE_TRANSPORT_RECORD_CLASS, DefaultRecord.class.getName()));
+        this.recordPool = channel.getRecordPool();
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordTransformerExchanger.RECORD_CLASS.getConstructor().newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(CONFIG_ERROR, e);
-        }
+        return recordPool != null ? recordPool.borrow() : recordFactory.get();
     }
 
     @Override
@@ -133,10 +133,18 @@ public class BufferedRecordTransformerExchanger
         if (shutdown) {
             throw AddaxException.asAddaxException(ErrorCode.SHUT_DOWN_TASK, "");
         }
-        this.channel.pushAll(this.buffer);
+        if (batchPool != null) {
+            if (!this.buffer.isEmpty()) {
+                this.channel.pushBatch(this.buffer);
+                this.buffer = batchPool.borrow();
+            }
+        }
+        else {
+            this.channel.pushAll(this.buffer);
+            this.buffer.clear();
+        }
         //和channel的统计保持同步
         doStat();
-        this.buffer.clear();
         this.bufferIndex = 0;
         this.memoryBytes.set(0);
     }
@@ -169,6 +177,14 @@ public class BufferedRecordTransformerExchanger
         return record;
     }
 
+    @Override
+    public void recycle(Record record)
+    {
+        if (recordPool != null && record != null) {
+            recordPool.giveBack(record);
+        }
+    }
+
     @Override
     public void shutdown()
     {
@@ -184,7 +200,13 @@ public class BufferedRecordTransformerExchanger
 
     private void receive()
     {
-        this.channel.pullAll(this.buffer);
+        if (batchPool != null) {
+            batchPool.giveBack(this.buffer);
+            this.buffer = this.channel.pullBatch();
+        }
+        else {
+            this.channel.pullAll(this.buffer);
+        }
         this.bufferIndex = 0;
         this.bufferSize = this.buffer.size();
     }
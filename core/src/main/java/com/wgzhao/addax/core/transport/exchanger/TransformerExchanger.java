@@ -23,7 +23,7 @@ import com.wgzhao.addax.core.element.Record;
 import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.CounterKey;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.container.ClassLoaderSwapper;
 
@@ -139,9 +139,9 @@ public abstract class TransformerExchanger
 
     public void doStat()
     {
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_SUCCEED_RECORDS, totalSuccessRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_FAILED_RECORDS, totalFailedRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_FILTER_RECORDS, totalFilterRecords);
-        currentCommunication.setLongCounter(CommunicationTool.TRANSFORMER_USED_TIME, totalExhaustedTime);
+        currentCommunication.setLongCounter(CounterKey.TRANSFORMER_SUCCEED_RECORDS, totalSuccessRecords);
+        currentCommunication.setLongCounter(CounterKey.TRANSFORMER_FAILED_RECORDS, totalFailedRecords);
+        currentCommunication.setLongCounter(CounterKey.TRANSFORMER_FILTER_RECORDS, totalFilterRecords);
+        currentCommunication.setLongCounter(CounterKey.TRANSFORMER_USED_TIME, totalExhaustedTime);
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.core.element.Column;
+import com.wgzhao.addax.core.element.ColumnarBatch;
+import com.wgzhao.addax.core.element.Record;
+
+import java.util.Map;
+
+/**
+ * Carries a whole {@link ColumnarBatch} through the channel as one element.
+ * It is only seen by the exchangers, which unpack it into rows for record based writers.
+ */
+public class ColumnarBatchRecord
+        implements Record
+{
+    private final ColumnarBatch batch;
+
+    private final int byteSize;
+
+    private final int memorySize;
+
+    private Map<String, String> meta;
+
+    public ColumnarBatchRecord(ColumnarBatch batch)
+    {
+        this.batch = batch;
+        this.byteSize = batch.getByteSize();
+        this.memorySize = batch.getMemorySize();
+    }
+
+    public ColumnarBatch getBatch()
+    {
+        return batch;
+    }
+
+    public int getRowCount()
+    {
+        return batch.getRowCount();
+    }
+
+    @Override
+    public void addColumn(Column column)
+    {
+        throw new UnsupportedOperationException("A columnar batch can not be modified as a record.");
+    }
+
+    @Override
+    public void setColumn(int i, Column column)
+    {
+        throw new UnsupportedOperationException("A columnar batch can not be modified as a record.");
+    }
+
+    @Override
+    public Column getColumn(int i)
+    {
+        return null;
+    }
+
+    @Override
+    public int getColumnNumber()
+    {
+        return batch.getColumnCount();
+    }
+
+    @Override
+    public int getByteSize()
+    {
+        return byteSize;
+    }
+
+    @Override
+    public int getMemorySize()
+    {
+        return memorySize;
+    }
+
+    @Override
+    public void setMeta(Map<String, String> meta)
+    {
+        this.meta = meta;
+    }
+
+    @Override
+    public Map<String, String> getMeta()
+    {
+        return this.meta;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ColumnarBatchRecord{columns=%d, rows=%d}", batch.getColumnCount(), batch.getRowCount());
+    }
+}
@@ -127,6 +127,17 @@ public class DefaultRecord
         return this.meta;
     }
 
+    /**
+     * Clear the record so that it can be reused for another row.
+     */
+    public void reset()
+    {
+        this.columns.clear();
+        this.byteSize = 0;
+        this.memorySize = ClassSize.DEFAULT_RECORD_HEAD;
+        this.meta = null;
+    }
+
     private void decrByteSize(Column column)
     {
         if (null == column) {
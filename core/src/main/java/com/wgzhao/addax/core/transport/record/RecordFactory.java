@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.exception.AddaxException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
+import static com.wgzhao.addax.core.spi.ErrorCode.RUNTIME_ERROR;
+
+/**
+ * Builds and caches a {@link Supplier} for each record class, so that creating a record
+ * is a plain constructor call instead of a reflective lookup per row.
+ */
+public final class RecordFactory
+{
+    private static final Map<String, Supplier<Record>> SUPPLIERS = new ConcurrentHashMap<>();
+
+    private RecordFactory() {}
+
+    public static Supplier<Record> of(String className)
+    {
+        return SUPPLIERS.computeIfAbsent(className, RecordFactory::build);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Record> build(String className)
+    {
+        MethodHandle constructor;
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(className);
+            if (!Record.class.isAssignableFrom(clazz)) {
+                throw AddaxException.asAddaxException(CONFIG_ERROR,
+                        String.format("The record class [%s] does not implement %s.", className, Record.class.getName()));
+            }
+            constructor = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class));
+        }
+        catch (ReflectiveOperationException e) {
+            throw AddaxException.asAddaxException(CONFIG_ERROR, e);
+        }
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    constructor, MethodType.methodType(clazz));
+            return (Supplier<Record>) site.getTarget().invoke();
+        }
+        catch (Throwable e) {
+            // the class may be invisible to the class loader of core, call the constructor handle directly then
+            MethodHandle handle = constructor.asType(MethodType.methodType(Record.class));
+            return () -> {
+                try {
+                    return (Record) handle.invokeExact();
+                }
+                catch (Throwable t) {
+                    throw AddaxException.asAddaxException(RUNTIME_ERROR, t);
+                }
+            };
+        }
+    }
+}
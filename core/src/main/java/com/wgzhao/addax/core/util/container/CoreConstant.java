@@ -36,6 +36,8 @@ public class CoreConstant
 
     public static final String CORE_CONTAINER_JOB_SLEEP_INTERVAL = "core.container.job.sleepInterval";
 
+    public static final String CORE_CONTAINER_JOB_SCHEDULE_MODE = "core.container.job.scheduleMode";
+
     public static final String CORE_CONTAINER_TASK_GROUP_ID = "core.container.taskGroup.id";
 
     public static final String CORE_CONTAINER_TASK_GROUP_SLEEP_INTERVAL = "core.container.taskGroup.sleepInterval";
@@ -48,6 +50,10 @@ public class CoreConstant
 
     public static final String CORE_CONTAINER_TASK_FAIL_OVER_MAX_WAIT_IN_MSEC = "core.container.task.failOver.maxWaitInMsec";
 
+    public static final String CORE_CONTAINER_TASK_SPLIT_REMAINING = "core.container.task.splitRemaining";
+
+    public static final String CORE_CONTAINER_VIRTUAL_THREAD = "core.container.virtualThread";
+
     public static final String CORE_SERVER_ADDRESS = "core.server.address";
 
     public static final String CORE_SERVER_TIMEOUT_SEC = "core.server.timeout";
@@ -64,10 +70,16 @@ public class CoreConstant
 
     public static final String CORE_TRANSPORT_CHANNEL_FLOW_CONTROL_INTERVAL = "core.transport.channel.flowControlInterval";
 
+    public static final String CORE_TRANSPORT_CHANNEL_FLOW_CONTROL = "core.transport.channel.flowControl";
+
     public static final String CORE_TRANSPORT_EXCHANGER_BUFFER_SIZE = "core.transport.exchanger.bufferSize";
 
+    public static final String CORE_TRANSPORT_EXCHANGER_BATCH_TRANSFER = "core.transport.exchanger.batchTransfer";
+
     public static final String CORE_TRANSPORT_RECORD_CLASS = "core.transport.record.class";
 
+    public static final String CORE_TRANSPORT_RECORD_POOL = "core.transport.record.pool";
+
     public static final String CORE_STATISTICS_COLLECTOR_PLUGIN_TASK_CLASS = "core.statistics.collector.plugin.taskClass";
 
     public static final String CORE_STATISTICS_COLLECTOR_PLUGIN_MAX_DIRTY_NUMBER = "core.statistics.collector.plugin.maxDirtyNumber";
@@ -137,6 +149,9 @@ public class CoreConstant
 
     public static final String TASK_ID = "taskId";
 
+    // the size of the task estimated by the reader, used to start the big tasks first
+    public static final String TASK_SIZE = "taskSize";
+
     // ----------------------------- environment ---------------------------------
 
     public static final String HOME = System.getProperty("addax.home");
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.util.container;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads when the running JDK supports them (JDK 21 and later).
+ * <p>
+ * The project is built for JDK 17, so the builder API is reached through reflection once,
+ * and everything else only deals with the {@link ThreadFactory} it produces.
+ */
+public final class VirtualThreadUtil
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadUtil.class);
+
+    private static final ThreadFactory FACTORY = createFactory();
+
+    private VirtualThreadUtil() {}
+
+    public static boolean isSupported()
+    {
+        return FACTORY != null;
+    }
+
+    /**
+     * @return the factory of virtual threads, or null if the JDK does not support them
+     */
+    public static ThreadFactory getFactory()
+    {
+        return FACTORY;
+    }
+
+    /**
+     * Create an unstarted thread, a virtual one if {@code virtual} is true and the JDK supports it.
+     *
+     * @param runnable the task of the thread
+     * @param name the name of the thread
+     * @param virtual whether to prefer a virtual thread
+     * @return the new thread
+     */
+    public static Thread newThread(Runnable runnable, String name, boolean virtual)
+    {
+        if (!virtual || FACTORY == null) {
+            return new Thread(runnable, name);
+        }
+        Thread thread = FACTORY.newThread(runnable);
+        thread.setName(name);
+        return thread;
+    }
+
+    private static ThreadFactory createFactory()
+    {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        }
+        catch (ReflectiveOperationException | LinkageError e) {
+            LOG.debug("The virtual thread is not supported by the current JDK {}.", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
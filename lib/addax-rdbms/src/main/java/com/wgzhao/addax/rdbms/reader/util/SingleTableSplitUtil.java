@@ -32,6 +32,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.JDBCType;
 import java.sql.ResultSet;
@@ -58,6 +59,8 @@ public class SingleTableSplitUtil
             JDBCType.DOUBLE, JDBCType.FLOAT, JDBCType.REAL
     );
 
+    private static final String SPLIT_STRATEGY_QUANTILE = "quantile";
+
     private SingleTableSplitUtil()
     {
     }
@@ -214,6 +217,14 @@ public class SingleTableSplitUtil
         }
 
         List<Object> rangeValue;
+        if (SPLIT_STRATEGY_QUANTILE.equalsIgnoreCase(configuration.getString(Key.SPLIT_STRATEGY))) {
+            rangeValue = getQuantileSplitPoints(dataBaseType, splitPK, table, where, configuration, adviceNum, pkMinAndMaxValue);
+            if (!rangeValue.isEmpty()) {
+                return genAllTypePkRangeWhereClause(splitPK, pkMinAndMaxValue, rangeValue);
+            }
+            LOG.warn("No quantile of the split key is found, fall back to the range split strategy.");
+        }
+
         if (pkMinAndMaxValue.isNumeric()) {
             LOG.info("The type of split key is numeric, so we use the math algorithm to split the table.");
             rangeValue = pkMinAndMaxValue.genSplitPoint(adviceNum);
@@ -246,6 +257,88 @@ public class SingleTableSplitUtil
         return genAllTypePkRangeWhereClause(splitPK, pkMinAndMaxValue, rangeValue);
     }
 
+    /**
+     * Cut the split key at equal-count quantiles instead of equal-width intervals, so that sparse
+     * or clustered keys still give slices of similar size. The quantiles are computed by the database
+     * with {@code NTILE} over the key, optionally on a sample of the table, see {@link #genQuantileSql}.
+     *
+     * @return the split points, or an empty list if the database can not compute them
+     */
+    private static List<Object> getQuantileSplitPoints(DataBaseType dataBaseType, String splitPK, String table, String where,
+            Configuration configuration, int adviceNum, MinMaxPackage minMaxPack)
+    {
+        double samplePercentage = configuration.getDouble(Key.SAMPLE_PERCENTAGE, 100.0);
+        String quantileSql = genQuantileSql(dataBaseType, splitPK, table, where, adviceNum, samplePercentage);
+        LOG.info("split pk by quantiles [sql={}] is running... ", quantileSql);
+
+        List<Object> quantiles = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection(dataBaseType, configuration.getString(Key.JDBC_URL),
+                configuration.getString(Key.USERNAME), configuration.getString(Key.PASSWORD));
+                ResultSet rs = DBUtil.query(conn, quantileSql, adviceNum)) {
+            while (DBUtil.asyncResultSetNext(rs)) {
+                quantiles.add(rs.getObject(1));
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("Failed to get the quantiles of the split key: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+
+        // the first quantile is the minimum itself, and heavy hitters may repeat a value
+        List<Object> splitPoints = new ArrayList<>();
+        Object last = null;
+        for (int i = 1; i < quantiles.size(); i++) {
+            Object point = quantiles.get(i);
+            if (point == null || point.equals(last) || !isInside(point, minMaxPack)) {
+                continue;
+            }
+            last = point;
+            splitPoints.add(point);
+        }
+        return splitPoints;
+    }
+
+    private static boolean isInside(Object point, MinMaxPackage minMaxPack)
+    {
+        if (minMaxPack.isNumeric()) {
+            BigDecimal value = new BigDecimal(point.toString());
+            return value.compareTo(new BigDecimal(minMaxPack.getMin().toString())) > 0
+                    && value.compareTo(new BigDecimal(minMaxPack.getMax().toString())) <= 0;
+        }
+        String value = point.toString();
+        return value.compareTo(minMaxPack.getMin().toString()) > 0 && value.compareTo(minMaxPack.getMax().toString()) <= 0;
+    }
+
+    /**
+     * Generate SQL that returns the first key of each of the {@code adviceNum} buckets holding the same number of rows.
+     * A sample percentage below 100 reads only that part of the table, using the sampling clause of the database
+     * if it has one.
+     */
+    private static String genQuantileSql(DataBaseType dataBaseType, String splitPK, String table, String where, int adviceNum,
+            double samplePercentage)
+    {
+        boolean isSample = samplePercentage > 0 && samplePercentage < 100;
+        String from = table;
+        String condition = splitPK + " IS NOT NULL";
+        if (StringUtils.isNotBlank(where)) {
+            condition += " AND (" + where + ")";
+        }
+        if (isSample) {
+            switch (dataBaseType) {
+                case PostgreSQL -> from = table + " TABLESAMPLE SYSTEM (" + samplePercentage + ")";
+                case SQLServer -> from = table + " TABLESAMPLE (" + samplePercentage + " PERCENT)";
+                case Oracle -> from = table + " SAMPLE (" + samplePercentage + ")";
+                case MySql -> condition += " AND RAND() < " + samplePercentage / 100;
+                default -> LOG.info("The database {} has no sampling clause, the quantiles are computed on the whole table.", dataBaseType);
+            }
+        }
+        return String.format("""
+                        SELECT MIN(%1$s) FROM (
+                            SELECT %1$s, NTILE(%4$d) OVER (ORDER BY %1$s) AS addax_bucket FROM %2$s WHERE %3$s
+                        ) t GROUP BY addax_bucket ORDER BY MIN(%1$s)""",
+                splitPK, from, condition, adviceNum);
+    }
+
     /**
      * Generate SQL that get the split points, whose points is the boundary of the split
      * we can use math algorithm to get the split points, but it causes the data skew when the
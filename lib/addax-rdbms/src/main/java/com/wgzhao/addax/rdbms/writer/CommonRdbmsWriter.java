@@ -39,13 +39,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
@@ -200,6 +204,7 @@ public class CommonRdbmsWriter
     {
         protected static final Logger LOG = LoggerFactory.getLogger(Task.class);
         private static final String VALUE_HOLDER = "?";
+        private static final String BISECT_RETRY_MODE = "bisect";
         protected static String basicMessage;
         protected static String insertOrReplaceTemplate;
         protected DataBaseType dataBaseType;
@@ -217,7 +222,16 @@ public class CommonRdbmsWriter
         protected String writeRecordSql;
         protected String writeMode;
         protected boolean emptyAsNull;
+        protected String batchRetryMode;
         protected List<Map<String, Object>> resultSetMetaData;
+        // the sql type, scale and precision of each statement parameter, index 0 is unused as in resultSetMetaData
+        private int[] columnSqlTypes;
+        private int[] columnScales;
+        private int[] columnPrecisions;
+        // for the merge mode of Oracle and SQL Server, the record column bound to each statement parameter
+        private int[] mergeIndexes;
+        // prepared once and reused by all the batches of the task
+        private PreparedStatement writeStatement;
 
         public Task(DataBaseType dataBaseType)
         {
@@ -242,6 +256,7 @@ public class CommonRdbmsWriter
 
             writeMode = writerSliceConfig.getString(Key.WRITE_MODE, "INSERT");
             emptyAsNull = writerSliceConfig.getBool(Key.EMPTY_AS_NULL, true);
+            batchRetryMode = writerSliceConfig.getString(Key.BATCH_RETRY_MODE, BISECT_RETRY_MODE);
             insertOrReplaceTemplate = writerSliceConfig.getString(Constant.INSERT_OR_REPLACE_TEMPLATE_MARK);
             this.writeRecordSql = String.format(insertOrReplaceTemplate, this.table);
 
@@ -272,26 +287,28 @@ public class CommonRdbmsWriter
             if ((this.dataBaseType == DataBaseType.Oracle || this.dataBaseType == DataBaseType.SQLServer)
                     && !"insert".equalsIgnoreCase(this.writeMode)) {
                 LOG.info("write {} using {} mode", this.dataBaseType, this.writeMode);
-                List<String> columnsOne = new ArrayList<>();
-                List<String> columnsTwo = new ArrayList<>();
-                String merge = this.writeMode;
-                String[] sArray = WriterUtil.getStrings(merge);
-                for (String s : this.columns) {
-                    if (Arrays.asList(sArray).contains(s)) {
-                        columnsOne.add(s);
+                // the statement takes the key columns, then the other columns, and then all the columns again
+                List<String> sArray = Arrays.asList(WriterUtil.getStrings(this.writeMode));
+                List<Integer> indexes = new ArrayList<>();
+                for (int j = 0; j < this.columns.size(); j++) {
+                    if (sArray.contains(this.columns.get(j))) {
+                        indexes.add(j);
                     }
                 }
-                for (String s : this.columns) {
-                    if (!Arrays.asList(sArray).contains(s)) {
-                        columnsTwo.add(s);
+                for (int j = 0; j < this.columns.size(); j++) {
+                    if (!sArray.contains(this.columns.get(j))) {
+                        indexes.add(j);
                     }
                 }
-                int i = 0;
-                for (String column : columnsOne) {
-                    mergeColumns.add(i++, column);
+                for (int index : indexes) {
+                    mergeColumns.add(this.columns.get(index));
                 }
-                for (String column : columnsTwo) {
-                    mergeColumns.add(i++, column);
+                this.mergeIndexes = new int[indexes.size() + this.columns.size()];
+                for (int j = 0; j < indexes.size(); j++) {
+                    this.mergeIndexes[j] = indexes.get(j);
+                }
+                for (int j = 0; j < this.columns.size(); j++) {
+                    this.mergeIndexes[indexes.size() + j] = j;
                 }
             }
             mergeColumns.addAll(this.columns);
@@ -304,6 +321,7 @@ public class CommonRdbmsWriter
             List<Record> writeBuffer = new ArrayList<>(this.batchSize);
             int bufferBytes = 0;
             try {
+                this.writeStatement = connection.prepareStatement(writeRecordSql);
                 Record record;
                 while ((record = recordReceiver.getFromReader()) != null) {
                     if (record.getColumnNumber() != this.columnNumber) {
@@ -333,7 +351,8 @@ public class CommonRdbmsWriter
             }
             finally {
                 writeBuffer.clear();
-                DBUtil.closeDBResources(null, null, connection);
+                DBUtil.closeDBResources(null, writeStatement, connection);
+                writeStatement = null;
             }
         }
 
@@ -380,38 +399,23 @@ public class CommonRdbmsWriter
                 if (supportCommit) {
                     connection.setAutoCommit(false);
                 }
-                preparedStatement = connection.prepareStatement(writeRecordSql);
-                if ((this.dataBaseType == DataBaseType.Oracle || this.dataBaseType == DataBaseType.SQLServer)
-                        && !"insert".equalsIgnoreCase(writeMode)) {
-                    String merge = this.writeMode;
-                    String[] sArray = WriterUtil.getStrings(merge);
+                preparedStatement = getWriteStatement(connection);
+                preparedStatement.clearBatch();
+                if (mergeIndexes != null) {
+                    // reorder the columns once here, so the batch can be replayed as is when it fails
+                    Column[] source = new Column[this.columnNumber];
                     for (Record record : buffer) {
-                        List<Column> recordOne = new ArrayList<>();
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (Arrays.asList(sArray).contains(columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
-                        }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (!Arrays.asList(sArray).contains(columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
+                        for (int j = 0; j < source.length; j++) {
+                            source[j] = record.getColumn(j);
                         }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            recordOne.add(record.getColumn(j));
+                        for (int j = 0; j < mergeIndexes.length; j++) {
+                            record.setColumn(j, source[mergeIndexes[j]]);
                         }
-                        for (int j = 0; j < recordOne.size(); j++) {
-                            record.setColumn(j, recordOne.get(j));
-                        }
-                        preparedStatement = fillPreparedStatement(preparedStatement, record);
-                        preparedStatement.addBatch();
                     }
                 }
-                else {
-                    for (Record record : buffer) {
-                        preparedStatement = fillPreparedStatement(preparedStatement, record);
-                        preparedStatement.addBatch();
-                    }
+                for (Record record : buffer) {
+                    preparedStatement = fillPreparedStatement(preparedStatement, record);
+                    preparedStatement.addBatch();
                 }
                 preparedStatement.executeBatch();
                 if (supportCommit) {
@@ -419,27 +423,116 @@ public class CommonRdbmsWriter
                 }
             }
             catch (SQLException e) {
-                LOG.warn("Rolling back the write, try to write one line at a time. because: {}", e.getMessage());
                 if (supportCommit) {
                     connection.rollback();
                 }
-                doOneInsert(connection, buffer);
+                // without a transaction, part of a failed batch may be written already, so only the row by row retry is safe
+                if (supportCommit && preparedStatement != null && BISECT_RETRY_MODE.equalsIgnoreCase(batchRetryMode)) {
+                    LOG.warn("Rolling back the write, try to find the dirty records by splitting the batch. because: {}", e.getMessage());
+                    doBisectInsert(connection, preparedStatement, buffer, e);
+                }
+                else {
+                    LOG.warn("Rolling back the write, try to write one line at a time. because: {}", e.getMessage());
+                    doOneInsert(connection, buffer);
+                }
             }
             catch (Exception e) {
                 throw AddaxException.asAddaxException(
                         EXECUTE_FAIL, e);
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
+        }
+
+        /**
+         * Replay a failed and rolled back batch by smaller batches until the dirty records are isolated.
+         * If the driver stops at the first failed row, the rows before it are written as one batch, the failed row
+         * is dirty and only the rows after it are tried again. If the driver goes on and marks the failed rows,
+         * they are retried alone and the others as one batch. Otherwise the batch is split in halves.
+         *
+         * @param connection the connection in manual commit mode
+         * @param preparedStatement the statement of the insert sql
+         * @param buffer the records of the failed batch
+         * @param cause the failure of the batch
+         * @throws SQLException if failed to roll back
+         */
+        protected void doBisectInsert(Connection connection, PreparedStatement preparedStatement, List<Record> buffer, SQLException cause)
+                throws SQLException
+        {
+            // the parts still to write, the first one on top, so the records keep their order
+            Deque<List<Record>> pending = new ArrayDeque<>();
+            splitFailedBatch(buffer, cause, pending);
+            while (!pending.isEmpty()) {
+                List<Record> part = pending.pop();
+                try {
+                    preparedStatement.clearBatch();
+                    for (Record record : part) {
+                        fillPreparedStatement(preparedStatement, record);
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                    connection.commit();
+                }
+                catch (SQLException e) {
+                    connection.rollback();
+                    splitFailedBatch(part, e, pending);
+                }
+            }
+        }
+
+        private void splitFailedBatch(List<Record> batch, SQLException cause, Deque<List<Record>> pending)
+        {
+            int size = batch.size();
+            if (size == 1) {
+                LOG.debug(cause.toString());
+                this.taskPluginCollector.collectDirtyRecord(batch.get(0), cause);
+                return;
+            }
+            int[] counts = cause instanceof BatchUpdateException ? ((BatchUpdateException) cause).getUpdateCounts() : null;
+            if (counts != null && counts.length > 0 && counts.length < size) {
+                // the driver stopped at the first failed row, the rows before it are good and the rows after it were not tried
+                LOG.debug(cause.toString());
+                this.taskPluginCollector.collectDirtyRecord(batch.get(counts.length), cause);
+                pushPart(pending, batch.subList(counts.length + 1, size));
+                pushPart(pending, batch.subList(0, counts.length));
+                return;
+            }
+            List<Record> good = new ArrayList<>();
+            List<Record> failed = new ArrayList<>();
+            if (counts != null && counts.length == size) {
+                for (int i = 0; i < size; i++) {
+                    if (counts[i] == Statement.EXECUTE_FAILED) {
+                        failed.add(batch.get(i));
+                    }
+                    else {
+                        good.add(batch.get(i));
+                    }
+                }
+            }
+            if (failed.isEmpty() || good.isEmpty()) {
+                // the driver does not tell the failed rows apart
+                int middle = size / 2;
+                pushPart(pending, batch.subList(middle, size));
+                pushPart(pending, batch.subList(0, middle));
+                return;
+            }
+            for (int i = failed.size() - 1; i >= 0; i--) {
+                pending.push(Collections.singletonList(failed.get(i)));
+            }
+            pending.push(good);
+        }
+
+        private static void pushPart(Deque<List<Record>> pending, List<Record> part)
+        {
+            if (!part.isEmpty()) {
+                pending.push(part);
             }
         }
 
         protected void doOneInsert(Connection connection, List<Record> buffer)
         {
-            PreparedStatement preparedStatement = null;
             try {
                 connection.setAutoCommit(true);
-                preparedStatement = connection.prepareStatement(writeRecordSql);
+                PreparedStatement preparedStatement = getWriteStatement(connection);
+                preparedStatement.clearBatch();
 
                 for (Record record : buffer) {
                     try {
@@ -451,7 +544,6 @@ public class CommonRdbmsWriter
                         this.taskPluginCollector.collectDirtyRecord(record, e);
                     }
                     finally {
-                        // 最后不要忘了关闭 preparedStatement
                         preparedStatement.clearParameters();
                     }
                 }
@@ -459,9 +551,15 @@ public class CommonRdbmsWriter
             catch (Exception e) {
                 throw AddaxException.asAddaxException(EXECUTE_FAIL, e);
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
+        }
+
+        private PreparedStatement getWriteStatement(Connection connection)
+                throws SQLException
+        {
+            if (writeStatement == null) {
+                writeStatement = connection.prepareStatement(writeRecordSql);
             }
+            return writeStatement;
         }
 
         protected PreparedStatement fillPreparedStatement(PreparedStatement preparedStatement, Record record)
@@ -469,8 +567,7 @@ public class CommonRdbmsWriter
         {
             LOG.debug("Record info: {}", record);
             for (int i = 1, len = record.getColumnNumber(); i <= len; i++) {
-                int columnSqlType = (int) this.resultSetMetaData.get(i).get("type");
-                preparedStatement = fillPreparedStatementColumnType(preparedStatement, i, columnSqlType, record.getColumn(i - 1));
+                preparedStatement = fillPreparedStatementColumnType(preparedStatement, i, columnSqlTypes[i], record.getColumn(i - 1));
             }
             return preparedStatement;
         }
@@ -519,7 +616,7 @@ public class CommonRdbmsWriter
 
                 case Types.NUMERIC:
                 case Types.DECIMAL:
-                    if ((int) this.resultSetMetaData.get(columnIndex).get("scale") == 0) {
+                    if (columnScales[columnIndex] == 0) {
                         preparedStatement.setLong(columnIndex, column.asLong());
                     }
                     else {
@@ -572,7 +669,7 @@ public class CommonRdbmsWriter
                 // warn: bit(1) -> Types.BIT 可使用setBoolean
                 // warn: bit(>1) -> Types.VARBINARY 可使用setBytes
                 case Types.BIT:
-                    if ((int) this.resultSetMetaData.get(columnIndex).get("precision") == 1) {
+                    if (columnPrecisions[columnIndex] == 1) {
                         preparedStatement.setBoolean(columnIndex, column.asBoolean());
                     }
                     else {
@@ -605,6 +702,18 @@ public class CommonRdbmsWriter
 
             insertOrReplaceTemplate = WriterUtil.getWriteTemplate(columns, valueHolders, writeMode, dataBaseType, false);
             writeRecordSql = String.format(insertOrReplaceTemplate, table);
+
+            // unbox the column meta once instead of for each cell
+            int size = resultSetMetaData.size();
+            columnSqlTypes = new int[size];
+            columnScales = new int[size];
+            columnPrecisions = new int[size];
+            for (int i = 1; i < size; i++) {
+                Map<String, Object> meta = resultSetMetaData.get(i);
+                columnSqlTypes[i] = (int) meta.get("type");
+                columnScales[i] = (int) meta.get("scale");
+                columnPrecisions[i] = (int) meta.get("precision");
+            }
         }
 
         protected String calcValueHolder(String columnType)
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.rdbms.writer.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The body of a Doris or StarRocks stream load, written from the buffered rows straight to the connection,
+ * instead of joining them into one array first. It can be written again, e.g. after the redirect from FE to BE.
+ * The body is {@code head}, the rows separated by {@code separator}, and then {@code tail}.
+ */
+public class StreamLoadBody
+{
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final List<byte[]> rows;
+    private final byte[] head;
+    private final byte[] separator;
+    private final byte[] tail;
+    private final boolean gzip;
+    private final long length;
+
+    public StreamLoadBody(List<byte[]> rows, byte[] head, byte[] separator, byte[] tail, boolean gzip)
+    {
+        this.rows = rows;
+        this.head = head;
+        this.separator = separator;
+        this.tail = tail;
+        this.gzip = gzip;
+        long bytes = head.length + tail.length + (long) Math.max(0, rows.size() - 1) * separator.length;
+        for (byte[] row : rows) {
+            bytes += row.length;
+        }
+        this.length = bytes;
+    }
+
+    /**
+     * @return the bytes of the body before compression
+     */
+    public long getRawLength()
+    {
+        return length;
+    }
+
+    /**
+     * @return the bytes sent, or -1 if the body is compressed, whose size is unknown before writing
+     */
+    public long getContentLength()
+    {
+        return gzip ? -1 : length;
+    }
+
+    public boolean isGzip()
+    {
+        return gzip;
+    }
+
+    public void writeTo(OutputStream outStream)
+            throws IOException
+    {
+        if (!gzip) {
+            writeRows(outStream);
+            return;
+        }
+        // closing the gzip stream writes the trailer and frees the deflater, but must leave the connection open
+        OutputStream shield = new FilterOutputStream(outStream)
+        {
+            @Override
+            public void write(byte[] b, int off, int len)
+                    throws IOException
+            {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close()
+                    throws IOException
+            {
+                flush();
+            }
+        };
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(shield, GZIP_BUFFER_SIZE)) {
+            writeRows(gzipStream);
+        }
+    }
+
+    private void writeRows(OutputStream out)
+            throws IOException
+    {
+        out.write(head);
+        boolean first = true;
+        for (byte[] row : rows) {
+            if (!first) {
+                out.write(separator);
+            }
+            out.write(row);
+            first = false;
+        }
+        out.write(tail);
+        out.flush();
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.storage.reader;
+
+import com.wgzhao.addax.core.base.Constant;
+import com.wgzhao.addax.core.base.Key;
+import com.wgzhao.addax.core.util.Configuration;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads one large uncompressed text file with several tasks, each one taking a byte range of it.
+ * <p>
+ * A record belongs to the range in which its first byte lies. Both ends of a range are moved to the next
+ * record boundary with {@link #findRecordStart(Opener, long, char)}, which is deterministic, so two neighbouring
+ * tasks agree on their common boundary without talking to each other and no record is read twice or lost.
+ */
+public final class ByteRangeUtil
+{
+    // the minimum bytes of a range by default
+    public static final long DEFAULT_SPLIT_SIZE = 64L * 1024 * 1024;
+
+    // the bytes scanned at first to find a record boundary, doubled if no boundary is found in it
+    private static final int LOOKAHEAD_BYTES = 1024 * 1024;
+
+    private static final int MAX_LOOKAHEAD_BYTES = 64 * 1024 * 1024;
+
+    private static final int QUOTE = '"';
+
+    private static final int LF = '\n';
+
+    // the states of the csv scanner, see next()
+    private static final int INVALID = -1;
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int CLOSED = 4;
+
+    private ByteRangeUtil()
+    {
+    }
+
+    /**
+     * Opens the source file at the given byte offset.
+     */
+    @FunctionalInterface
+    public interface Opener
+    {
+        InputStream open(long offset)
+                throws IOException;
+    }
+
+    /**
+     * Get the size of the ranges the files are cut into.
+     *
+     * @param readerConfig the reader configuration
+     * @param totalSize the total bytes of all source files
+     * @param adviceNumber the advised number of tasks
+     * @return the split size in bytes, or -1 if the files can not be read by ranges
+     */
+    public static long getSplitSize(Configuration readerConfig, long totalSize, int adviceNumber)
+    {
+        String compress = readerConfig.getString(Key.COMPRESS);
+        if (StringUtils.isNotBlank(compress) && !"none".equalsIgnoreCase(compress)) {
+            return -1;
+        }
+        // the boundaries are found on raw bytes, so the encoding must keep line breaks, quotes and delimiters as single ASCII bytes
+        String encoding = readerConfig.getString(Key.ENCODING, Constant.DEFAULT_ENCODING);
+        char delimiter = readerConfig.getChar(Key.FIELD_DELIMITER, Constant.DEFAULT_FIELD_DELIMITER);
+        if (delimiter > 0x7f || !Arrays.equals(("\n\"" + delimiter).getBytes(Charset.forName(encoding)), new byte[] {LF, QUOTE, (byte) delimiter})) {
+            return -1;
+        }
+        long splitSize = readerConfig.getLong(Key.SPLIT_SIZE, DEFAULT_SPLIT_SIZE);
+        if (splitSize <= 0) {
+            return -1;
+        }
+        return Math.max(splitSize, (totalSize + adviceNumber - 1) / Math.max(1, adviceNumber));
+    }
+
+    /**
+     * Cut a file into ranges, one task configuration each.
+     * Only the first range keeps the {@code skipHeader} option, and the last one has no end, so it reads to the end of the file.
+     *
+     * @param readerConfig the reader configuration
+     * @param file the file name
+     * @param fileSize the bytes of the file
+     * @param splitSize the bytes of each range
+     * @return the task configurations
+     */
+    public static List<Configuration> splitRanges(Configuration readerConfig, String file, long fileSize, long splitSize)
+    {
+        List<Configuration> splitConfigs = new ArrayList<>();
+        for (long start = 0; start < fileSize; start += splitSize) {
+            Configuration splitConfig = readerConfig.clone();
+            splitConfig.set(Key.SOURCE_FILES, List.of(file));
+            splitConfig.set(Key.RANGE_START, start);
+            if (start + splitSize < fileSize) {
+                splitConfig.set(Key.RANGE_END, start + splitSize);
+            }
+            if (start > 0) {
+                splitConfig.set(Key.SKIP_HEADER, false);
+            }
+            splitConfigs.add(splitConfig);
+        }
+        return splitConfigs;
+    }
+
+    /**
+     * Open the records of a range.
+     *
+     * @param opener opens the file at an offset
+     * @param start the start offset of the range
+     * @param end the end offset of the range, negative for the end of the file
+     * @param delimiter the field delimiter
+     * @return the stream of the bytes of all records starting in the range
+     * @throws IOException if failed to read the file
+     */
+    public static InputStream openRange(Opener opener, long start, long end, char delimiter)
+            throws IOException
+    {
+        long realStart = findRecordStart(opener, start, delimiter);
+        if (realStart < 0) {
+            return InputStream.nullInputStream();
+        }
+        long realEnd = end < 0 ? -1 : findRecordStart(opener, end, delimiter);
+        if (realEnd < 0) {
+            return opener.open(realStart);
+        }
+        if (realEnd <= realStart) {
+            // a record longer than the whole range, it is read by the range where it starts
+            return InputStream.nullInputStream();
+        }
+        return BoundedInputStream.builder()
+                .setInputStream(opener.open(realStart))
+                .setMaxCount(realEnd - realStart)
+                .get();
+    }
+
+    /**
+     * Find the first record starting at or after the offset.
+     * <p>
+     * A line break inside a quoted field does not end a record, but from the middle of a file the csv state at the
+     * offset is unknown. So the bytes after it are scanned from every possible state, a state being dropped as soon as
+     * the bytes break the csv syntax from it, e.g. a closing quote followed by a letter. The first line break ending a
+     * record from all the remaining states is a record boundary whatever the real state is.
+     *
+     * @param opener opens the file at an offset
+     * @param offset the offset in bytes
+     * @param delimiter the field delimiter
+     * @return the offset of the record start, or -1 if no record starts at or after the offset
+     * @throws IOException if failed to read the file
+     */
+    public static long findRecordStart(Opener opener, long offset, char delimiter)
+            throws IOException
+    {
+        if (offset <= 0) {
+            return 0;
+        }
+        for (int window = LOOKAHEAD_BYTES; window <= MAX_LOOKAHEAD_BYTES; window <<= 1) {
+            // start one byte earlier, so a line break right before the offset is seen
+            byte[] buf = new byte[window];
+            int len;
+            try (InputStream in = opener.open(offset - 1)) {
+                len = IOUtils.read(in, buf);
+            }
+            int boundary = findBoundary(buf, len, len < window, delimiter);
+            if (boundary >= 0) {
+                return offset - 1 + boundary;
+            }
+            if (len < window) {
+                // the end of file is reached
+                return -1;
+            }
+        }
+        throw new IOException(String.format("No record boundary is found in the %d bytes after the offset %d.", MAX_LOOKAHEAD_BYTES, offset));
+    }
+
+    /**
+     * @return the index after the first line break ending a record from all the possible states, or -1 if there is none
+     */
+    private static int findBoundary(byte[] buf, int len, boolean eof, char delimiter)
+    {
+        int[] states = {FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED, CLOSED};
+        if (!containsQuote(buf, len)) {
+            // without any quote the bytes can not tell whether they are inside a quoted field, which never converges,
+            // so they are taken as unquoted, as plain text files always are
+            states = new int[] {UNQUOTED};
+        }
+
+        // the first pass drops the states the bytes are invalid from, until the remaining ones have converged
+        int[] current = states.clone();
+        for (int i = 0; i < len && !isConverged(current); i++) {
+            for (int s = 0; s < current.length; s++) {
+                if (current[s] != INVALID) {
+                    current[s] = next(current[s], buf[i], delimiter);
+                }
+            }
+        }
+        boolean malformed = true;
+        for (int s = 0; s < states.length; s++) {
+            // a quoted field can not be left open at the end of the file
+            if (current[s] == INVALID || (eof && current[s] == QUOTED)) {
+                states[s] = INVALID;
+            }
+            else {
+                malformed = false;
+            }
+        }
+        if (malformed) {
+            // not csv from any state, take the first line break
+            states = new int[] {UNQUOTED};
+        }
+
+        // the second pass finds the first line break which ends a record from all the remaining states
+        for (int i = 0; i < len; i++) {
+            boolean boundary = buf[i] == LF;
+            for (int s = 0; s < states.length; s++) {
+                if (states[s] != INVALID) {
+                    states[s] = next(states[s], buf[i], delimiter);
+                    boundary &= states[s] == FIELD_START;
+                }
+            }
+            if (boundary) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsQuote(byte[] buf, int len)
+    {
+        for (int i = 0; i < len; i++) {
+            if (buf[i] == QUOTE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConverged(int[] states)
+    {
+        int first = INVALID;
+        for (int state : states) {
+            if (state == INVALID) {
+                continue;
+            }
+            if (first == INVALID) {
+                first = state;
+            }
+            else if (state != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int next(int state, int b, char delimiter)
+    {
+        if (state == QUOTED) {
+            return b == QUOTE ? QUOTE_IN_QUOTED : QUOTED;
+        }
+        if (state == QUOTE_IN_QUOTED || state == CLOSED) {
+            if (b == QUOTE && state == QUOTE_IN_QUOTED) {
+                // an escaped quote
+                return QUOTED;
+            }
+            if (b == LF || b == delimiter) {
+                return FIELD_START;
+            }
+            // blanks are allowed between the closing quote and the delimiter
+            return b == ' ' || b == '\t' || b == '\r' ? CLOSED : INVALID;
+        }
+        if (b == LF || b == delimiter) {
+            return FIELD_START;
+        }
+        // a quote opens a quoted field only at the start of the field
+        return b == QUOTE && state == FIELD_START ? QUOTED : UNQUOTED;
+    }
+}
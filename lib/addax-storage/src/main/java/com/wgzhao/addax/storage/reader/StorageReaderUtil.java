@@ -129,6 +129,33 @@ public class StorageReaderUtil
         }
     }
 
+    /**
+     * Read the records starting in a byte range of an uncompressed file, see {@link ByteRangeUtil}.
+     *
+     * @param opener opens the file at an offset
+     * @param fileName the file name
+     * @param start the start offset of the range
+     * @param end the end offset of the range, negative for the end of the file
+     * @param readerSliceConfig the task configuration
+     * @param recordSender the record sender
+     * @param taskPluginCollector the dirty record collector
+     */
+    public static void readFromRange(ByteRangeUtil.Opener opener, String fileName, long start, long end,
+            Configuration readerSliceConfig, RecordSender recordSender,
+            TaskPluginCollector taskPluginCollector)
+    {
+        char delimiter = readerSliceConfig.getChar(Key.FIELD_DELIMITER, Constant.DEFAULT_FIELD_DELIMITER);
+        InputStream inputStream;
+        try {
+            inputStream = ByteRangeUtil.openRange(opener, start, end, delimiter);
+        }
+        catch (IOException e) {
+            throw AddaxException.asAddaxException(
+                    IO_ERROR, String.format("Failed to read the range [%d, %d) of [%s].", start, end, fileName), e);
+        }
+        readFromStream(inputStream, fileName, readerSliceConfig, recordSender, taskPluginCollector);
+    }
+
     private static BufferedReader createBufferedReader(InputStream inputStream, String compress,
             String encoding, int bufferSize)
             throws IOException, CompressorException
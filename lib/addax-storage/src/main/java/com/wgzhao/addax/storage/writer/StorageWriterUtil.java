@@ -281,6 +281,7 @@ public class StorageWriterUtil
             if (result != null) {
                 csvPrinter.printRecord(result);
             }
+            lineReceiver.recycle(record);
         }
         csvPrinter.close();
     }
@@ -355,6 +356,7 @@ public class StorageWriterUtil
             }
 
             appendRecordValues(record, sb);
+            lineReceiver.recycle(record);
 
             if (extendedInsert) {
                 if (curNum >= batchSize) {
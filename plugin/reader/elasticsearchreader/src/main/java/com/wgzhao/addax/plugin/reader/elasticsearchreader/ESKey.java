@@ -32,6 +32,9 @@ import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
 public final class ESKey
 {
     public static final String SEARCH_KEY = "search";
+    // the slice of a sliced scroll read by a task, set by the job
+    public static final String SLICE_ID = "sliceId";
+    public static final String SLICE_MAX = "sliceMax";
 
     private ESKey() {}
 
@@ -112,7 +115,20 @@ public final class ESKey
 
     public static String getQuery(Configuration conf)
     {
-        return conf.getConfiguration(ESKey.SEARCH_KEY).toString();
+        Configuration search = conf.getConfiguration(ESKey.SEARCH_KEY);
+        if (conf.get(SLICE_MAX) != null) {
+            search.set("slice.id", conf.getInt(SLICE_ID));
+            search.set("slice.max", conf.getInt(SLICE_MAX));
+        }
+        return search.toString();
+    }
+
+    /**
+     * The number of slices each search is scrolled by, 0 means as many as the channels allow.
+     */
+    public static int getSlices(Configuration conf)
+    {
+        return conf.getInt("slices", 0);
     }
 
     public static String getScroll(Configuration conf)
@@ -114,11 +114,28 @@ public class EsReader
         {
             List<Configuration> configurations = new ArrayList<>();
             List<Object> search = conf.getList(ESKey.SEARCH_KEY, Object.class);
+            int slices = ESKey.getSlices(conf);
+            if (slices <= 0) {
+                slices = (adviceNumber + search.size() - 1) / Math.max(1, search.size());
+            }
+            if (StringUtils.isBlank(ESKey.getScroll(conf))) {
+                // a search can only be sliced when it is scrolled
+                slices = 1;
+            }
             for (Object query : search) {
-                Configuration clone = conf.clone();
-                clone.set(ESKey.SEARCH_KEY, query);
-                configurations.add(clone);
+                // keep the slice given in the search itself
+                int querySlices = query instanceof Map<?, ?> map && map.containsKey("slice") ? 1 : slices;
+                for (int i = 0; i < querySlices; i++) {
+                    Configuration clone = conf.clone();
+                    clone.set(ESKey.SEARCH_KEY, query);
+                    if (querySlices > 1) {
+                        clone.set(ESKey.SLICE_ID, i);
+                        clone.set(ESKey.SLICE_MAX, querySlices);
+                    }
+                    configurations.add(clone);
+                }
             }
+            log.info("Split {} search(es) into {} task(s).", search.size(), configurations.size());
             return configurations;
         }
 
@@ -45,7 +45,25 @@ public abstract class FtpHelper
      * @param filePath Path to the file
      * @return Input stream for the file
      */
-    public abstract InputStream getInputStream(String filePath);
+    public InputStream getInputStream(String filePath)
+    {
+        return getInputStream(filePath, 0);
+    }
+
+    /**
+     * Get input stream for reading a file from the given byte offset
+     * @param filePath Path to the file
+     * @param offset Bytes to skip from the beginning of the file
+     * @return Input stream for the file
+     */
+    public abstract InputStream getInputStream(String filePath, long offset);
+
+    /**
+     * Get the size of a file
+     * @param filePath Path to the file
+     * @return Size of the file in bytes
+     */
+    public abstract long getFileSize(String filePath);
 
     /**
      * Check if the path contains wildcard characters
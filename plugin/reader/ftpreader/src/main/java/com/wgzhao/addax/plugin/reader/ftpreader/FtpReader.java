@@ -24,6 +24,7 @@ import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.spi.Reader;
 import com.wgzhao.addax.core.util.Configuration;
+import com.wgzhao.addax.storage.reader.ByteRangeUtil;
 import com.wgzhao.addax.storage.reader.StorageReaderUtil;
 import com.wgzhao.addax.storage.util.FileHelper;
 import org.slf4j.Logger;
@@ -33,7 +34,9 @@ import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.wgzhao.addax.core.base.Key.PASSWORD;
 import static com.wgzhao.addax.core.base.Key.SOURCE_FILES;
@@ -198,8 +201,34 @@ public class FtpReader
             LOG.debug("split() begin...");
             List<Configuration> readerSplitConfigs = new ArrayList<>();
 
-            int splitNumber = Math.min(sourceFiles.size(), adviceNumber);
-            List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(new ArrayList<>(sourceFiles), splitNumber);
+            // cut the large files into byte ranges, so that a single big file can be read by all channels
+            List<String> wholeFiles = new ArrayList<>(sourceFiles);
+            if (ByteRangeUtil.getSplitSize(this.originConfig, 0, adviceNumber) > 0) {
+                Map<String, Long> fileSizes = new LinkedHashMap<>();
+                long totalSize = 0;
+                for (String file : sourceFiles) {
+                    long fileSize = ftpHelper.getFileSize(file);
+                    fileSizes.put(file, fileSize);
+                    totalSize += fileSize;
+                }
+                long splitSize = ByteRangeUtil.getSplitSize(this.originConfig, totalSize, adviceNumber);
+                wholeFiles.clear();
+                for (Map.Entry<String, Long> entry : fileSizes.entrySet()) {
+                    if (entry.getValue() > splitSize) {
+                        LOG.info("The file [{}] of {} bytes is split into ranges of {} bytes", entry.getKey(), entry.getValue(), splitSize);
+                        readerSplitConfigs.addAll(ByteRangeUtil.splitRanges(this.originConfig, entry.getKey(), entry.getValue(), splitSize));
+                    }
+                    else {
+                        wholeFiles.add(entry.getKey());
+                    }
+                }
+                if (wholeFiles.isEmpty()) {
+                    return readerSplitConfigs;
+                }
+            }
+
+            int splitNumber = Math.min(wholeFiles.size(), adviceNumber);
+            List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(wholeFiles, splitNumber);
             for (List<String> files : splitSourceFiles) {
                 Configuration splitConfig = this.originConfig.clone();
                 splitConfig.set(SOURCE_FILES, files);
@@ -262,6 +291,16 @@ public class FtpReader
         public void startRead(RecordSender recordSender)
         {
             LOG.debug("start read source files...");
+            if (readerSliceConfig.get(Key.RANGE_START) != null) {
+                String fileName = sourceFiles.get(0);
+                long start = readerSliceConfig.getLong(Key.RANGE_START);
+                long end = readerSliceConfig.getLong(Key.RANGE_END, -1);
+                LOG.info("reading the range [{}, {}) of file : {}", start, end < 0 ? "EOF" : end, fileName);
+                StorageReaderUtil.readFromRange(offset -> ftpHelper.getInputStream(fileName, offset), fileName, start, end,
+                        readerSliceConfig, recordSender, getTaskPluginCollector());
+                recordSender.flush();
+                return;
+            }
             InputStream inputStream;
             for (String fileName : sourceFiles) {
                 LOG.info("reading file : {}", fileName);
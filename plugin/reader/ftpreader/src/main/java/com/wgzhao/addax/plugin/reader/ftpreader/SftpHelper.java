@@ -201,10 +201,22 @@ public class SftpHelper
     }
 
     @Override
-    public InputStream getInputStream(String filePath)
+    public long getFileSize(String filePath)
     {
         try {
-            return channelSftp.get(filePath);
+            return channelSftp.lstat(filePath).getSize();
+        }
+        catch (SftpException e) {
+            throw AddaxException.asAddaxException(RUNTIME_ERROR,
+                    "Failed to get the size of the file: " + filePath, e);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream(String filePath, long offset)
+    {
+        try {
+            return channelSftp.get(filePath, null, offset);
         }
         catch (SftpException e) {
             throw AddaxException.asAddaxException(RUNTIME_ERROR,
@@ -178,9 +178,24 @@ public class StandardFtpHelper
     }
 
     @Override
-    public InputStream getInputStream(String filePath)
+    public long getFileSize(String filePath)
     {
         try {
+            FTPFile[] ftpFiles = ftpClient.listFiles(new String(filePath.getBytes(), StandardCharsets.ISO_8859_1));
+            return ftpFiles.length > 0 ? ftpFiles[0].getSize() : 0;
+        }
+        catch (IOException e) {
+            throw AddaxException.asAddaxException(IO_ERROR,
+                    "Failed to get the size of the file: " + filePath, e);
+        }
+    }
+
+    @Override
+    public InputStream getInputStream(String filePath, long offset)
+    {
+        try {
+            // the REST command, it is reset after each transfer
+            ftpClient.setRestartOffset(offset);
             InputStream inputStream = ftpClient.retrieveFileStream(
                     new String(filePath.getBytes(), StandardCharsets.ISO_8859_1));
             if (inputStream == null) {
@@ -62,6 +62,13 @@ public abstract class HbaseAbstractTask
     protected Scan scan;
     protected ResultScanner resultScanner;
 
+    // guards the position of the scan against a concurrent trySplitRemaining()
+    private final Object splitLock = new Object();
+    // the last row handed out, rows at or after splitKey have been given away
+    private byte[] position = null;
+    private byte[] splitKey = null;
+    private boolean exhausted = false;
+
     public HbaseAbstractTask(Configuration configuration)
     {
 
@@ -118,11 +125,58 @@ public abstract class HbaseAbstractTask
                 result = resultScanner.next();
             }
         }
+        synchronized (splitLock) {
+            if (result == null || (splitKey != null && Bytes.compareTo(result.getRow(), splitKey) >= 0)) {
+                exhausted = true;
+                result = null;
+            }
+            else {
+                position = result.getRow();
+            }
+        }
         lastResult = result;
         // may be null
         return result;
     }
 
+    /**
+     * Stop the scan at the middle of the rows not read yet and give the rest away.
+     * It is called by another thread while the scan is running.
+     *
+     * @return the start and end row of the part given away, or null if the scan can not be split
+     */
+    public byte[][] trySplitRemaining()
+    {
+        synchronized (splitLock) {
+            byte[] end = splitKey != null ? splitKey : endKey;
+            // an open end row can not be bisected
+            if (exhausted || end.length == 0) {
+                return null;
+            }
+            byte[] lower = position != null ? position : startKey;
+            if (Bytes.compareTo(lower, end) >= 0) {
+                return null;
+            }
+            byte[][] splits;
+            try {
+                splits = Bytes.split(lower, end, 1);
+            }
+            catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (splits == null || splits.length < 3) {
+                return null;
+            }
+            byte[] middle = splits[1];
+            if (Bytes.compareTo(middle, lower) <= 0 || Bytes.compareTo(middle, end) >= 0) {
+                return null;
+            }
+            splitKey = middle;
+            LOG.info("The task gives away the rows from [{}] to [{}].", Bytes.toStringBinary(middle), Bytes.toStringBinary(end));
+            return new byte[][] {middle, end};
+        }
+    }
+
     public Column convertBytesToAssignType(ColumnType columnType, byte[] byteArray, String dateformat)
             throws UnsupportedEncodingException, ParseException
     {
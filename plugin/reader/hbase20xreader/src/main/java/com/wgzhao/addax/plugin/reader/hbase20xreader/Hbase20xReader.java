@@ -25,6 +25,7 @@ import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.spi.Reader;
 import com.wgzhao.addax.core.util.Configuration;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,7 +70,8 @@ public class Hbase20xReader
             extends Reader.Task
     {
         private static final Logger LOG = LoggerFactory.getLogger(Task.class);
-        private HbaseAbstractTask hbaseTaskProxy;
+        // read by the task group thread in trySplitRemaining()
+        private volatile HbaseAbstractTask hbaseTaskProxy;
 
         @Override
         public void init()
@@ -101,6 +103,20 @@ public class Hbase20xReader
             }
         }
 
+        @Override
+        public Configuration trySplitRemaining()
+        {
+            HbaseAbstractTask proxy = this.hbaseTaskProxy;
+            byte[][] range = proxy == null ? null : proxy.trySplitRemaining();
+            if (range == null) {
+                return null;
+            }
+            Configuration splitConfig = super.getPluginJobConf().clone();
+            splitConfig.set(HBaseKey.START_ROW_KEY, Bytes.toStringBinary(range[0]));
+            splitConfig.set(HBaseKey.END_ROW_KEY, Bytes.toStringBinary(range[1]));
+            return splitConfig;
+        }
+
         @Override
         public void startRead(RecordSender recordSender)
         {
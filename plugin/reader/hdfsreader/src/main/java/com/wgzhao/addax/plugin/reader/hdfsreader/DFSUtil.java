@@ -41,11 +41,18 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.orc.OrcFile;
+import org.apache.orc.Reader;
+import org.apache.orc.StripeInformation;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -75,6 +82,7 @@ public class DFSUtil
     private String kerberosPrincipal;
     private final List<ColumnEntry> columns;
     private final String nullFormat;
+    private final String where;
 
     private static final PathFilter hiddenFileFilter = p -> {
         String name = p.getName();
@@ -86,6 +94,7 @@ public class DFSUtil
         hadoopConf = new org.apache.hadoop.conf.Configuration();
         this.columns = StorageReaderUtil.getListColumnEntry(taskConfig, COLUMN);
         this.nullFormat = taskConfig.getString(NULL_FORMAT);
+        this.where = taskConfig.getString(Key.WHERE);
         Configuration hadoopSiteParams = taskConfig.getConfiguration(Key.HADOOP_CONFIG);
         JSONObject hadoopSiteParamsAsJsonObject = JSON.parseObject(taskConfig.getString(Key.HADOOP_CONFIG));
         if (null != hadoopSiteParams) {
@@ -312,17 +321,137 @@ public class DFSUtil
     }
 
     public void orcFileStartRead(String sourceOrcFilePath, RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    {
+        orcFileStartRead(sourceOrcFilePath, 0, -1, recordSender, taskPluginCollector);
+    }
+
+    /**
+     * Reads the stripes of an orc file starting in the byte range.
+     *
+     * @param sourceOrcFilePath the path to the orc file to read
+     * @param rangeStart the start offset of the range
+     * @param rangeEnd the end offset of the range, negative for the whole file
+     * @param recordSender the RecordSender to send the read records to
+     * @param taskPluginCollector the TaskPluginCollector for collecting task-related metrics and errors
+     */
+    public void orcFileStartRead(String sourceOrcFilePath, long rangeStart, long rangeEnd,
+            RecordSender recordSender, TaskPluginCollector taskPluginCollector)
     {
         LOG.info("Being to read the orc-file [{}].", sourceOrcFilePath);
-        MyOrcReader myOrcReader = new MyOrcReader(hadoopConf, new Path(sourceOrcFilePath), nullFormat, columns);
+        MyOrcReader myOrcReader = new MyOrcReader(hadoopConf, new Path(sourceOrcFilePath), nullFormat, columns, where, rangeStart, rangeEnd);
         myOrcReader.reader(recordSender, taskPluginCollector);
     }
 
+    /**
+     * Cuts an orc file into byte ranges on the stripe boundaries, so that its stripes can be read by several tasks.
+     *
+     * @param sourceOrcFilePath the path to the orc file
+     * @param splitNumber the maximum number of ranges
+     * @return the start and end offsets of each range
+     */
+    public List<long[]> splitOrcFile(String sourceOrcFilePath, int splitNumber)
+    {
+        Path orcFilePath = new Path(sourceOrcFilePath);
+        try (Reader reader = OrcFile.createReader(orcFilePath, OrcFile.readerOptions(hadoopConf))) {
+            long fileLength = orcFilePath.getFileSystem(hadoopConf).getFileStatus(orcFilePath).getLen();
+            List<StripeInformation> stripes = reader.getStripes();
+            long[] starts = new long[stripes.size()];
+            long[] sizes = new long[stripes.size()];
+            for (int i = 0; i < stripes.size(); i++) {
+                starts[i] = stripes.get(i).getOffset();
+                sizes[i] = stripes.get(i).getLength();
+            }
+            return splitBySize(starts, sizes, fileLength, splitNumber);
+        }
+        catch (IOException e) {
+            String message = String.format("IO exception occurred while reading the footer of the file [%s].", sourceOrcFilePath);
+            throw AddaxException.asAddaxException(IO_ERROR, message, e);
+        }
+    }
+
     public void parquetFileStartRead(String sourceParquetFilePath, RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    {
+        parquetFileStartRead(sourceParquetFilePath, 0, -1, recordSender, taskPluginCollector);
+    }
+
+    /**
+     * Reads the row groups of a parquet file whose midpoint is in the byte range.
+     *
+     * @param sourceParquetFilePath the path to the parquet file to read
+     * @param rangeStart the start offset of the range
+     * @param rangeEnd the end offset of the range, negative for the whole file
+     * @param recordSender the RecordSender to send the read records to
+     * @param taskPluginCollector the TaskPluginCollector for collecting task-related metrics and errors
+     */
+    public void parquetFileStartRead(String sourceParquetFilePath, long rangeStart, long rangeEnd,
+            RecordSender recordSender, TaskPluginCollector taskPluginCollector)
     {
         LOG.info("Begin to read the parquet-file [{}].", sourceParquetFilePath);
         Path parquetFilePath = new Path(sourceParquetFilePath);
-        MyParquetReader myParquetReader = new MyParquetReader(hadoopConf, parquetFilePath, nullFormat, columns);
+        MyParquetReader myParquetReader = new MyParquetReader(hadoopConf, parquetFilePath, nullFormat, columns, rangeStart, rangeEnd);
         myParquetReader.reader(recordSender, taskPluginCollector);
     }
+
+    /**
+     * Cuts a parquet file into byte ranges on the row group boundaries, so that its row groups can be read by several tasks.
+     * The row groups are spread by their compressed size.
+     *
+     * @param sourceParquetFilePath the path to the parquet file
+     * @param splitNumber the maximum number of ranges
+     * @return the start and end offsets of each range
+     */
+    public List<long[]> splitParquetFile(String sourceParquetFilePath, int splitNumber)
+    {
+        HadoopInputFile inputFile;
+        List<BlockMetaData> rowGroups;
+        try {
+            inputFile = HadoopInputFile.fromPath(new Path(sourceParquetFilePath), hadoopConf);
+            try (ParquetFileReader reader = ParquetFileReader.open(inputFile)) {
+                rowGroups = reader.getRowGroups();
+            }
+        }
+        catch (IOException e) {
+            String message = String.format("IO exception occurred while reading the footer of the file [%s].", sourceParquetFilePath);
+            throw AddaxException.asAddaxException(IO_ERROR, message, e);
+        }
+
+        long[] starts = new long[rowGroups.size()];
+        long[] sizes = new long[rowGroups.size()];
+        for (int i = 0; i < rowGroups.size(); i++) {
+            starts[i] = rowGroups.get(i).getStartingPos();
+            sizes[i] = rowGroups.get(i).getCompressedSize();
+        }
+        return splitBySize(starts, sizes, inputFile.getLength(), splitNumber);
+    }
+
+    /**
+     * Groups consecutive blocks of a file into at most {@code splitNumber} byte ranges of about the same size.
+     * The first range starts at 0 and the last one ends at the file end, the others are cut at the start of a block.
+     *
+     * @param starts the start offsets of the blocks in order
+     * @param sizes the sizes of the blocks
+     * @param fileEnd the end offset of the last range
+     * @param splitNumber the maximum number of ranges
+     * @return the start and end offsets of each range
+     */
+    private static List<long[]> splitBySize(long[] starts, long[] sizes, long fileEnd, int splitNumber)
+    {
+        long totalSize = 0;
+        for (long size : sizes) {
+            totalSize += size;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        long rangeStart = 0;
+        long accumulated = 0;
+        for (int i = 0; i < starts.length; i++) {
+            // start a new range once the previous ones hold their share of the file
+            if (accumulated > 0 && accumulated >= totalSize * (ranges.size() + 1) / splitNumber) {
+                ranges.add(new long[] {rangeStart, starts[i]});
+                rangeStart = starts[i];
+            }
+            accumulated += sizes[i];
+        }
+        ranges.add(new long[] {rangeStart, fileEnd});
+        return ranges;
+    }
 }
@@ -189,6 +189,24 @@ public class HdfsReader
 
             }
 
+            boolean isParquet = HdfsConstant.PARQUET.equals(specifiedFileType);
+            if ((isParquet || HdfsConstant.ORC.equals(specifiedFileType)) && splitNumber < adviceNumber) {
+                // fewer files than channels, cut them on the row group or stripe boundaries so that every channel has work
+                int rangesPerFile = (adviceNumber + splitNumber - 1) / splitNumber;
+                for (String file : sourceFiles) {
+                    List<long[]> ranges = isParquet ? dfsUtil.splitParquetFile(file, rangesPerFile) : dfsUtil.splitOrcFile(file, rangesPerFile);
+                    LOG.info("The file [{}] is split into {} range(s).", file, ranges.size());
+                    for (long[] range : ranges) {
+                        Configuration splitConfig = readerOriginConfig.clone();
+                        splitConfig.set(HdfsConstant.SOURCE_FILES, List.of(file));
+                        splitConfig.set(Key.RANGE_START, range[0]);
+                        splitConfig.set(Key.RANGE_END, range[1]);
+                        readerSplitConfigs.add(splitConfig);
+                    }
+                }
+                return readerSplitConfigs;
+            }
+
             List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(new ArrayList<>(sourceFiles), splitNumber);
             for (List<String> files : splitSourceFiles) {
                 Configuration splitConfig = readerOriginConfig.clone();
@@ -254,13 +272,15 @@ public class HdfsReader
                                 recordSender, getTaskPluginCollector());
                     }
                     case HdfsConstant.ORC ->
-                            dfsUtil.orcFileStartRead(sourceFile, recordSender, getTaskPluginCollector());
+                            dfsUtil.orcFileStartRead(sourceFile, taskConfig.getLong(Key.RANGE_START, 0),
+                                    taskConfig.getLong(Key.RANGE_END, -1), recordSender, getTaskPluginCollector());
                     case HdfsConstant.SEQ ->
                             dfsUtil.sequenceFileStartRead(sourceFile, taskConfig, recordSender, getTaskPluginCollector());
                     case HdfsConstant.RC ->
                             dfsUtil.rcFileStartRead(sourceFile, recordSender, getTaskPluginCollector());
                     case HdfsConstant.PARQUET ->
-                            dfsUtil.parquetFileStartRead(sourceFile, recordSender, getTaskPluginCollector());
+                            dfsUtil.parquetFileStartRead(sourceFile, taskConfig.getLong(Key.RANGE_START, 0),
+                                    taskConfig.getLong(Key.RANGE_END, -1), recordSender, getTaskPluginCollector());
                     default -> throw AddaxException.asAddaxException(NOT_SUPPORT_TYPE,
                             """
                             The specifiedFileType: [%s] is unsupported.
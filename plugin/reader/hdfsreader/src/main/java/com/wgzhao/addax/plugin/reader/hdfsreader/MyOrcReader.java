@@ -43,16 +43,19 @@ import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.orc.OrcFile;
 import org.apache.orc.Reader;
 import org.apache.orc.TypeDescription;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.StringJoiner;
 
+import static com.wgzhao.addax.core.spi.ErrorCode.ILLEGAL_VALUE;
 import static com.wgzhao.addax.core.spi.ErrorCode.IO_ERROR;
 import static com.wgzhao.addax.plugin.reader.hdfsreader.JavaType.ARRAY;
 import static com.wgzhao.addax.plugin.reader.hdfsreader.JavaType.MAP;
@@ -65,13 +68,31 @@ public class MyOrcReader
     private final String nullFormat;
     private final List<ColumnEntry> columnEntries;
     private final Path path;
+    private final String where;
+    private final long rangeStart;
+    private final long rangeEnd;
+    private OrcFilter filter;
 
     public MyOrcReader(org.apache.hadoop.conf.Configuration hadoopConf, Path path, String nullFormat, List<ColumnEntry> columns)
+    {
+        this(hadoopConf, path, nullFormat, columns, null, 0, -1);
+    }
+
+    /**
+     * @param where the filter of the rows, null for all rows
+     * @param rangeStart the start offset of the stripes to read
+     * @param rangeEnd the end offset of the stripes to read, negative for the whole file
+     */
+    public MyOrcReader(org.apache.hadoop.conf.Configuration hadoopConf, Path path, String nullFormat, List<ColumnEntry> columns,
+            String where, long rangeStart, long rangeEnd)
     {
         this.hadoopConf = hadoopConf;
         this.nullFormat = nullFormat;
         this.path = path;
         this.columnEntries = columns;
+        this.where = where;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
     }
 
     public void reader(RecordSender recordSender, TaskPluginCollector taskPluginCollector)
@@ -88,24 +109,74 @@ public class MyOrcReader
                 }
             }
 
+            Reader.Options options = reader.options().schema(schema);
+            if (StringUtils.isNotBlank(where)) {
+                filter = OrcFilter.parse(where, schema);
+                options.searchArgument(filter.toSearchArgument(), schema.getFieldNames().toArray(new String[0]));
+            }
+            options.include(getIncludedColumns(schema));
+            if (rangeEnd >= 0) {
+                // the stripes starting in the range
+                options.range(rangeStart, rangeEnd - rangeStart);
+            }
+
             VectorizedRowBatch rowBatch = schema.createRowBatch(1024);
-            org.apache.orc.RecordReader rowIterator = reader.rows(reader.options().schema(schema));
-            while (rowIterator.nextBatch(rowBatch)) {
-                buildRecord(rowBatch, recordSender, taskPluginCollector, nullFormat);
+            try (org.apache.orc.RecordReader rowIterator = reader.rows(options)) {
+                while (rowIterator.nextBatch(rowBatch)) {
+                    buildRecord(rowBatch, recordSender, taskPluginCollector, nullFormat);
+                }
             }
         }
+        catch (AddaxException e) {
+            throw e;
+        }
         catch (Exception e) {
             String message = String.format("Exception occurred while reading the file [%s].", path);
             LOG.error(message);
-            throw AddaxException.asAddaxException(IO_ERROR, message);
+            throw AddaxException.asAddaxException(IO_ERROR, message, e);
         }
     }
 
+    /**
+     * Only the configured columns and the columns of the filter are read, the vectors of the others stay empty.
+     *
+     * @param schema the file schema
+     * @return the include flags indexed by column id
+     */
+    private boolean[] getIncludedColumns(TypeDescription schema)
+    {
+        boolean[] include = new boolean[schema.getMaximumId() + 1];
+        include[schema.getId()] = true;
+        List<Integer> fieldIndexes = new ArrayList<>();
+        for (ColumnEntry column : columnEntries) {
+            if (column.getValue() == null) {
+                fieldIndexes.add(column.getIndex());
+            }
+        }
+        if (filter != null) {
+            fieldIndexes.addAll(filter.getFieldIndexes());
+        }
+        List<TypeDescription> fields = schema.getChildren();
+        for (int index : fieldIndexes) {
+            if (index < 0 || index >= fields.size()) {
+                throw AddaxException.asAddaxException(ILLEGAL_VALUE,
+                        String.format("The column index %d is out of range, the file [%s] has %d columns.", index, path, fields.size()));
+            }
+            TypeDescription field = fields.get(index);
+            Arrays.fill(include, field.getId(), field.getMaximumId() + 1, true);
+        }
+        return include;
+    }
+
     private void buildRecord(VectorizedRowBatch rowBatch, RecordSender recordSender,
             TaskPluginCollector taskPluginCollector, String nullFormat)
     {
         Record record;
-        for (int row = 0; row < rowBatch.size; row++) {
+        for (int r = 0; r < rowBatch.size; r++) {
+            int row = rowBatch.selectedInUse ? rowBatch.selected[r] : r;
+            if (filter != null && !filter.matches(rowBatch, row)) {
+                continue;
+            }
             record = recordSender.createRecord();
             try {
                 for (ColumnEntry column : columnEntries) {
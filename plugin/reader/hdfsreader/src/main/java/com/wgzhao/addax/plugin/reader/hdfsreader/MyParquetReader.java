@@ -35,17 +35,29 @@ import com.wgzhao.addax.core.element.StringColumn;
 import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.plugin.TaskPluginCollector;
-import org.apache.avro.Conversions;
-import org.apache.avro.generic.GenericData;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.HadoopReadOptions;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReadStore;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
 import org.apache.parquet.hadoop.ParquetFileReader;
-import org.apache.parquet.hadoop.ParquetReader;
-import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
 import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
 import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.Type;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -57,10 +69,12 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import static com.wgzhao.addax.core.spi.ErrorCode.ILLEGAL_VALUE;
 import static com.wgzhao.addax.core.spi.ErrorCode.IO_ERROR;
 import static com.wgzhao.addax.core.spi.ErrorCode.NOT_SUPPORT_TYPE;
 
@@ -73,81 +87,293 @@ public class MyParquetReader
     private static final long MILLIS_IN_DAY = TimeUnit.DAYS.toMillis(1);
     private static final long NANOS_PER_MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
 
-    private final MessageType schema;
+    // the column read store asks a converter for each column, but the values are taken from the column readers directly
+    private static final GroupConverter NO_OP_CONVERTER = new GroupConverter()
+    {
+        private final PrimitiveConverter primitiveConverter = new PrimitiveConverter() {};
+
+        @Override
+        public Converter getConverter(int fieldIndex)
+        {
+            return primitiveConverter;
+        }
+
+        @Override
+        public void start()
+        {
+            //
+        }
+
+        @Override
+        public void end()
+        {
+            //
+        }
+    };
+
+    private final org.apache.hadoop.conf.Configuration hadoopConf;
+    private final Path path;
     private final String nullFormat;
     private final List<ColumnEntry> columnEntries;
-    private final ParquetReader<Group> reader;
+    private final long rangeStart;
+    private final long rangeEnd;
+    // the schema of the columns to be read only
+    private MessageType schema;
+    // the field index in the projected schema of each column entry, -1 for a constant
+    private int[] fieldIndexes;
 
     public MyParquetReader(org.apache.hadoop.conf.Configuration hadoopConf, Path path, String nullFormat, List<ColumnEntry> columns)
     {
-        hadoopConf.set("parquet.avro.readInt96AsFixed", "true");
+        this(hadoopConf, path, nullFormat, columns, 0, -1);
+    }
+
+    /**
+     * @param rangeStart the start offset of the byte range to be read
+     * @param rangeEnd the end offset of the byte range to be read, negative for the whole file.
+     * A row group is read if its midpoint is in the range.
+     */
+    public MyParquetReader(org.apache.hadoop.conf.Configuration hadoopConf, Path path, String nullFormat, List<ColumnEntry> columns,
+            long rangeStart, long rangeEnd)
+    {
+        this.hadoopConf = hadoopConf;
+        this.path = path;
         this.nullFormat = nullFormat;
-        try {
-            this.schema = ParquetFileReader.open(HadoopInputFile.fromPath(path, hadoopConf)).getFileMetaData().getSchema();
-        }
-        catch (IOException e) {
-            throw new RuntimeException("Failed to open parquet file", e);
+        this.columnEntries = new ArrayList<>(columns);
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    public void reader(RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    {
+        ParquetReadOptions.Builder options = HadoopReadOptions.builder(hadoopConf);
+        if (rangeEnd >= 0) {
+            options.withRange(rangeStart, rangeEnd);
         }
-        GenericData decimalSupport = new GenericData();
-        decimalSupport.addLogicalTypeConversion(new Conversions.DecimalConversion());
-        try {
-            this.reader = ParquetReader.builder(new GroupReadSupport(), path).withConf(hadoopConf).build();
+        try (ParquetFileReader fileReader = new ParquetFileReader(HadoopInputFile.fromPath(path, hadoopConf), options.build())) {
+            FileMetaData fileMetaData = fileReader.getFooter().getFileMetaData();
+            MessageType fileSchema = fileMetaData.getSchema();
+            project(fileSchema);
+            // only the column chunks of the projected columns are read from the file
+            fileReader.setRequestedSchema(schema);
+
+            boolean isFlat = schema.getFields().stream().allMatch(field -> field.isPrimitive() && !field.isRepetition(Type.Repetition.REPEATED));
+            MessageColumnIO columnIO = isFlat ? null : new ColumnIOFactory().getColumnIO(schema, fileSchema);
+            PageReadStore rowGroup;
+            while ((rowGroup = fileReader.readNextRowGroup()) != null) {
+                if (isFlat) {
+                    readColumns(new ColumnReadStoreImpl(rowGroup, NO_OP_CONVERTER, schema, fileMetaData.getCreatedBy()),
+                            rowGroup.getRowCount(), recordSender, taskPluginCollector);
+                }
+                else {
+                    readGroups(columnIO.getRecordReader(rowGroup, new GroupRecordConverter(schema)),
+                            rowGroup.getRowCount(), recordSender, taskPluginCollector);
+                }
+            }
         }
         catch (IOException e) {
-            throw new RuntimeException(e);
+            throw AddaxException.asAddaxException(IO_ERROR, "Failed to read the parquet file " + path, e);
         }
+    }
 
-        if (!columns.isEmpty()) {
-            this.columnEntries = columns;
-        }
-        else {
+    private void project(MessageType fileSchema)
+    {
+        List<Type> fields = fileSchema.getFields();
+        if (columnEntries.isEmpty()) {
             // the columns maybe empty or '*' in the configuration, we need to get the schema from the parquet file
-            List<Type> fields = schema.getFields();
-            this.columnEntries = new ArrayList<>(fields.size());
-            for (int i = 0; i < schema.getFields().size(); i++) {
+            for (int i = 0; i < fields.size(); i++) {
                 ColumnEntry columnEntry = new ColumnEntry();
                 columnEntry.setIndex(i);
                 columnEntry.setType(getJavaType(fields.get(i)).name());
                 this.columnEntries.add(columnEntry);
             }
         }
+
+        List<Integer> selected = new ArrayList<>();
+        for (ColumnEntry columnEntry : columnEntries) {
+            Integer index = columnEntry.getIndex();
+            if (columnEntry.getValue() != null || selected.contains(index)) {
+                continue;
+            }
+            if (index == null || index < 0 || index >= fields.size()) {
+                throw AddaxException.asAddaxException(ILLEGAL_VALUE,
+                        "The column index %s is out of range, the file %s has %d columns.".formatted(index, path, fields.size()));
+            }
+            selected.add(index);
+        }
+        Collections.sort(selected);
+
+        List<Type> projected = new ArrayList<>(selected.size());
+        for (int index : selected) {
+            projected.add(fields.get(index));
+        }
+        this.schema = new MessageType(fileSchema.getName(), projected);
+        this.fieldIndexes = new int[columnEntries.size()];
+        for (int i = 0; i < columnEntries.size(); i++) {
+            ColumnEntry columnEntry = columnEntries.get(i);
+            fieldIndexes[i] = columnEntry.getValue() != null ? -1 : selected.indexOf(columnEntry.getIndex());
+        }
     }
 
-    public void reader(RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    /**
+     * Read the primitive columns of a row group straight from their column readers, which decode one page at a time,
+     * so no intermediate object is built per row.
+     */
+    private void readColumns(ColumnReadStore columnReadStore, long rowCount, RecordSender recordSender, TaskPluginCollector taskPluginCollector)
     {
-        try {
-            Group group = reader.read();
-            while (group != null) {
-                Record record = recordSender.createRecord();
-                Column columnGenerated;
-                try {
-                    for (ColumnEntry columnEntry : columnEntries) {
-                        columnGenerated = getColumn(group, columnEntry);
-                        record.addColumn(columnGenerated);
-                    } // end for
-                    recordSender.sendToWriter(record);
-                }
-                catch (Exception e) {
-                    if (e instanceof AddaxException ae) {
-                        throw ae;
+        List<ColumnDescriptor> descriptors = schema.getColumns();
+        ColumnReader[] readers = new ColumnReader[descriptors.size()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = columnReadStore.getColumnReader(descriptors.get(i));
+        }
+        for (long row = 0; row < rowCount; row++) {
+            Record record = recordSender.createRecord();
+            try {
+                for (int i = 0; i < columnEntries.size(); i++) {
+                    ColumnEntry columnEntry = columnEntries.get(i);
+                    if (columnEntry.getValue() != null) {
+                        record.addColumn(new StringColumn(columnEntry.getValue()));
+                        continue;
+                    }
+                    ColumnReader reader = readers[fieldIndexes[i]];
+                    ColumnDescriptor descriptor = descriptors.get(fieldIndexes[i]);
+                    if (reader.getCurrentDefinitionLevel() < descriptor.getMaxDefinitionLevel()) {
+                        record.addColumn(new StringColumn(nullFormat));
+                        continue;
                     }
-                    // cast failed means dirty data, including number format, date format, etc.
-                    taskPluginCollector.collectDirtyRecord(record, e.getMessage());
-                    throw new RuntimeException(e);
+                    record.addColumn(getPrimitiveColumn(reader, descriptor.getPrimitiveType(), columnEntry));
+                }
+                recordSender.sendToWriter(record);
+            }
+            catch (Exception e) {
+                if (e instanceof AddaxException ae) {
+                    throw ae;
+                }
+                // cast failed means dirty data, including number format, date format, etc.
+                taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+                throw new RuntimeException(e);
+            }
+            finally {
+                for (ColumnReader reader : readers) {
+                    reader.consume();
                 }
-                group = reader.read();
             }
         }
-        catch (IOException e) {
-            throw new RuntimeException(e);
+    }
+
+    private void readGroups(RecordReader<Group> recordReader, long rowCount, RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    {
+        for (long row = 0; row < rowCount; row++) {
+            Group group = recordReader.read();
+            Record record = recordSender.createRecord();
+            try {
+                for (int i = 0; i < columnEntries.size(); i++) {
+                    record.addColumn(getColumn(group, columnEntries.get(i), fieldIndexes[i]));
+                }
+                recordSender.sendToWriter(record);
+            }
+            catch (Exception e) {
+                if (e instanceof AddaxException ae) {
+                    throw ae;
+                }
+                // cast failed means dirty data, including number format, date format, etc.
+                taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private Column getPrimitiveColumn(ColumnReader reader, PrimitiveType primitiveType, ColumnEntry columnEntry)
+    {
+        String columnType = columnEntry.getType();
+        var type = JavaType.valueOf(columnType.toUpperCase());
+        try {
+            return switch (type) {
+                case STRING -> new StringColumn(readString(reader, primitiveType));
+                case INT, LONG -> new LongColumn(readLong(reader, primitiveType));
+                case FLOAT, DOUBLE -> new DoubleColumn(readDouble(reader, primitiveType));
+                case DECIMAL -> new DoubleColumn(readDecimal(reader, primitiveType));
+                case BOOLEAN -> new BoolColumn(reader.getBoolean());
+                case DATE -> {
+                    var epoch = reader.getInteger();
+                    yield epoch == 0 ? new StringColumn(null) :
+                            new StringColumn(LocalDate.of(1970, 1, 1).plusDays(epoch).toString());
+                }
+                case TIMESTAMP -> new DateColumn(new Date(readTimestampMills(reader, primitiveType)));
+                case BINARY -> new BytesColumn(reader.getBinary().getBytes());
+                default -> {
+                    LOG.debug("Converting column type {} to String", columnType);
+                    yield new StringColumn(readString(reader, primitiveType));
+                }
+            };
+        }
+        catch (Exception e) {
+            throw new IllegalArgumentException(
+                    "Cannot convert column type %s to %s: %s".formatted(columnType, type, e));
+        }
+    }
+
+    private static String readString(ColumnReader reader, PrimitiveType primitiveType)
+    {
+        return switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32 -> String.valueOf(reader.getInteger());
+            case INT64 -> String.valueOf(reader.getLong());
+            case FLOAT -> String.valueOf(reader.getFloat());
+            case DOUBLE -> String.valueOf(reader.getDouble());
+            case BOOLEAN -> String.valueOf(reader.getBoolean());
+            default -> reader.getBinary().toStringUsingUTF8();
+        };
+    }
+
+    private static long readLong(ColumnReader reader, PrimitiveType primitiveType)
+    {
+        return switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32 -> reader.getInteger();
+            case INT64 -> reader.getLong();
+            default -> Long.parseLong(readString(reader, primitiveType));
+        };
+    }
+
+    private static double readDouble(ColumnReader reader, PrimitiveType primitiveType)
+    {
+        return switch (primitiveType.getPrimitiveTypeName()) {
+            case FLOAT -> reader.getFloat();
+            case DOUBLE -> reader.getDouble();
+            case INT32 -> reader.getInteger();
+            case INT64 -> reader.getLong();
+            default -> Double.parseDouble(readString(reader, primitiveType));
+        };
+    }
+
+    private static BigDecimal readDecimal(ColumnReader reader, PrimitiveType primitiveType)
+    {
+        int scale = primitiveType.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.DecimalLogicalTypeAnnotation decimal
+                ? decimal.getScale() : 0;
+        return switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32 -> BigDecimal.valueOf(reader.getInteger(), scale);
+            case INT64 -> BigDecimal.valueOf(reader.getLong(), scale);
+            default -> new BigDecimal(new BigInteger(reader.getBinary().getBytes()), scale);
+        };
+    }
+
+    private static long readTimestampMills(ColumnReader reader, PrimitiveType primitiveType)
+    {
+        if (primitiveType.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.INT64) {
+            return getTimestampMills(reader.getBinary());
+        }
+        long value = reader.getLong();
+        if (primitiveType.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation timestamp) {
+            return switch (timestamp.getUnit()) {
+                case MICROS -> Math.floorDiv(value, 1000L);
+                case NANOS -> Math.floorDiv(value, NANOS_PER_MILLISECOND);
+                default -> value;
+            };
         }
+        return value;
     }
 
-    private Column getColumn(Group group, ColumnEntry columnEntry)
+    private Column getColumn(Group group, ColumnEntry columnEntry, int columnIndex)
     {
-        Column columnGenerated;
         String columnType = columnEntry.getType();
-        Integer columnIndex = columnEntry.getIndex();
         String columnConst = columnEntry.getValue();
         if (columnConst != null) {
             return new StringColumn(columnConst);
@@ -0,0 +1,388 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package com.wgzhao.addax.plugin.reader.hdfsreader;
+
+import com.wgzhao.addax.core.exception.AddaxException;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.orc.TypeDescription;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
+
+/**
+ * A simple {@code where} filter on an orc file.
+ * <p>
+ * The filter is a list of conditions joined by {@code AND}, each one being one of
+ * <pre>
+ *     column (=|!=|&lt;&gt;|&lt;|&lt;=|&gt;|&gt;=) literal
+ *     column IS [NOT] NULL
+ *     column [NOT] IN (literal, ...)
+ *     column [NOT] BETWEEN literal AND literal
+ * </pre>
+ * where a column is a field name of the file, and a string, date or timestamp literal is quoted by single quotes.
+ * <p>
+ * It is turned into a {@link SearchArgument}, so that the orc reader skips the stripes and row groups whose statistics
+ * can not match it. The statistics only skip data, so the rows read are checked by {@link #matches(VectorizedRowBatch, int)}.
+ */
+final class OrcFilter
+{
+    private enum Operator
+    {
+        EQ, NE, LT, LE, GT, GE, IS_NULL, IS_NOT_NULL, IN, NOT_IN, BETWEEN, NOT_BETWEEN
+    }
+
+    private record Condition(String name, int index, PredicateLeaf.Type type, Operator operator, Object[] literals)
+    {
+    }
+
+    private record Token(String text, boolean quoted)
+    {
+        boolean is(String keyword)
+        {
+            return !quoted && text.equalsIgnoreCase(keyword);
+        }
+    }
+
+    private final String where;
+    private final TypeDescription schema;
+    private final List<Token> tokens;
+    private final List<Condition> conditions = new ArrayList<>();
+    private int pos = 0;
+
+    private OrcFilter(String where, TypeDescription schema)
+    {
+        this.where = where;
+        this.schema = schema;
+        this.tokens = tokenize(where);
+    }
+
+    /**
+     * Parse a filter.
+     *
+     * @param where the filter
+     * @param schema the schema of the orc file
+     * @return the parsed filter
+     */
+    static OrcFilter parse(String where, TypeDescription schema)
+    {
+        OrcFilter filter = new OrcFilter(where, schema);
+        do {
+            filter.conditions.add(filter.parseCondition());
+        }
+        while (filter.accept("AND"));
+        if (filter.pos < filter.tokens.size()) {
+            throw filter.error("unexpected [" + filter.tokens.get(filter.pos).text() + "]");
+        }
+        return filter;
+    }
+
+    /**
+     * @return the top level field indexes used by the filter
+     */
+    List<Integer> getFieldIndexes()
+    {
+        return conditions.stream().map(Condition::index).distinct().toList();
+    }
+
+    SearchArgument toSearchArgument()
+    {
+        SearchArgument.Builder builder = SearchArgumentFactory.newBuilder().startAnd();
+        for (Condition c : conditions) {
+            Object[] l = c.literals();
+            switch (c.operator()) {
+                case EQ -> builder.equals(c.name(), c.type(), l[0]);
+                case NE -> builder.startNot().equals(c.name(), c.type(), l[0]).end();
+                case LT -> builder.lessThan(c.name(), c.type(), l[0]);
+                case LE -> builder.lessThanEquals(c.name(), c.type(), l[0]);
+                case GT -> builder.startNot().lessThanEquals(c.name(), c.type(), l[0]).end();
+                case GE -> builder.startNot().lessThan(c.name(), c.type(), l[0]).end();
+                case IS_NULL -> builder.isNull(c.name(), c.type());
+                case IS_NOT_NULL -> builder.startNot().isNull(c.name(), c.type()).end();
+                case IN -> builder.in(c.name(), c.type(), l);
+                case NOT_IN -> builder.startNot().in(c.name(), c.type(), l).end();
+                case BETWEEN -> builder.between(c.name(), c.type(), l[0], l[1]);
+                case NOT_BETWEEN -> builder.startNot().between(c.name(), c.type(), l[0], l[1]).end();
+            }
+        }
+        return builder.end().build();
+    }
+
+    /**
+     * Check a row of the batch, a comparison with null is never true, the same as sql.
+     *
+     * @param batch the batch read with the file schema
+     * @param row the row index in the batch
+     * @return true if the row matches all conditions
+     */
+    boolean matches(VectorizedRowBatch batch, int row)
+    {
+        for (Condition c : conditions) {
+            ColumnVector col = batch.cols[c.index()];
+            int i = col.isRepeating ? 0 : row;
+            boolean isNull = !col.noNulls && col.isNull[i];
+            if (c.operator() == Operator.IS_NULL || c.operator() == Operator.IS_NOT_NULL) {
+                if (isNull != (c.operator() == Operator.IS_NULL)) {
+                    return false;
+                }
+                continue;
+            }
+            if (isNull || !matches(c, valueOf(c.type(), col, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Condition c, Comparable<Object> value)
+    {
+        Object[] l = c.literals();
+        return switch (c.operator()) {
+            case EQ -> value.compareTo(l[0]) == 0;
+            case NE -> value.compareTo(l[0]) != 0;
+            case LT -> value.compareTo(l[0]) < 0;
+            case LE -> value.compareTo(l[0]) <= 0;
+            case GT -> value.compareTo(l[0]) > 0;
+            case GE -> value.compareTo(l[0]) >= 0;
+            case IN, NOT_IN -> {
+                boolean found = false;
+                for (Object literal : l) {
+                    found |= value.compareTo(literal) == 0;
+                }
+                yield found == (c.operator() == Operator.IN);
+            }
+            case BETWEEN, NOT_BETWEEN -> (value.compareTo(l[0]) >= 0 && value.compareTo(l[1]) <= 0) == (c.operator() == Operator.BETWEEN);
+            default -> true;
+        };
+    }
+
+    /**
+     * Read a value in the same java type as the literals of the search argument.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> valueOf(PredicateLeaf.Type type, ColumnVector col, int i)
+    {
+        Comparable<?> value = switch (type) {
+            case LONG -> ((LongColumnVector) col).vector[i];
+            case BOOLEAN -> ((LongColumnVector) col).vector[i] != 0;
+            case DATE -> Date.valueOf(LocalDate.ofEpochDay(((LongColumnVector) col).vector[i]));
+            case FLOAT -> ((DoubleColumnVector) col).vector[i];
+            case DECIMAL -> ((DecimalColumnVector) col).vector[i];
+            case TIMESTAMP -> ((TimestampColumnVector) col).asScratchTimestamp(i);
+            case STRING -> ((BytesColumnVector) col).toString(i);
+        };
+        return (Comparable<Object>) value;
+    }
+
+    private Condition parseCondition()
+    {
+        String name = next().text();
+        if (name.length() > 1 && name.startsWith("`") && name.endsWith("`")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        int index = -1;
+        List<String> fieldNames = schema.getFieldNames();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            if (fieldNames.get(i).equalsIgnoreCase(name)) {
+                index = i;
+                name = fieldNames.get(i);
+                break;
+            }
+        }
+        if (index < 0) {
+            throw error("the column [" + name + "] does not exist in " + fieldNames);
+        }
+        TypeDescription fieldType = schema.getChildren().get(index);
+        PredicateLeaf.Type type = toPredicateType(name, fieldType);
+
+        if (accept("IS")) {
+            boolean not = accept("NOT");
+            expect("NULL");
+            return new Condition(name, index, type, not ? Operator.IS_NOT_NULL : Operator.IS_NULL, new Object[0]);
+        }
+        boolean not = accept("NOT");
+        if (accept("IN")) {
+            expect("(");
+            List<Object> literals = new ArrayList<>();
+            do {
+                literals.add(literal(fieldType));
+            }
+            while (accept(","));
+            expect(")");
+            return new Condition(name, index, type, not ? Operator.NOT_IN : Operator.IN, literals.toArray());
+        }
+        if (accept("BETWEEN")) {
+            Object lower = literal(fieldType);
+            expect("AND");
+            Object upper = literal(fieldType);
+            return new Condition(name, index, type, not ? Operator.NOT_BETWEEN : Operator.BETWEEN, new Object[] {lower, upper});
+        }
+        if (not) {
+            throw error("IN or BETWEEN is expected after NOT");
+        }
+        Token op = next();
+        Operator operator = switch (op.quoted() ? "" : op.text()) {
+            case "=" -> Operator.EQ;
+            case "!=", "<>" -> Operator.NE;
+            case "<" -> Operator.LT;
+            case "<=" -> Operator.LE;
+            case ">" -> Operator.GT;
+            case ">=" -> Operator.GE;
+            default -> throw error("unknown operator [" + op.text() + "]");
+        };
+        return new Condition(name, index, type, operator, new Object[] {literal(fieldType)});
+    }
+
+    private PredicateLeaf.Type toPredicateType(String name, TypeDescription fieldType)
+    {
+        return switch (fieldType.getCategory()) {
+            case BOOLEAN -> PredicateLeaf.Type.BOOLEAN;
+            case BYTE, SHORT, INT, LONG -> PredicateLeaf.Type.LONG;
+            case FLOAT, DOUBLE -> PredicateLeaf.Type.FLOAT;
+            case DECIMAL -> PredicateLeaf.Type.DECIMAL;
+            case STRING, VARCHAR, CHAR -> PredicateLeaf.Type.STRING;
+            case DATE -> PredicateLeaf.Type.DATE;
+            case TIMESTAMP -> PredicateLeaf.Type.TIMESTAMP;
+            default -> throw error("the column [" + name + "] of type " + fieldType + " can not be filtered");
+        };
+    }
+
+    private Object literal(TypeDescription fieldType)
+    {
+        Token token = next();
+        String text = token.text();
+        try {
+            return switch (fieldType.getCategory()) {
+                case BOOLEAN -> Boolean.parseBoolean(text);
+                case BYTE, SHORT, INT, LONG -> Long.parseLong(text);
+                case FLOAT, DOUBLE -> Double.parseDouble(text);
+                case DECIMAL -> {
+                    HiveDecimalWritable decimal = new HiveDecimalWritable(text);
+                    if (!decimal.isSet()) {
+                        throw new IllegalArgumentException(text);
+                    }
+                    yield decimal;
+                }
+                case DATE -> Date.valueOf(text);
+                case TIMESTAMP -> Timestamp.valueOf(text);
+                default -> text;
+            };
+        }
+        catch (IllegalArgumentException e) {
+            throw error("[" + text + "] is not a valid " + fieldType + " value");
+        }
+    }
+
+    private Token next()
+    {
+        if (pos >= tokens.size()) {
+            throw error("unexpected end");
+        }
+        return tokens.get(pos++);
+    }
+
+    private boolean accept(String keyword)
+    {
+        if (pos < tokens.size() && tokens.get(pos).is(keyword)) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String keyword)
+    {
+        if (!accept(keyword)) {
+            throw error("[" + keyword + "] is expected");
+        }
+    }
+
+    private AddaxException error(String reason)
+    {
+        return AddaxException.asAddaxException(CONFIG_ERROR,
+                String.format("Failed to parse the where [%s] of the orc file: %s.", where, reason));
+    }
+
+    private List<Token> tokenize(String s)
+    {
+        List<Token> result = new ArrayList<>();
+        int i = 0;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '\'') {
+                // a quoted literal, '' is an escaped quote
+                StringBuilder sb = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= s.length()) {
+                        throw error("unclosed quote");
+                    }
+                    if (s.charAt(i) == '\'') {
+                        if (i + 1 < s.length() && s.charAt(i + 1) == '\'') {
+                            sb.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    sb.append(s.charAt(i++));
+                }
+                result.add(new Token(sb.toString(), true));
+            }
+            else if ("(),".indexOf(c) >= 0) {
+                result.add(new Token(String.valueOf(c), false));
+                i++;
+            }
+            else if ("=<>!".indexOf(c) >= 0) {
+                int start = i++;
+                if (i < s.length() && "=>".indexOf(s.charAt(i)) >= 0) {
+                    i++;
+                }
+                result.add(new Token(s.substring(start, i), false));
+            }
+            else {
+                int start = i;
+                while (i < s.length() && !Character.isWhitespace(s.charAt(i)) && "(),'=<>!".indexOf(s.charAt(i)) < 0) {
+                    i++;
+                }
+                result.add(new Token(s.substring(start, i), false));
+            }
+        }
+        return result;
+    }
+}
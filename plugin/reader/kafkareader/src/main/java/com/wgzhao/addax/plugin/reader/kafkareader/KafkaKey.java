@@ -29,4 +29,10 @@ public class KafkaKey
     public final static String PROPERTIES = "properties";
     public final static String MISSING_KEY_VALUE = "missingKeyValue";
     public static final String MAX_MESSAGE_NUMBER = "maxMessageNumber";
+    // where to start reading each partition, earliest, committed, a timestamp or a map of partition to offset
+    public static final String START_OFFSET = "startOffset";
+    // where to stop reading each partition, latest, a timestamp or a map of partition to offset
+    public static final String END_OFFSET = "endOffset";
+    // the partitions and offset ranges assigned to a task, set by the job
+    public static final String PARTITION_RANGES = "partitionRanges";
 }
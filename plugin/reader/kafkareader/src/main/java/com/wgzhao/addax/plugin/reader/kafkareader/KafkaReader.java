@@ -31,17 +31,29 @@ import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.spi.Reader;
 import com.wgzhao.addax.core.util.Configuration;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -52,9 +64,42 @@ import static com.wgzhao.addax.core.spi.ErrorCode.REQUIRED_VALUE;
 public class KafkaReader
         extends Reader
 {
+    private final static String GROUP_ID = "addax-kafka-grp";
+    private final static String CLIENT_ID = "addax-kafka-reader";
+
+    /**
+     * A job reads a bounded range of offsets when the start or the end offset is configured.
+     * Otherwise, it subscribes to the topic and reads until {@code maxMessageNumber} messages are read.
+     */
+    private static boolean isBounded(Configuration conf)
+    {
+        return conf.get(KafkaKey.START_OFFSET) != null || conf.get(KafkaKey.END_OFFSET) != null;
+    }
+
+    private static KafkaConsumer<String, Object> createConsumer(Configuration conf)
+    {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, conf.getString(KafkaKey.BROKER_LIST));
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID + "-" + RandomStringUtils.insecure().nextAlphanumeric(5));
+        properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        properties.put(ConsumerConfig.CLIENT_ID_CONFIG, CLIENT_ID);
+        if (isBounded(conf)) {
+            // the offsets are given by the job, do not commit them to a random group
+            properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        }
+        Map<String, Object> custConf = conf.getMap(KafkaKey.PROPERTIES);
+        if (custConf != null && !custConf.isEmpty()) {
+            properties.putAll(custConf);
+        }
+        return new KafkaConsumer<>(properties);
+    }
+
     public static class Job
             extends Reader.Job
     {
+        private static final Logger LOG = LoggerFactory.getLogger(Job.class);
+
         private Configuration conf = null;
 
         @Override
@@ -63,6 +108,12 @@ public class KafkaReader
             this.conf = getPluginJobConf();
             conf.getNecessaryValue(KafkaKey.BROKER_LIST, REQUIRED_VALUE);
             conf.getNecessaryValue(KafkaKey.TOPIC, REQUIRED_VALUE);
+            String startOffset = conf.getString(KafkaKey.START_OFFSET, "");
+            Map<String, Object> custConf = conf.getMap(KafkaKey.PROPERTIES);
+            if ("committed".equalsIgnoreCase(startOffset) && (custConf == null || !custConf.containsKey(ConsumerConfig.GROUP_ID_CONFIG))) {
+                throw AddaxException.asAddaxException(CONFIG_ERROR,
+                        "The startOffset [committed] requires the consumer group [" + ConsumerConfig.GROUP_ID_CONFIG + "] in the properties.");
+            }
         }
 
         @Override
@@ -74,8 +125,142 @@ public class KafkaReader
         @Override
         public List<Configuration> split(int adviceNumber)
         {
-            // only one split
-            return Collections.singletonList(conf.clone());
+            if (!isBounded(conf)) {
+                // only one split
+                return Collections.singletonList(conf.clone());
+            }
+
+            String topic = conf.getString(KafkaKey.TOPIC);
+            List<long[]> ranges = new ArrayList<>();
+            try (KafkaConsumer<String, Object> consumer = createConsumer(conf)) {
+                List<TopicPartition> partitions = new ArrayList<>();
+                for (PartitionInfo info : consumer.partitionsFor(topic)) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+                Map<TopicPartition, Long> earliest = consumer.beginningOffsets(partitions);
+                Map<TopicPartition, Long> latest = consumer.endOffsets(partitions);
+                Map<TopicPartition, Long> starts = resolveOffsets(consumer, KafkaKey.START_OFFSET, partitions, earliest, latest);
+                Map<TopicPartition, Long> ends = resolveOffsets(consumer, KafkaKey.END_OFFSET, partitions, latest, latest);
+                for (TopicPartition tp : partitions) {
+                    // messages out of the retention or not written yet can not be read
+                    long start = Math.max(starts.get(tp), earliest.get(tp));
+                    long end = Math.min(ends.get(tp), latest.get(tp));
+                    LOG.info("The partition {} of the topic [{}] is read from offset {} to {}.", tp.partition(), topic, start, end);
+                    if (start < end) {
+                        ranges.add(new long[] {tp.partition(), start, end});
+                    }
+                }
+            }
+
+            // give the biggest ranges first to the task with the fewest messages
+            ranges.sort((a, b) -> Long.compare(b[2] - b[1], a[2] - a[1]));
+            int taskNumber = Math.max(1, Math.min(adviceNumber, ranges.size()));
+            List<List<Map<String, Object>>> taskRanges = new ArrayList<>();
+            long[] taskMessages = new long[taskNumber];
+            for (int i = 0; i < taskNumber; i++) {
+                taskRanges.add(new ArrayList<>());
+            }
+            for (long[] range : ranges) {
+                int task = 0;
+                for (int i = 1; i < taskNumber; i++) {
+                    if (taskMessages[i] < taskMessages[task]) {
+                        task = i;
+                    }
+                }
+                taskRanges.get(task).add(Map.of("partition", range[0], "start", range[1], "end", range[2]));
+                taskMessages[task] += range[2] - range[1];
+            }
+
+            List<Configuration> splitConfigs = new ArrayList<>();
+            for (List<Map<String, Object>> partitionRanges : taskRanges) {
+                Configuration splitConfig = conf.clone();
+                splitConfig.set(KafkaKey.PARTITION_RANGES, partitionRanges);
+                splitConfigs.add(splitConfig);
+            }
+            LOG.info("The {} partition range(s) of the topic [{}] are read by {} task(s).", ranges.size(), topic, splitConfigs.size());
+            return splitConfigs;
+        }
+
+        /**
+         * Get the offset of every partition from the configured value of the key, which is one of
+         * <ul>
+         *     <li>earliest or latest</li>
+         *     <li>committed, the offsets committed by the consumer group in the properties</li>
+         *     <li>a timestamp in milliseconds or in the format yyyy-MM-dd HH:mm:ss, the earliest offset whose timestamp is equal to or after it</li>
+         *     <li>a map of partition to offset</li>
+         * </ul>
+         */
+        private Map<TopicPartition, Long> resolveOffsets(KafkaConsumer<String, Object> consumer, String key, List<TopicPartition> partitions,
+                Map<TopicPartition, Long> defaults, Map<TopicPartition, Long> latest)
+        {
+            Object value = conf.get(key);
+            Map<TopicPartition, Long> offsets = new HashMap<>(defaults);
+            if (value == null) {
+                return offsets;
+            }
+            if (value instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    TopicPartition tp;
+                    long offset;
+                    try {
+                        tp = new TopicPartition(conf.getString(KafkaKey.TOPIC), Integer.parseInt(entry.getKey().toString()));
+                        offset = Long.parseLong(entry.getValue().toString());
+                    }
+                    catch (NumberFormatException e) {
+                        throw AddaxException.asAddaxException(CONFIG_ERROR,
+                                "The " + key + " [" + value + "] must be a map of partition to offset.");
+                    }
+                    if (!offsets.containsKey(tp)) {
+                        throw AddaxException.asAddaxException(CONFIG_ERROR,
+                                "The partition " + tp.partition() + " in the " + key + " does not exist.");
+                    }
+                    offsets.put(tp, offset);
+                }
+                return offsets;
+            }
+
+            String text = value.toString().trim();
+            if ("earliest".equalsIgnoreCase(text)) {
+                return consumer.beginningOffsets(partitions);
+            }
+            if ("latest".equalsIgnoreCase(text)) {
+                return latest;
+            }
+            if ("committed".equalsIgnoreCase(text)) {
+                // a partition never committed by the group is read from the default offset
+                for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : consumer.committed(new HashSet<>(partitions)).entrySet()) {
+                    if (entry.getValue() != null) {
+                        offsets.put(entry.getKey(), entry.getValue().offset());
+                    }
+                }
+                return offsets;
+            }
+
+            long timestamp = parseTimestamp(key, text);
+            Map<TopicPartition, Long> query = new HashMap<>();
+            for (TopicPartition tp : partitions) {
+                query.put(tp, timestamp);
+            }
+            for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry : consumer.offsetsForTimes(query).entrySet()) {
+                // no message at or after the timestamp
+                offsets.put(entry.getKey(), entry.getValue() == null ? latest.get(entry.getKey()) : entry.getValue().offset());
+            }
+            return offsets;
+        }
+
+        private static long parseTimestamp(String key, String text)
+        {
+            try {
+                if (StringUtils.isNumeric(text)) {
+                    return Long.parseLong(text);
+                }
+                return LocalDateTime.parse(text, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                        .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            }
+            catch (DateTimeParseException | NumberFormatException e) {
+                throw AddaxException.asAddaxException(CONFIG_ERROR,
+                        "The " + key + " [" + text + "] is neither a known position nor a timestamp like yyyy-MM-dd HH:mm:ss.");
+            }
         }
     }
 
@@ -83,36 +268,29 @@ public class KafkaReader
             extends Reader.Task
     {
         private final static Logger logger = LoggerFactory.getLogger(Task.class);
-        private final static String GROUP_ID = "addax-kafka-grp";
-        private final static String CLIENT_ID = "addax-kafka-reader";
 
         Configuration configuration;
         KafkaConsumer<String, Object> kafkaConsumer;
         private List<String> columns;
         private String missKeyValue;
         private long maxMessageNumber;
+        private List<Configuration> partitionRanges;
 
         @Override
         public void init()
         {
             this.configuration = getPluginJobConf();
-            Properties properties = new Properties();
-            String brokeLists = configuration.getString(KafkaKey.BROKER_LIST);
             String topic = configuration.getString(KafkaKey.TOPIC);
             this.columns = configuration.getList(KafkaKey.COLUMN, String.class);
             this.missKeyValue = configuration.getString(KafkaKey.MISSING_KEY_VALUE, null);
             this.maxMessageNumber = configuration.getLong(KafkaKey.MAX_MESSAGE_NUMBER, Long.MAX_VALUE);
-            properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokeLists);
-            properties.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID + "-" + RandomStringUtils.insecure().nextAlphanumeric(5));
-            properties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-            properties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-            properties.put(ConsumerConfig.CLIENT_ID_CONFIG, CLIENT_ID);
-            Map<String, Object> custConf = this.configuration.getMap(KafkaKey.PROPERTIES);
-            if (custConf != null && !custConf.isEmpty()) {
-                properties.putAll(custConf);
-            }
-            this.kafkaConsumer = new KafkaConsumer<>(properties);
-            kafkaConsumer.subscribe(Collections.singletonList(topic));
+            this.kafkaConsumer = createConsumer(configuration);
+            if (isBounded(configuration)) {
+                this.partitionRanges = configuration.getListConfiguration(KafkaKey.PARTITION_RANGES);
+            }
+            else {
+                kafkaConsumer.subscribe(Collections.singletonList(topic));
+            }
         }
 
         @Override
@@ -124,6 +302,10 @@ public class KafkaReader
         @Override
         public void startRead(RecordSender recordSender)
         {
+            if (partitionRanges != null) {
+                readRanges(recordSender);
+                return;
+            }
             while (maxMessageNumber > 0) {
                 ConsumerRecords<String, Object> items = kafkaConsumer.poll(Duration.ofSeconds(2));
                 sendData(items, recordSender);
@@ -132,6 +314,56 @@ public class KafkaReader
             }
         }
 
+        /**
+         * Read the assigned partitions from their start offsets, each one stops exactly before its end offset.
+         */
+        private void readRanges(RecordSender recordSender)
+        {
+            String topic = configuration.getString(KafkaKey.TOPIC);
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            for (Configuration range : partitionRanges) {
+                endOffsets.put(new TopicPartition(topic, range.getInt("partition")), range.getLong("end"));
+            }
+            if (endOffsets.isEmpty()) {
+                return;
+            }
+            kafkaConsumer.assign(endOffsets.keySet());
+            for (Configuration range : partitionRanges) {
+                kafkaConsumer.seek(new TopicPartition(topic, range.getInt("partition")), range.getLong("start"));
+            }
+
+            while (!endOffsets.isEmpty() && maxMessageNumber > 0) {
+                ConsumerRecords<String, Object> items = kafkaConsumer.poll(Duration.ofSeconds(2));
+                for (TopicPartition tp : items.partitions()) {
+                    Long end = endOffsets.get(tp);
+                    if (end == null) {
+                        continue;
+                    }
+                    List<ConsumerRecord<String, Object>> records = items.records(tp);
+                    int count = 0;
+                    while (count < records.size() && records.get(count).offset() < end) {
+                        count++;
+                    }
+                    sendData(records.subList(0, count), recordSender);
+                    maxMessageNumber -= count;
+                }
+                recordSender.flush();
+
+                // the position may jump over the end offset on a compacted or transactional topic
+                List<TopicPartition> finished = new ArrayList<>();
+                for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+                    if (kafkaConsumer.position(entry.getKey()) >= entry.getValue()) {
+                        finished.add(entry.getKey());
+                    }
+                }
+                if (!finished.isEmpty()) {
+                    kafkaConsumer.pause(finished);
+                    finished.forEach(endOffsets::remove);
+                    logger.info("The partition(s) {} reached the end offset.", finished);
+                }
+            }
+        }
+
         private Column guessColumnType(Object obj)
         {
             if (obj instanceof Long) {
@@ -146,7 +378,7 @@ public class KafkaReader
             return new StringColumn(obj.toString());
         }
 
-        private void sendData(ConsumerRecords<String, Object> items, RecordSender recordSender)
+        private void sendData(Iterable<ConsumerRecord<String, Object>> items, RecordSender recordSender)
         {
             for (ConsumerRecord<String, Object> item : items) {
                 Record record = recordSender.createRecord();
@@ -46,6 +46,19 @@ public final class KuduKey
 
     public static final String SCAN_REQUEST_TIMEOUT = "scanTimeout";
 
+    public static final String BATCH_SIZE_BYTES = "batchSizeBytes";
+
+    public static final String FAULT_TOLERANT = "faultTolerant";
+
+    // leader_only or closest_replica
+    public static final String REPLICA_SELECTION = "replicaSelection";
+
+    // the data size of a scan token, a tablet is cut into several tokens when it is larger
+    public static final String SPLIT_SIZE_BYTES = "splitSizeBytes";
+
+    // the serialized scan token of a task, set by the job
+    public static final String SCAN_TOKEN = "scanToken";
+
     public static final Map<String, KuduPredicate.ComparisonOp> KUDU_OPERATORS = ImmutableMap.of(
             "=", KuduPredicate.ComparisonOp.EQUAL,
             ">", KuduPredicate.ComparisonOp.GREATER,
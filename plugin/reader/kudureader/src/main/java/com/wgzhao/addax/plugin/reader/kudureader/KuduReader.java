@@ -34,13 +34,19 @@ import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.kudu.ColumnSchema;
 import org.apache.kudu.Schema;
 import org.apache.kudu.Type;
+import org.apache.kudu.client.AbstractKuduScannerBuilder;
 import org.apache.kudu.client.KuduClient;
 import org.apache.kudu.client.KuduException;
 import org.apache.kudu.client.KuduPredicate;
+import org.apache.kudu.client.KuduScanToken;
 import org.apache.kudu.client.KuduScanner;
 import org.apache.kudu.client.KuduTable;
+import org.apache.kudu.client.LocatedTablet;
+import org.apache.kudu.client.ReplicaSelection;
 import org.apache.kudu.client.RowResult;
 import org.apache.kudu.client.RowResultIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.math.BigDecimal;
@@ -51,8 +57,14 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -74,10 +86,132 @@ import static com.wgzhao.addax.plugin.reader.kudureader.KuduKey.KUDU_OPERATORS;
 public class KuduReader
         extends Reader
 {
+    static KuduClient createClient(Configuration conf)
+    {
+        String masterAddresses = conf.getString(KuduKey.KUDU_MASTER_ADDRESSES);
+        long socketReadTimeoutMs = conf.getLong(KuduKey.SOCKET_READ_TIMEOUT, 10) * 1000L;
+        boolean haveKerberos = conf.getBool(HAVE_KERBEROS, false);
+
+        if (!haveKerberos) {
+            return new KuduClient.KuduClientBuilder(masterAddresses)
+                    .defaultOperationTimeoutMs(socketReadTimeoutMs)
+                    .build();
+        }
+        org.apache.hadoop.conf.Configuration configuration = new org.apache.hadoop.conf.Configuration();
+        UserGroupInformation.setConfiguration(configuration);
+
+        String kerberosKeytabFilePath = conf.getString(KERBEROS_KEYTAB_FILE_PATH);
+        String kerberosPrincipal = conf.getString(KERBEROS_PRINCIPAL);
+        try {
+            UserGroupInformation.loginUserFromKeytab(kerberosPrincipal, kerberosKeytabFilePath);
+            return UserGroupInformation.getLoginUser().doAs(
+                    (PrivilegedExceptionAction<KuduClient>) () ->
+                            new KuduClient.KuduClientBuilder(masterAddresses).defaultOperationTimeoutMs(socketReadTimeoutMs).build());
+        }
+        catch (IOException | InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Apply the options shared by a scanner and the scan tokens: the timeouts, the batch size, the replica selection,
+     * the projected columns and the where predicates.
+     */
+    static void applyScanOptions(AbstractKuduScannerBuilder<?, ?> builder, Configuration conf, Schema schema)
+    {
+        String tableName = conf.getString(KuduKey.TABLE);
+        builder.scanRequestTimeout(conf.getLong(KuduKey.SCAN_REQUEST_TIMEOUT, 20L) * 1000L);
+        int batchSizeBytes = conf.getInt(KuduKey.BATCH_SIZE_BYTES, 0);
+        if (batchSizeBytes > 0) {
+            builder.batchSizeBytes(batchSizeBytes);
+        }
+        // a fault-tolerant scan returns the rows in primary key order and can resume on another replica
+        builder.setFaultTolerant(conf.getBool(KuduKey.FAULT_TOLERANT, false));
+        String replicaSelection = conf.getString(KuduKey.REPLICA_SELECTION);
+        if (replicaSelection != null) {
+            try {
+                builder.replicaSelection(ReplicaSelection.valueOf(replicaSelection.toUpperCase()));
+            }
+            catch (IllegalArgumentException e) {
+                throw AddaxException.asAddaxException(ILLEGAL_VALUE,
+                        "The replicaSelection '%s' is not one of %s".formatted(replicaSelection, Arrays.toString(ReplicaSelection.values())));
+            }
+        }
+
+        List<String> columns = conf.getList(COLUMN, String.class);
+        if (columns != null && !columns.isEmpty() && !"*".equals(columns.get(0)) && !"\"*\"".equals(columns.get(0))) {
+            for (String column : columns) {
+                if (!schema.hasColumn(column)) {
+                    throw AddaxException.asAddaxException(
+                            ILLEGAL_VALUE,
+                            "Column '%s' does not exist in table '%s'".formatted(column, tableName)
+                    );
+                }
+            }
+            builder.setProjectedColumnNames(columns);
+        }
+
+        List<Configuration> where = conf.getListConfiguration(WHERE);
+        if (where != null) {
+            processWhere(where, schema, tableName).forEach(builder::addPredicate);
+        }
+    }
+
+    private static List<KuduPredicate> processWhere(List<Configuration> where, Schema schema, String tableName)
+    {
+        List<KuduPredicate> predicates = new ArrayList<>();
+
+        for (Configuration conf : where) {
+            String field = conf.getString("field");
+            if (!schema.hasColumn(field)) {
+                throw AddaxException.asAddaxException(
+                        ILLEGAL_VALUE,
+                        "Column '%s' in where clause does not exist in table '%s'".formatted(field, tableName)
+                );
+            }
+
+            KuduPredicate.ComparisonOp op = KUDU_OPERATORS.get(conf.getString("op"));
+            ColumnSchema column = schema.getColumn(field);
+            String value = conf.getString("value");
+
+            predicates.add(createPredicate(column, op, value));
+        }
+
+        return predicates;
+    }
+
+    private static KuduPredicate createPredicate(ColumnSchema column, KuduPredicate.ComparisonOp op, String value)
+    {
+        return switch (column.getType()) {
+            case INT8, INT16, INT32, INT64 -> KuduPredicate.newComparisonPredicate(column, op, Long.parseLong(value));
+            case BOOL -> KuduPredicate.newComparisonPredicate(column, op, Boolean.parseBoolean(value));
+            case STRING, VARCHAR -> KuduPredicate.newComparisonPredicate(column, op, value);
+            case DATE -> KuduPredicate.newComparisonPredicate(column, op, Date.valueOf(value));
+            case FLOAT -> KuduPredicate.newComparisonPredicate(column, op, Float.parseFloat(value));
+            case DOUBLE -> KuduPredicate.newComparisonPredicate(column, op, Double.parseDouble(value));
+            case DECIMAL -> KuduPredicate.newComparisonPredicate(column, op, new BigDecimal(value));
+            case BINARY -> KuduPredicate.newComparisonPredicate(column, op, value.getBytes(StandardCharsets.UTF_8));
+            case UNIXTIME_MICROS -> {
+                SimpleDateFormat sdf = new SimpleDateFormat(DEFAULT_DATE_FORMAT);
+                try {
+                    java.util.Date date = sdf.parse(value);
+                    int offsetSecs = ZonedDateTime.now(ZoneId.systemDefault()).getOffset().getTotalSeconds();
+                    long ts = date.getTime() * 1_000L + offsetSecs * 1_000_000L;
+                    yield KuduPredicate.newComparisonPredicate(column, op, ts);
+                }
+                catch (ParseException e) {
+                    throw AddaxException.asAddaxException(CONFIG_ERROR, "Cannot parse date: " + value);
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected type: " + column.getType());
+        };
+    }
 
     public static class Job
             extends Reader.Job
     {
+        private static final Logger LOG = LoggerFactory.getLogger(Job.class);
+
         private record WhereClause(String field, String operator, String value) {}
 
         private Configuration originalConfig = null;
@@ -128,6 +262,10 @@ public class KuduReader
                 }
             }
             else {
+                confList.addAll(splitByScanTokens());
+            }
+
+            if (confList.isEmpty()) {
                 Configuration conf = this.originalConfig.clone();
                 conf.set(KuduKey.SPLIT_LOWER_BOUND, "min");
                 conf.set(KuduKey.SPLIT_UPPER_BOUND, "max");
@@ -137,6 +275,59 @@ public class KuduReader
             return confList;
         }
 
+        /**
+         * One task per scan token, which is a tablet, or a part of it if {@code splitSizeBytes} is set.
+         * The projection, the predicates and the scan options are serialized into the tokens.
+         */
+        private List<Configuration> splitByScanTokens()
+        {
+            List<Configuration> confList = new ArrayList<>();
+            String tableName = originalConfig.getString(KuduKey.TABLE);
+            try (KuduClient client = createClient(originalConfig)) {
+                KuduTable table = client.openTable(tableName);
+                KuduScanToken.KuduScanTokenBuilder builder = client.newScanTokenBuilder(table);
+                applyScanOptions(builder, originalConfig, table.getSchema());
+                long splitSizeBytes = originalConfig.getLong(KuduKey.SPLIT_SIZE_BYTES, 0L);
+                if (splitSizeBytes > 0) {
+                    builder.setSplitSizeBytes(splitSizeBytes);
+                }
+                List<KuduScanToken> tokens = builder.build();
+                for (KuduScanToken token : orderByLeader(tokens)) {
+                    Configuration conf = this.originalConfig.clone();
+                    conf.set(KuduKey.SCAN_TOKEN, Base64.getEncoder().encodeToString(token.serialize()));
+                    confList.add(conf);
+                }
+                LOG.info("The table '{}' is split into {} scan token(s).", tableName, tokens.size());
+            }
+            catch (IOException e) {
+                throw AddaxException.asAddaxException(RUNTIME_ERROR, e.getMessage());
+            }
+            return confList;
+        }
+
+        /**
+         * Interleave the tokens by the tablet server of their leader replica, so that the tasks running at the same time
+         * spread over the tablet servers instead of queueing on one of them.
+         */
+        private static List<KuduScanToken> orderByLeader(List<KuduScanToken> tokens)
+        {
+            Map<String, Deque<KuduScanToken>> byServer = new LinkedHashMap<>();
+            for (KuduScanToken token : tokens) {
+                LocatedTablet.Replica leader = token.getTablet().getLeaderReplica();
+                String server = leader == null ? "" : leader.getRpcHost() + ":" + leader.getRpcPort();
+                byServer.computeIfAbsent(server, k -> new ArrayDeque<>()).add(token);
+            }
+            List<KuduScanToken> ordered = new ArrayList<>(tokens.size());
+            while (ordered.size() < tokens.size()) {
+                for (Deque<KuduScanToken> queue : byServer.values()) {
+                    if (!queue.isEmpty()) {
+                        ordered.add(queue.poll());
+                    }
+                }
+            }
+            return ordered;
+        }
+
         private boolean shouldSplit()
         {
             return (this.splitKey != null) && (!"min".equals(this.lowerBound)) && (!"max".equals(this.upperBound));
@@ -198,77 +389,41 @@ public class KuduReader
     {
 
         private KuduClient kuduClient;
+        private Configuration readerSliceConfig;
         private String tableName;
         private String splitKey;
         private String lowerBound;
         private String upperBound;
-        private Long scanRequestTimeout;
-        private List<String> columns;
-        private boolean specifyColumn = false;
-        private List<KuduPredicate> customPredicate;
-        private List<Configuration> where;
+        private String scanToken;
 
         @Override
         public void init()
         {
-            Configuration readerSliceConfig = super.getPluginJobConf();
-            String masterAddresses = readerSliceConfig.getString(KuduKey.KUDU_MASTER_ADDRESSES);
+            this.readerSliceConfig = super.getPluginJobConf();
             this.tableName = readerSliceConfig.getString(KuduKey.TABLE);
-            long socketReadTimeoutMs = readerSliceConfig.getLong(KuduKey.SOCKET_READ_TIMEOUT, 10) * 1000L;
-            this.scanRequestTimeout = readerSliceConfig.getLong(KuduKey.SCAN_REQUEST_TIMEOUT, 20L) * 1000L;
-
-            boolean haveKerberos = readerSliceConfig.getBool(HAVE_KERBEROS, false);
-
-            if (!haveKerberos) {
-                this.kuduClient = new KuduClient.KuduClientBuilder(masterAddresses)
-                        .defaultOperationTimeoutMs(socketReadTimeoutMs)
-                        .build();
-            }
-            else {
-                org.apache.hadoop.conf.Configuration configuration = new org.apache.hadoop.conf.Configuration();
-                UserGroupInformation.setConfiguration(configuration);
-
-                String kerberosKeytabFilePath = readerSliceConfig.getString(KERBEROS_KEYTAB_FILE_PATH);
-                String kerberosPrincipal = readerSliceConfig.getString(KERBEROS_PRINCIPAL);
-                try {
-                    UserGroupInformation.loginUserFromKeytab(kerberosPrincipal, kerberosKeytabFilePath);
-                    this.kuduClient = UserGroupInformation.getLoginUser().doAs(
-                            (PrivilegedExceptionAction<KuduClient>) () ->
-                                    new KuduClient.KuduClientBuilder(masterAddresses).defaultOperationTimeoutMs(socketReadTimeoutMs).build());
-                }
-                catch (IOException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+            this.kuduClient = createClient(readerSliceConfig);
 
             this.lowerBound = readerSliceConfig.getString(KuduKey.SPLIT_LOWER_BOUND);
             this.upperBound = readerSliceConfig.getString(KuduKey.SPLIT_UPPER_BOUND);
             this.splitKey = readerSliceConfig.getString(KuduKey.SPLIT_PK);
-            this.columns = readerSliceConfig.getList(COLUMN, String.class);
-
-            if (!this.columns.isEmpty()) {
-                this.specifyColumn = !isWildcardColumn(this.columns.get(0));
-            }
-
-            this.where = readerSliceConfig.getListConfiguration(WHERE);
-        }
-
-        private boolean isWildcardColumn(String column)
-        {
-            return "*".equals(column) || "\"*\"".equals(column);
+            this.scanToken = readerSliceConfig.getString(KuduKey.SCAN_TOKEN);
         }
 
         @Override
         public void startRead(RecordSender recordSender)
         {
-            KuduTable kuduTable;
             try {
-                kuduTable = this.kuduClient.openTable(this.tableName);
-                Schema schema = kuduTable.getSchema();
-                KuduScanner scanner = buildScanner(kuduTable, schema);
+                KuduScanner scanner;
+                if (this.scanToken != null) {
+                    scanner = KuduScanToken.deserializeIntoScanner(Base64.getDecoder().decode(this.scanToken), this.kuduClient);
+                }
+                else {
+                    KuduTable kuduTable = this.kuduClient.openTable(this.tableName);
+                    scanner = buildScanner(kuduTable, kuduTable.getSchema());
+                }
                 processRows(scanner, recordSender);
             }
-            catch (KuduException ex) {
+            catch (IOException ex) {
                 throw AddaxException.asAddaxException(RUNTIME_ERROR, ex.getMessage());
             }
         }
@@ -277,19 +432,12 @@ public class KuduReader
         {
             KuduScanner.KuduScannerBuilder builder = this.kuduClient.newScannerBuilder(kuduTable);
 
-            if (this.scanRequestTimeout != null) {
-                builder.scanRequestTimeout(this.scanRequestTimeout);
-            }
+            applyScanOptions(builder, readerSliceConfig, schema);
 
             if (shouldApplySplitPredicates()) {
                 applySplitPredicates(builder, schema);
             }
 
-            if (!this.where.isEmpty()) {
-                List<KuduPredicate> predicates = processWhere(this.where, schema);
-                predicates.forEach(builder::addPredicate);
-            }
-
             return builder.build();
         }
 
@@ -308,23 +456,6 @@ public class KuduReader
                             schema.getColumn(this.splitKey),
                             KuduPredicate.ComparisonOp.LESS_EQUAL,
                             Integer.parseInt(this.upperBound)));
-
-            if (this.specifyColumn) {
-                validateAndSetProjectedColumns(builder, schema);
-            }
-        }
-
-        private void validateAndSetProjectedColumns(KuduScanner.KuduScannerBuilder builder, Schema schema)
-        {
-            for (String column : this.columns) {
-                if (!schema.hasColumn(column)) {
-                    throw AddaxException.asAddaxException(
-                            ILLEGAL_VALUE,
-                            "Column '%s' does not exist in table '%s'".formatted(column, this.tableName)
-                    );
-                }
-            }
-            builder.setProjectedColumnNames(this.columns);
         }
 
         private void processRows(KuduScanner scanner, RecordSender recordSender)
@@ -392,56 +523,6 @@ public class KuduReader
             }
         }
 
-        private List<KuduPredicate> processWhere(List<Configuration> where, Schema schema)
-        {
-            List<KuduPredicate> predicates = new ArrayList<>();
-
-            for (Configuration conf : where) {
-                String field = conf.getString("field");
-                if (!schema.hasColumn(field)) {
-                    throw AddaxException.asAddaxException(
-                            ILLEGAL_VALUE,
-                            "Column '%s' in where clause does not exist in table '%s'".formatted(field, this.tableName)
-                    );
-                }
-
-                KuduPredicate.ComparisonOp op = KUDU_OPERATORS.get(conf.getString("op"));
-                ColumnSchema column = schema.getColumn(field);
-                String value = conf.getString("value");
-
-                predicates.add(createPredicate(column, op, value));
-            }
-
-            return predicates;
-        }
-
-        private KuduPredicate createPredicate(ColumnSchema column, KuduPredicate.ComparisonOp op, String value)
-        {
-            return switch (column.getType()) {
-                case INT8, INT16, INT32, INT64 -> KuduPredicate.newComparisonPredicate(column, op, Long.parseLong(value));
-                case BOOL -> KuduPredicate.newComparisonPredicate(column, op, Boolean.parseBoolean(value));
-                case STRING, VARCHAR -> KuduPredicate.newComparisonPredicate(column, op, value);
-                case DATE -> KuduPredicate.newComparisonPredicate(column, op, Date.valueOf(value));
-                case FLOAT -> KuduPredicate.newComparisonPredicate(column, op, Float.parseFloat(value));
-                case DOUBLE -> KuduPredicate.newComparisonPredicate(column, op, Double.parseDouble(value));
-                case DECIMAL -> KuduPredicate.newComparisonPredicate(column, op, new BigDecimal(value));
-                case BINARY -> KuduPredicate.newComparisonPredicate(column, op, value.getBytes(StandardCharsets.UTF_8));
-                case UNIXTIME_MICROS -> {
-                    SimpleDateFormat sdf = new SimpleDateFormat(DEFAULT_DATE_FORMAT);
-                    try {
-                        java.util.Date date = sdf.parse(value);
-                        int offsetSecs = ZonedDateTime.now(ZoneId.systemDefault()).getOffset().getTotalSeconds();
-                        long ts = date.getTime() * 1_000L + offsetSecs * 1_000_000L;
-                        yield KuduPredicate.newComparisonPredicate(column, op, ts);
-                    }
-                    catch (ParseException e) {
-                        throw AddaxException.asAddaxException(CONFIG_ERROR, "Cannot parse date: " + value);
-                    }
-                }
-                default -> throw new IllegalStateException("Unexpected type: " + column.getType());
-            };
-        }
-
         @Override
         public void destroy()
         {
@@ -25,6 +25,7 @@ import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.plugin.RecordSender;
 import com.wgzhao.addax.core.spi.Reader;
 import com.wgzhao.addax.core.util.Configuration;
+import com.wgzhao.addax.storage.reader.ByteRangeUtil;
 import com.wgzhao.addax.storage.reader.StorageReaderUtil;
 import com.wgzhao.addax.storage.util.FileHelper;
 import org.apache.commons.io.IOUtils;
@@ -33,6 +34,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -118,9 +120,30 @@ public class TxtFileReader
             LOG.debug("split() begin...");
             List<Configuration> readerSplitConfigs = new ArrayList<>();
 
-            int splitNumber = sourceFiles.size() > 10 ? adviceNumber : sourceFiles.size();
+            // cut the large files into byte ranges, so that a single big file can be read by all channels
+            long totalSize = 0;
+            for (String file : sourceFiles) {
+                totalSize += new File(file).length();
+            }
+            long splitSize = ByteRangeUtil.getSplitSize(this.originConfig, totalSize, adviceNumber);
+            List<String> wholeFiles = new ArrayList<>();
+            for (String file : sourceFiles) {
+                long fileSize = new File(file).length();
+                if (splitSize > 0 && fileSize > splitSize) {
+                    LOG.info("The file [{}] of {} bytes is split into ranges of {} bytes", file, fileSize, splitSize);
+                    readerSplitConfigs.addAll(ByteRangeUtil.splitRanges(this.originConfig, file, fileSize, splitSize));
+                }
+                else {
+                    wholeFiles.add(file);
+                }
+            }
+            if (wholeFiles.isEmpty()) {
+                return readerSplitConfigs;
+            }
+
+            int splitNumber = wholeFiles.size() > 10 ? adviceNumber : wholeFiles.size();
 
-            List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(this.sourceFiles, splitNumber);
+            List<List<String>> splitSourceFiles = FileHelper.splitSourceFiles(wholeFiles, splitNumber);
             for (List<String> files : splitSourceFiles) {
                 Configuration splitConfig = this.originConfig.clone();
                 splitConfig.set(Key.SOURCE_FILES, files);
@@ -130,6 +153,19 @@ public class TxtFileReader
             return readerSplitConfigs;
         }
 
+        @Override
+        public long estimateSize(Configuration taskConfig)
+        {
+            long size = 0;
+            for (String file : taskConfig.getList(Key.SOURCE_FILES, String.class)) {
+                size += new File(file).length();
+            }
+            if (taskConfig.get(Key.RANGE_START) != null) {
+                return taskConfig.getLong(Key.RANGE_END, size) - taskConfig.getLong(Key.RANGE_START);
+            }
+            return size;
+        }
+
         private int getIndexByName(String name, String[] allNames)
         {
             for (int i = 0; i < allNames.length; i++) {
@@ -196,6 +232,18 @@ public class TxtFileReader
         public void startRead(RecordSender recordSender)
         {
             LOG.debug("Begin to read source files...");
+            if (this.readerSliceConfig.get(Key.RANGE_START) != null) {
+                String fileName = this.sourceFiles.get(0);
+                long start = this.readerSliceConfig.getLong(Key.RANGE_START);
+                long end = this.readerSliceConfig.getLong(Key.RANGE_END, -1);
+                LOG.info("Reading the range [{}, {}) of file {}", start, end < 0 ? "EOF" : end, fileName);
+                StorageReaderUtil.readFromRange(offset -> {
+                    FileInputStream in = new FileInputStream(fileName);
+                    in.getChannel().position(offset);
+                    return in;
+                }, fileName, start, end, readerSliceConfig, recordSender, getTaskPluginCollector());
+                return;
+            }
             FileInputStream inputStream;
             for (String fileName : this.sourceFiles) {
                 LOG.info("Reading file {}", fileName);
@@ -25,11 +25,11 @@ import com.wgzhao.addax.core.spi.Writer;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import org.apache.commons.lang3.time.FastDateFormat;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.text.SimpleDateFormat;
 import java.util.List;
 
 import static com.wgzhao.addax.core.base.Constant.DEFAULT_DATE_FORMAT;
@@ -81,6 +81,9 @@ public class ClickHouseWriter
     public static class Task
             extends Writer.Task
     {
+        // thread safe, so one instance serves all the cells
+        private static final FastDateFormat DATE_FORMAT = FastDateFormat.getInstance(DEFAULT_DATE_FORMAT);
+
         private Configuration writerSliceConfig;
 
         private CommonRdbmsWriter.Task commonRdbmsWriterSlave;
@@ -112,8 +115,7 @@ public class ClickHouseWriter
                         }
                         else if (columnTypeName.equals("DateTime")) {
                             // no precision specified, use default
-                            SimpleDateFormat sdf = new SimpleDateFormat(DEFAULT_DATE_FORMAT);
-                            preparedStatement.setString(columnIndex, sdf.format(column.asDate()));
+                            preparedStatement.setString(columnIndex, DATE_FORMAT.format(column.asDate()));
                         }
                         else {
                             preparedStatement.setString(columnIndex, column.asString());
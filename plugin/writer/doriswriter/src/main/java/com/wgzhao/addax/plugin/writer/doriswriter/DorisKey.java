@@ -56,6 +56,7 @@ public class DorisKey
     private static final String FLUSH_INTERVAL = "flushInterval";
     private static final String LOAD_URL = "loadUrl";
     private static final String FLUSH_QUEUE_LENGTH = "flushQueueLength";
+    private static final String FLUSH_CONCURRENCY = "flushConcurrency";
     private static final String LOAD_PROPS = "loadProps";
     private static final String COLUMN_SEPARATOR = "column_separator";
     private static final String LINE_SEPARATOR = "line_delimiter";
@@ -121,6 +122,29 @@ public class DorisKey
     public void doPretreatment()
     {
         validateStreamLoadUrl();
+        validateCompress();
+    }
+
+    /**
+     * @return true if the stream load body is compressed by gzip
+     */
+    public boolean isGzipCompress()
+    {
+        String compress = options.getString(COMPRESS, "none");
+        return "gzip".equalsIgnoreCase(compress) || "gz".equalsIgnoreCase(compress);
+    }
+
+    private void validateCompress()
+    {
+        String compress = options.getString(COMPRESS, "none");
+        if (!"none".equalsIgnoreCase(compress) && !isGzipCompress()) {
+            throw AddaxException.asAddaxException(CONFIG_ERROR,
+                    "The compress [" + compress + "] is not supported, only none and gzip are supported.");
+        }
+        // doris only decompresses csv stream loads
+        if (isGzipCompress() && !isCsvFormat()) {
+            throw AddaxException.asAddaxException(CONFIG_ERROR, "The compress [gzip] only works with the csv format.");
+        }
     }
 
     public String getJdbcUrl()
@@ -193,6 +217,14 @@ public class DorisKey
         return options.getInt(FLUSH_QUEUE_LENGTH, 1);
     }
 
+    /**
+     * @return the number of stream loads running at the same time
+     */
+    public int getFlushConcurrency()
+    {
+        return Math.max(1, options.getInt(FLUSH_CONCURRENCY, 1));
+    }
+
     public StreamLoadFormat getStreamLoadFormat()
     {
         return streamLoadFormat;
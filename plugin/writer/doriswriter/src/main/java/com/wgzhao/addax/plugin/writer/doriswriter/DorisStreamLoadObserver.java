@@ -21,6 +21,7 @@
 package com.wgzhao.addax.plugin.writer.doriswriter;
 
 import com.alibaba.fastjson2.JSON;
+import com.wgzhao.addax.rdbms.writer.util.StreamLoadBody;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
@@ -28,11 +29,10 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +41,6 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLDecoder;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
@@ -62,9 +61,40 @@ public class DorisStreamLoadObserver
     private static final String RESULT_LABEL_ABORTED = "ABORTED";
     private static final String RESULT_LABEL_UNKNOWN = "UNKNOWN";
 
+    // the connections per route kept for the label state checks and retries, each concurrent load takes one more
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+
+    private final CloseableHttpClient httpClient;
+
     public DorisStreamLoadObserver(DorisKey options)
     {
         this.options = options;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        int perRoute = MAX_CONNECTIONS_PER_ROUTE + options.getFlushConcurrency();
+        connectionManager.setDefaultMaxPerRoute(perRoute);
+        connectionManager.setMaxTotal(perRoute * Math.max(2, options.getLoadUrlList().size() * 2));
+        // the FE answers a stream load by a 307 redirect to a BE, follow it for PUT too
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setRedirectStrategy(new DefaultRedirectStrategy()
+                {
+                    @Override
+                    protected boolean isRedirectable(String method)
+                    {
+                        return true;
+                    }
+                })
+                .build();
+    }
+
+    public void close()
+    {
+        try {
+            httpClient.close();
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to close the http client of stream load", e);
+        }
     }
 
     public String urlDecode(String outBuffer)
@@ -91,7 +121,7 @@ public class DorisStreamLoadObserver
         String loadUrl = host + "/api/" + options.getDatabase() + "/" + options.getTable() + "/_stream_load";
         LOG.debug("Start to join batch data: rows[{}] bytes[{}] label[{}].", data.getRows().size(), data.getBytes(), data.getLabel());
         loadUrl = urlDecode(loadUrl);
-        Map<String, Object> loadResult = put(loadUrl, data.getLabel(), addRows(data.getRows(), data.getBytes().intValue()));
+        Map<String, Object> loadResult = put(loadUrl, data.getLabel(), addRows(data.getRows()));
         final String keyStatus = "Status";
         if (null == loadResult || !loadResult.containsKey(keyStatus)) {
             throw new IOException("Unable to flush data to Doris: unknown result status.");
@@ -119,111 +149,84 @@ public class DorisStreamLoadObserver
             catch (InterruptedException ex) {
                 break;
             }
-            try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
-                HttpGet httpGet = new HttpGet(host + "/api/" + options.getDatabase() + "/get_load_state?label=" + label);
-                httpGet.setHeader("Authorization", getBasicAuthHeader(options.getUsername(), options.getPassword()));
-                httpGet.setHeader("Connection", "close");
+            HttpGet httpGet = new HttpGet(host + "/api/" + options.getDatabase() + "/get_load_state?label=" + label);
+            httpGet.setHeader("Authorization", getBasicAuthHeader(options.getUsername(), options.getPassword()));
 
-                try (CloseableHttpResponse resp = httpclient.execute(httpGet)) {
-                    HttpEntity respEntity = getHttpEntity(resp);
-                    if (respEntity == null) {
-                        throw new IOException(String.format("Failed to flush data to Doris, Error " +
-                                "could not get the final state of label[%s].\n", label), null);
-                    }
-                    Map<String, Object> result = (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
-                    String labelState = (String) result.get("data");
-                    if (null == labelState) {
+            try (CloseableHttpResponse resp = httpClient.execute(httpGet)) {
+                HttpEntity respEntity = getHttpEntity(resp);
+                if (respEntity == null) {
+                    throw new IOException(String.format("Failed to flush data to Doris, Error " +
+                            "could not get the final state of label[%s].\n", label), null);
+                }
+                Map<String, Object> result = (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
+                String labelState = (String) result.get("data");
+                if (null == labelState) {
+                    throw new IOException(String.format("Failed to flush data to Doris, Error " +
+                            "could not get the final state of label[%s]. response[%s]\n", label, EntityUtils.toString(respEntity)), null);
+                }
+                LOG.info("Checking label[{}] state[{}]\n", label, labelState);
+                switch (labelState) {
+                    case LABEL_STATE_VISIBLE:
+                    case LABEL_STATE_COMMITTED:
+                        return;
+                    case RESULT_LABEL_PREPARE:
+                        continue;
+                    case RESULT_LABEL_ABORTED:
+                        throw new DorisWriterException(String.format("Failed to flush data to Doris, Error " +
+                                "label[%s] state[%s]\n", label, labelState), null, true);
+                    case RESULT_LABEL_UNKNOWN:
+                    default:
                         throw new IOException(String.format("Failed to flush data to Doris, Error " +
-                                "could not get the final state of label[%s]. response[%s]\n", label, EntityUtils.toString(respEntity)), null);
-                    }
-                    LOG.info("Checking label[{}] state[{}]\n", label, labelState);
-                    switch (labelState) {
-                        case LABEL_STATE_VISIBLE:
-                        case LABEL_STATE_COMMITTED:
-                            return;
-                        case RESULT_LABEL_PREPARE:
-                            continue;
-                        case RESULT_LABEL_ABORTED:
-                            throw new DorisWriterException(String.format("Failed to flush data to Doris, Error " +
-                                    "label[%s] state[%s]\n", label, labelState), null, true);
-                        case RESULT_LABEL_UNKNOWN:
-                        default:
-                            throw new IOException(String.format("Failed to flush data to Doris, Error " +
-                                    "label[%s] state[%s]\n", label, labelState), null);
-                    }
+                                "label[%s] state[%s]\n", label, labelState), null);
                 }
             }
         }
     }
 
-    private byte[] addRows(List<byte[]> rows, int totalBytes)
+    private DorisRowsEntity addRows(List<byte[]> rows)
     {
+        byte[] empty = new byte[0];
         if (options.isCsvFormat()) {
             byte[] lineDelimiter = DelimiterParser.parse(options.getLineDelimiter(), "\n").getBytes(StandardCharsets.UTF_8);
-
-            ByteBuffer bos = ByteBuffer.allocate(totalBytes + rows.size() * lineDelimiter.length);
-            for (byte[] row : rows) {
-                bos.put(row);
-                bos.put(lineDelimiter);
-            }
-            return bos.array();
+            return new DorisRowsEntity(new StreamLoadBody(rows, empty, lineDelimiter, rows.isEmpty() ? empty : lineDelimiter, options.isGzipCompress()));
         }
 
         if (options.isJsonFormat()) {
-            ByteBuffer bos = ByteBuffer.allocate(totalBytes + (rows.isEmpty() ? 2 : rows.size() + 1));
-            bos.put("[".getBytes(StandardCharsets.UTF_8));
-            byte[] jsonDelimiter = ",".getBytes(StandardCharsets.UTF_8);
-            boolean isFirstElement = true;
-            for (byte[] row : rows) {
-                if (!isFirstElement) {
-                    bos.put(jsonDelimiter);
-                }
-                bos.put(row);
-                isFirstElement = false;
-            }
-            bos.put("]".getBytes(StandardCharsets.UTF_8));
-            return bos.array();
+            return new DorisRowsEntity(new StreamLoadBody(rows, "[".getBytes(StandardCharsets.UTF_8), ",".getBytes(StandardCharsets.UTF_8),
+                    "]".getBytes(StandardCharsets.UTF_8), options.isGzipCompress()));
         }
         throw new RuntimeException("Failed to join rows data, unsupported `format` from stream load properties:");
     }
 
-    private Map<String, Object> put(String loadUrl, String label, byte[] data)
+    private Map<String, Object> put(String loadUrl, String label, DorisRowsEntity data)
             throws IOException
     {
-        LOG.debug("Executing stream load to: '{}', size: '{}'", loadUrl, data.length);
-        final HttpClientBuilder httpClientBuilder = HttpClients.custom()
-                .setRedirectStrategy(new DefaultRedirectStrategy()
-                {
-                    @Override
-                    protected boolean isRedirectable(String method)
-                    {
-                        return true;
-                    }
-                });
-        try (CloseableHttpClient httpclient = httpClientBuilder.build()) {
-            HttpPut httpPut = new HttpPut(loadUrl);
-            httpPut.removeHeaders(HttpHeaders.CONTENT_LENGTH);
-            httpPut.removeHeaders(HttpHeaders.TRANSFER_ENCODING);
-            List<String> cols = options.getColumns();
-            if (null != cols && !cols.isEmpty() && options.isCsvFormat()) {
-                httpPut.setHeader("columns", cols.stream().map(f -> String.format("`%s`", f)).collect(Collectors.joining(",")));
-            }
+        LOG.debug("Executing stream load to: '{}', size: '{}'", loadUrl, data.getRawLength());
+        HttpPut httpPut = new HttpPut(loadUrl);
+        httpPut.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+        httpPut.removeHeaders(HttpHeaders.TRANSFER_ENCODING);
+        List<String> cols = options.getColumns();
+        if (null != cols && !cols.isEmpty() && options.isCsvFormat()) {
+            httpPut.setHeader("columns", cols.stream().map(f -> String.format("`%s`", f)).collect(Collectors.joining(",")));
+        }
 
-            options.loadProps2Map().forEach(httpPut::setHeader);
+        options.loadProps2Map().forEach(httpPut::setHeader);
+        if (options.isGzipCompress()) {
+            httpPut.setHeader("compress_type", "gz");
+        }
 
-            httpPut.setHeader("Expect", "100-continue");
-            httpPut.setHeader("label", label);
-            httpPut.setHeader("two_phase_commit", "false");
-            httpPut.setHeader("Authorization", getBasicAuthHeader(options.getUsername(), options.getPassword()));
-            httpPut.setEntity(new ByteArrayEntity(data));
-            httpPut.setConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
-            try (CloseableHttpResponse resp = httpclient.execute(httpPut)) {
-                HttpEntity respEntity = getHttpEntity(resp);
-                if (respEntity == null) {
-                    return null;
-                }
-                return (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
+        httpPut.setHeader("Expect", "100-continue");
+        httpPut.setHeader("label", label);
+        httpPut.setHeader("two_phase_commit", "false");
+        httpPut.setHeader("Authorization", getBasicAuthHeader(options.getUsername(), options.getPassword()));
+        httpPut.setEntity(data);
+        httpPut.setConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
+        try (CloseableHttpResponse resp = httpClient.execute(httpPut)) {
+            HttpEntity respEntity = getHttpEntity(resp);
+            if (respEntity == null) {
+                return null;
             }
+            return (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
         }
     }
 
@@ -20,7 +20,6 @@
 
 package com.wgzhao.addax.plugin.writer.doriswriter;
 
-import com.google.common.base.Strings;
 import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.spi.ErrorCode;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
@@ -32,6 +31,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
@@ -50,6 +50,11 @@ public class DorisWriterManager {
     private volatile boolean closed = false;
     private volatile Throwable flushException;
     private final LinkedBlockingDeque< WriterTuple > flushQueue;
+    // the batches queued or being loaded, guarded by pendingLock
+    private int pendingBatches = 0;
+    private final Object pendingLock = new Object();
+    private final Object schedulerLock = new Object();
+    private ExecutorService flushExecutor;
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> scheduledFuture;
 
@@ -62,30 +67,34 @@ public class DorisWriterManager {
     }
 
     public void startScheduler() {
-        stopScheduler();
-        this.scheduler = Executors.newScheduledThreadPool(1, new BasicThreadFactory.Builder().namingPattern("Doris-interval-flush").daemon(true).build());
-        this.scheduledFuture = this.scheduler.schedule(() -> {
-            synchronized (DorisWriterManager.this) {
-                if (!closed) {
-                    try {
-                        String label = createBatchLabel();
-                        LOG.info("Doris interval Sinking triggered: label[{}].", label);
-                        if (batchCount == 0) {
-                            startScheduler();
+        synchronized (schedulerLock) {
+            stopScheduler();
+            this.scheduler = Executors.newScheduledThreadPool(1, new BasicThreadFactory.Builder().namingPattern("Doris-interval-flush").daemon(true).build());
+            this.scheduledFuture = this.scheduler.schedule(() -> {
+                synchronized (DorisWriterManager.this) {
+                    if (!closed) {
+                        try {
+                            String label = createBatchLabel();
+                            LOG.info("Doris interval Sinking triggered: label[{}].", label);
+                            if (batchCount == 0) {
+                                startScheduler();
+                            }
+                            flush(label, false);
+                        } catch (Throwable e) {
+                            setFlushException(e);
                         }
-                        flush(label, false);
-                    } catch (Throwable e) {
-                        flushException = e;
                     }
                 }
-            }
-        }, options.getFlushInterval(), TimeUnit.MILLISECONDS);
+            }, options.getFlushInterval(), TimeUnit.MILLISECONDS);
+        }
     }
 
     public void stopScheduler() {
-        if (this.scheduledFuture != null) {
-            scheduledFuture.cancel(false);
-            this.scheduler.shutdown();
+        synchronized (schedulerLock) {
+            if (this.scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+                this.scheduler.shutdown();
+            }
         }
     }
 
@@ -114,7 +123,18 @@ public class DorisWriterManager {
             }
             return;
         }
-        flushQueue.put(new WriterTuple (label, batchSize,  new ArrayList<>(buffer)));
+        synchronized (pendingLock) {
+            pendingBatches++;
+        }
+        try {
+            // blocks while the queue is full, so the buffered batches are bounded by flushQueueLength + flushConcurrency
+            flushQueue.put(new WriterTuple (label, batchSize,  new ArrayList<>(buffer)));
+        } catch (InterruptedException e) {
+            synchronized (pendingLock) {
+                pendingBatches--;
+            }
+            throw e;
+        }
         if (waitUtilDone) {
             // wait the last flush
             waitAsyncFlushingDone();
@@ -133,6 +153,9 @@ public class DorisWriterManager {
                 flush(label, true);
             } catch (Exception e) {
                 throw new RuntimeException("Writing records to Doris failed.", e);
+            } finally {
+                flushExecutor.shutdownNow();
+                visitor.close();
             }
         }
         checkFlushException();
@@ -143,55 +166,82 @@ public class DorisWriterManager {
     }
 
     private void startAsyncFlushing() {
-        // start flush thread
-        Thread flushThread = new Thread(new Runnable(){
-            public void run() {
-                while(true) {
+        // each flush thread runs its own stream loads, so several batches are loaded at the same time
+        int concurrency = options.getFlushConcurrency();
+        flushExecutor = Executors.newFixedThreadPool(concurrency,
+                new BasicThreadFactory.Builder().namingPattern("Doris-stream-load-%d").daemon(true).build());
+        for (int i = 0; i < concurrency; i++) {
+            flushExecutor.execute(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
                     try {
                         asyncFlush();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
                     } catch (Throwable e) {
-                        flushException = e;
+                        setFlushException(e);
                     }
                 }
-            }
-        });
-        flushThread.setDaemon(true);
-        flushThread.start();
+            });
+        }
     }
 
     private void waitAsyncFlushingDone() throws InterruptedException {
-        // wait previous flushing
-        for (int i = 0; i <= options.getFlushQueueLength(); i++) {
-            flushQueue.put(new WriterTuple ("", 0L, null));
+        // wait all the queued and running loads
+        synchronized (pendingLock) {
+            while (pendingBatches > 0) {
+                pendingLock.wait();
+            }
         }
         checkFlushException();
     }
 
     private void asyncFlush() throws Exception {
         WriterTuple flushData = flushQueue.take();
-        if (Strings.isNullOrEmpty(flushData.getLabel())) {
-            return;
-        }
-        stopScheduler();
-        LOG.debug("Async stream load: rows[{}] bytes[{}] label[{}].", flushData.getRows().size(), flushData.getBytes(), flushData.getLabel());
-        for (int i = 0; i <= options.getMaxRetries(); i++) {
-            try {
-                // flush to Doris with stream load
-                visitor.streamLoad(flushData);
-                LOG.debug("Async stream load finished: label[{}].", flushData.getLabel());
-                startScheduler();
-                break;
-            } catch (Exception e) {
-                LOG.warn("Failed to flush batch data to Doris, retry times = {}", i, e);
-                if (i >= options.getMaxRetries()) {
-                    throw new IOException(e);
-                }
-                if (e instanceof DorisWriterException && ((DorisWriterException)e).needReCreateLabel()) {
-                    String newLabel = createBatchLabel();
-                    LOG.warn("Batch label changed from [{}] to [{}]", flushData.getLabel(), newLabel);
-                    flushData.setLabel(newLabel);
+        try {
+            if (flushException != null) {
+                // the job fails anyway, do not load the batches behind the failed one
+                LOG.warn("Skip the stream load of label[{}] as a previous load failed.", flushData.getLabel());
+                return;
+            }
+            stopScheduler();
+            LOG.debug("Async stream load: rows[{}] bytes[{}] label[{}].", flushData.getRows().size(), flushData.getBytes(), flushData.getLabel());
+            for (int i = 0; i <= options.getMaxRetries(); i++) {
+                try {
+                    // flush to Doris with stream load
+                    visitor.streamLoad(flushData);
+                    LOG.debug("Async stream load finished: label[{}].", flushData.getLabel());
+                    startScheduler();
+                    break;
+                } catch (Exception e) {
+                    LOG.warn("Failed to flush batch data to Doris, retry times = {}", i, e);
+                    if (i >= options.getMaxRetries()) {
+                        throw new IOException("Failed to load the batch of label[" + flushData.getLabel() + "]", e);
+                    }
+                    if (e instanceof DorisWriterException && ((DorisWriterException)e).needReCreateLabel()) {
+                        String newLabel = createBatchLabel();
+                        LOG.warn("Batch label changed from [{}] to [{}]", flushData.getLabel(), newLabel);
+                        flushData.setLabel(newLabel);
+                    }
+                    TimeUnit.SECONDS.sleep(Math.min(i + 1, 10));
                 }
-                TimeUnit.SECONDS.sleep(Math.min(i + 1, 10));
+            }
+        } catch (Throwable e) {
+            // record the failure before the batch counts as done, or the writer waiting for it may not see it
+            setFlushException(e);
+            throw e;
+        } finally {
+            synchronized (pendingLock) {
+                pendingBatches--;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    private void setFlushException(Throwable e) {
+        // keep the first failure, the later ones are usually caused by it
+        synchronized (pendingLock) {
+            if (flushException == null) {
+                flushException = e;
             }
         }
     }
@@ -42,6 +42,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -51,6 +55,7 @@ import static com.wgzhao.addax.core.base.Key.POST_SHELL;
 import static com.wgzhao.addax.core.base.Key.PRE_SHELL;
 import static com.wgzhao.addax.core.spi.ErrorCode.ILLEGAL_VALUE;
 import static com.wgzhao.addax.core.spi.ErrorCode.REQUIRED_VALUE;
+import static com.wgzhao.addax.core.spi.ErrorCode.RUNTIME_ERROR;
 
 public class HdfsWriter
         extends Writer
@@ -441,6 +446,11 @@ public class HdfsWriter
     {
         private static final Logger LOG = LoggerFactory.getLogger(Task.class);
 
+        // roll over to a new file once the current one has got this many MB of record data
+        private static final String MAX_FILE_SIZE = "maxFileSize";
+        // roll over to a new file once the current one has got this many records
+        private static final String MAX_ROWS_PER_FILE = "maxRowsPerFile";
+
         private Configuration writerSliceConfig;
 
         @Override
@@ -460,18 +470,100 @@ public class HdfsWriter
         public void startWrite(RecordReceiver lineReceiver)
         {
             String fileType = this.writerSliceConfig.getString(Key.FILE_TYPE).toUpperCase();
-            IHDFSWriter hdfsHelper = switch (fileType) {
+            // absolute path，eg：/user/hive/warehouse/writer.db/text/test.snappy
+            String fileName = this.writerSliceConfig.getString(Key.FILE_NAME);
+            long maxFileSize = this.writerSliceConfig.getLong(MAX_FILE_SIZE, 0L) * 1024 * 1024;
+            long maxRowsPerFile = this.writerSliceConfig.getLong(MAX_ROWS_PER_FILE, 0L);
+            if (maxFileSize > 0 || maxRowsPerFile > 0) {
+                writeRollingFiles(lineReceiver, fileType, fileName, maxRowsPerFile, maxFileSize);
+                return;
+            }
+            IHDFSWriter hdfsHelper = createWriter(fileType);
+            LOG.info("Begin to write file : [{}]", fileName);
+            hdfsHelper.write(lineReceiver, writerSliceConfig, fileName, getTaskPluginCollector());
+            LOG.info("Finish write");
+        }
+
+        /*
+         * Writes each file on a thread of its own and starts the next file as soon as the current one is full,
+         * so closing a file (flushing its last stripe or row group and its footer) overlaps the writing of the next one.
+         * All the files are in the temporary directory of the job, which moves them into place in post().
+         */
+        private void writeRollingFiles(RecordReceiver lineReceiver, String fileType, String fileName, long maxRowsPerFile, long maxFileSize)
+        {
+            // at most two files are open at once, the writers take them in turn
+            IHDFSWriter[] writers = {createWriter(fileType), createWriter(fileType)};
+            RollingRecordReceiver rollingReceiver = new RollingRecordReceiver(lineReceiver, maxRowsPerFile, maxFileSize);
+            ExecutorService executor = Executors.newFixedThreadPool(writers.length);
+            CompletableFuture<Void> previous = null;
+            try {
+                int part = 0;
+                while (true) {
+                    String partFileName = getPartFileName(fileName, part);
+                    IHDFSWriter writer = writers[part % writers.length];
+                    RollingRecordReceiver.FileReceiver fileReceiver = rollingReceiver.nextFile();
+                    LOG.info("Begin to write file : [{}]", partFileName);
+                    CompletableFuture<Void> current = CompletableFuture.runAsync(
+                            () -> writer.write(fileReceiver, writerSliceConfig, partFileName, getTaskPluginCollector()), executor);
+                    // the write only fails before it has got all its records if something goes wrong
+                    CompletableFuture.anyOf(fileReceiver.getEnded(), current).join();
+                    if (previous != null) {
+                        previous.join();
+                    }
+                    previous = current;
+                    if (!rollingReceiver.hasMore()) {
+                        break;
+                    }
+                    part++;
+                }
+                previous.join();
+                LOG.info("Finish write {} file(s)", part + 1);
+            }
+            catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw AddaxException.asAddaxException(RUNTIME_ERROR, e.getCause());
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // the split task writes a file of its own next to the file of this task in the temporary directory of the job
+        @Override
+        public Configuration getSplitTaskConfig(int taskId)
+        {
+            Configuration splitTaskConfig = getPluginJobConf().clone();
+            splitTaskConfig.set(Key.FILE_NAME, insertSuffix(splitTaskConfig.getString(Key.FILE_NAME), "_split" + taskId));
+            return splitTaskConfig;
+        }
+
+        private IHDFSWriter createWriter(String fileType)
+        {
+            return switch (fileType) {
                 case "TEXT" -> new TextWriter(this.writerSliceConfig);
                 case "ORC" -> new OrcWriter(this.writerSliceConfig);
                 case "PARQUET" -> new ParquetWriter(this.writerSliceConfig);
                 default -> throw AddaxException.asAddaxException(ILLEGAL_VALUE,
                         String.format("The file format [%s] is supported yet,  the plugin currently only supports: [%s].", fileType, Job.SUPPORT_FORMAT));
             };
-            // absolute path，eg：/user/hive/warehouse/writer.db/text/test.snappy
-            String fileName = this.writerSliceConfig.getString(Key.FILE_NAME);
-            LOG.info("Begin to write file : [{}]", fileName);
-            hdfsHelper.write(lineReceiver, writerSliceConfig, fileName, getTaskPluginCollector());
-            LOG.info("Finish write");
+        }
+
+        // the first file keeps the name given by the job, the next ones get the part number before the extension
+        private static String getPartFileName(String fileName, int part)
+        {
+            return part == 0 ? fileName : insertSuffix(fileName, "_" + part);
+        }
+
+        // inserts the suffix before the extension of the file name, or appends it if there is none
+        private static String insertSuffix(String fileName, String suffix)
+        {
+            int dot = fileName.lastIndexOf('.');
+            if (dot <= fileName.lastIndexOf('/')) {
+                return fileName + suffix;
+            }
+            return fileName.substring(0, dot) + suffix + fileName.substring(dot);
         }
 
         @Override
@@ -0,0 +1,338 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.hdfswriter;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.wgzhao.addax.core.base.Constant;
+import com.wgzhao.addax.core.base.Key;
+import com.wgzhao.addax.core.element.Column;
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.exception.AddaxException;
+import com.wgzhao.addax.core.util.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.wgzhao.addax.core.spi.ErrorCode.CONVERT_NOT_SUPPORT;
+
+/**
+ * Writes the records straight to the parquet {@link RecordConsumer} by field index,
+ * the converter of each column is chosen once from its type instead of per cell.
+ */
+public class RecordWriteSupport
+        extends WriteSupport<Record>
+{
+    private static final Logger logger = LoggerFactory.getLogger(RecordWriteSupport.class.getName());
+    private static final int DECIMAL_BYTE_LENGTH = 16;
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final int JULIAN_EPOCH_OFFSET_DAYS = 2440588;
+    private static final long NANOS_PER_MILLISECOND = 1000000L;
+
+    private final MessageType schema;
+    private final String[] fieldNames;
+    private final String[] typeNames;
+    private final ValueWriter[] valueWriters;
+    private RecordConsumer recordConsumer;
+
+    public RecordWriteSupport(MessageType schema, List<Configuration> columns)
+    {
+        this.schema = schema;
+        int size = columns.size();
+        this.fieldNames = new String[size];
+        this.typeNames = new String[size];
+        this.valueWriters = new ValueWriter[size];
+        for (int i = 0; i < size; i++) {
+            fieldNames[i] = columns.get(i).getString(Key.NAME);
+            typeNames[i] = columns.get(i).getString(Key.TYPE).toUpperCase();
+            valueWriters[i] = createValueWriter(typeNames[i], columns.get(i));
+        }
+    }
+
+    public static Builder builder(OutputFile file, MessageType schema, List<Configuration> columns)
+    {
+        return new Builder(file, schema, columns);
+    }
+
+    @Override
+    public WriteContext init(org.apache.hadoop.conf.Configuration configuration)
+    {
+        return new WriteContext(schema, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer)
+    {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Record record)
+    {
+        recordConsumer.startMessage();
+        for (int i = 0; i < record.getColumnNumber(); i++) {
+            Column column = record.getColumn(i);
+            if (null == column || column.getRawData() == null) {
+                continue;
+            }
+            recordConsumer.startField(fieldNames[i], i);
+            try {
+                valueWriters[i].write(recordConsumer, column);
+            }
+            catch (RuntimeException e) {
+                // the record is half written already, so it can not be skipped as a dirty one
+                throw AddaxException.asAddaxException(CONVERT_NOT_SUPPORT,
+                        String.format("Failed to convert the value [%s] of the column [%s] to [%s]", column.asString(), fieldNames[i], typeNames[i]), e);
+            }
+            recordConsumer.endField(fieldNames[i], i);
+        }
+        recordConsumer.endMessage();
+    }
+
+    private static ValueWriter createValueWriter(String typename, Configuration colConfig)
+    {
+        if (typename.startsWith("ARRAY<")) {
+            return RecordWriteSupport::addArrayValue;
+        }
+        if (typename.startsWith("MAP<")) {
+            return RecordWriteSupport::addMapValue;
+        }
+        SupportHiveDataType columnType;
+        try {
+            columnType = SupportHiveDataType.valueOf(typename);
+        }
+        catch (IllegalArgumentException e) {
+            logger.warn("Convert type [{}] into string", typename);
+            return (consumer, column) -> consumer.addBinary(Binary.fromString(column.asString()));
+        }
+        switch (columnType) {
+            case INT, INTEGER -> {
+                return (consumer, column) -> consumer.addInteger(Integer.parseInt(column.getRawData().toString()));
+            }
+            case BIGINT, LONG -> {
+                return (consumer, column) -> consumer.addLong(column.asLong());
+            }
+            case FLOAT -> {
+                return (consumer, column) -> consumer.addFloat(column.asDouble().floatValue());
+            }
+            case DOUBLE -> {
+                return (consumer, column) -> consumer.addDouble(column.asDouble());
+            }
+            case BOOLEAN -> {
+                return (consumer, column) -> consumer.addBoolean(column.asBoolean());
+            }
+            case DECIMAL -> {
+                int scale = colConfig.getInt(Key.SCALE, Constant.DEFAULT_DECIMAL_MAX_SCALE);
+                return (consumer, column) -> consumer.addBinary(decimalToBinary(column.asString(), scale));
+            }
+            case TIMESTAMP -> {
+                return (consumer, column) -> consumer.addBinary(tsToBinary(column.asTimestamp()));
+            }
+            case DATE -> {
+                return (consumer, column) -> consumer.addInteger((int) Math.round(column.asLong() * 1.0 / MILLIS_PER_DAY));
+            }
+            default -> {
+                return (consumer, column) -> consumer.addBinary(Binary.fromString(column.asString()));
+            }
+        }
+    }
+
+    /**
+     * Writes a JSON array string, e.g. "['value1', 'value2', ...]", as a parquet list.
+     *
+     * @param consumer the record consumer of the file
+     * @param column the column containing the array data as a JSON string
+     */
+    private static void addArrayValue(RecordConsumer consumer, Column column)
+    {
+        JSONArray jsonArray = JSONArray.parseArray(column.asString());
+        consumer.startGroup();
+        if (!jsonArray.isEmpty()) {
+            consumer.startField("list", 0);
+            for (Object value : jsonArray) {
+                consumer.startGroup();
+                // keep null value as an empty element
+                if (value != null) {
+                    consumer.startField("element", 0);
+                    addPrimitiveValue(consumer, value);
+                    consumer.endField("element", 0);
+                }
+                consumer.endGroup();
+            }
+            consumer.endField("list", 0);
+        }
+        consumer.endGroup();
+    }
+
+    /**
+     * Writes a JSON object string, e.g. {'key1':'value1', 'key2':'value2', ...}, as a parquet map.
+     *
+     * @param consumer the record consumer of the file
+     * @param column the column containing the map data as a JSON string
+     */
+    private static void addMapValue(RecordConsumer consumer, Column column)
+    {
+        JSONObject jsonObject = JSONObject.parseObject(column.asString());
+        consumer.startGroup();
+        if (!jsonObject.isEmpty()) {
+            consumer.startField("key_value", 0);
+            for (Map.Entry<String, Object> entry : jsonObject.entrySet()) {
+                consumer.startGroup();
+                consumer.startField("key", 0);
+                consumer.addBinary(Binary.fromString(entry.getKey()));
+                consumer.endField("key", 0);
+                Object value = entry.getValue();
+                if (value != null) {
+                    consumer.startField("value", 1);
+                    addPrimitiveValue(consumer, value);
+                    consumer.endField("value", 1);
+                }
+                consumer.endGroup();
+            }
+            consumer.endField("key_value", 0);
+        }
+        consumer.endGroup();
+    }
+
+    private static void addPrimitiveValue(RecordConsumer consumer, Object value)
+    {
+        if (value instanceof Number number) {
+            if (value instanceof Integer || value instanceof Short) {
+                consumer.addInteger(number.intValue());
+            }
+            else if (value instanceof Long) {
+                consumer.addLong(number.longValue());
+            }
+            else if (value instanceof Float || value instanceof Double) {
+                consumer.addDouble(number.doubleValue());
+            }
+            else {
+                // BigDecimal
+                consumer.addBinary(Binary.fromString(value.toString()));
+            }
+        }
+        else if (value instanceof Boolean b) {
+            consumer.addBoolean(b);
+        }
+        else {
+            // string or other type
+            consumer.addBinary(Binary.fromString(value.toString()));
+        }
+    }
+
+    /**
+     * Convert timestamp to parquet INT96
+     *
+     * @param ts the {@link Timestamp} to convert
+     * @return {@link Binary}
+     */
+    private static Binary tsToBinary(Timestamp ts)
+    {
+        long millis = ts.getTime();
+        int julianDays = (int) (millis / MILLIS_PER_DAY) + JULIAN_EPOCH_OFFSET_DAYS;
+        long nanosOfDay = (millis % MILLIS_PER_DAY) * NANOS_PER_MILLISECOND;
+
+        // Write INT96 timestamp
+        byte[] timestampBuffer = new byte[12];
+        ByteBuffer buf = ByteBuffer.wrap(timestampBuffer);
+        buf.order(ByteOrder.LITTLE_ENDIAN).putLong(nanosOfDay).putInt(julianDays);
+
+        // This is the properly encoded INT96 timestamp
+        return Binary.fromConstantByteArray(timestampBuffer);
+    }
+
+    /**
+     * Convert Decimal to {@link Binary} using fixed 16 bytes array
+     *
+     * @param decimal the decimal value string to convert
+     * @param scale the desired scale
+     * @return {@link Binary}
+     */
+    private static Binary decimalToBinary(String decimal, int scale)
+    {
+        BigDecimal bigDecimal = new BigDecimal(decimal);
+        int realScale = bigDecimal.scale();
+        RoundingMode mode = scale >= realScale ? RoundingMode.UNNECESSARY : RoundingMode.HALF_UP;
+
+        byte[] decimalBytes = bigDecimal.setScale(scale, mode)
+                .unscaledValue()
+                .toByteArray();
+
+        // Preallocate fixed size array
+        byte[] fixedSizeBytes = new byte[DECIMAL_BYTE_LENGTH];
+
+        if (decimalBytes.length <= DECIMAL_BYTE_LENGTH) {
+            // Pad left with zeros (copy from right to left)
+            int destPos = DECIMAL_BYTE_LENGTH - decimalBytes.length;
+            System.arraycopy(decimalBytes, 0, fixedSizeBytes, destPos, decimalBytes.length);
+            return Binary.fromConstantByteArray(fixedSizeBytes);
+        }
+        else {
+            throw new IllegalArgumentException(String.format(
+                    "Decimal size: %d exceeds maximum allowed: %d",
+                    decimalBytes.length, DECIMAL_BYTE_LENGTH));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter
+    {
+        void write(RecordConsumer consumer, Column column);
+    }
+
+    public static class Builder
+            extends org.apache.parquet.hadoop.ParquetWriter.Builder<Record, Builder>
+    {
+        private final MessageType schema;
+        private final List<Configuration> columns;
+
+        private Builder(OutputFile file, MessageType schema, List<Configuration> columns)
+        {
+            super(file);
+            this.schema = schema;
+            this.columns = columns;
+        }
+
+        @Override
+        protected Builder self()
+        {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Record> getWriteSupport(org.apache.hadoop.conf.Configuration conf)
+        {
+            return new RecordWriteSupport(schema, columns);
+        }
+    }
+}
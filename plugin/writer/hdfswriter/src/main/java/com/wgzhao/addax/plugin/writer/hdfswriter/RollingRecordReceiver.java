@@ -0,0 +1,121 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.hdfswriter;
+
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.plugin.RecordReceiver;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Splits the records of a task into several files: the receiver of each file ends once the file
+ * holds {@code maxRows} records or {@code maxBytes} bytes of record data, the next file goes on from there.
+ * Only one file receiver reads at a time, {@link #nextFile()} and {@link #hasMore()} are called
+ * after the previous file has ended.
+ */
+public class RollingRecordReceiver
+{
+    private final RecordReceiver delegate;
+    private final long maxRows;
+    private final long maxBytes;
+    // the record read ahead by hasMore(), handed to the next file first
+    private Record pending = null;
+    private boolean exhausted = false;
+
+    public RollingRecordReceiver(RecordReceiver delegate, long maxRows, long maxBytes)
+    {
+        this.delegate = delegate;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+    }
+
+    public FileReceiver nextFile()
+    {
+        return new FileReceiver();
+    }
+
+    /**
+     * @return true if the reader still has records for another file
+     */
+    public boolean hasMore()
+    {
+        if (pending == null && !exhausted) {
+            pending = delegate.getFromReader();
+            exhausted = pending == null;
+        }
+        return pending != null;
+    }
+
+    public class FileReceiver
+            implements RecordReceiver
+    {
+        private final CompletableFuture<Void> ended = new CompletableFuture<>();
+        private long rows = 0;
+        private long bytes = 0;
+
+        /**
+         * @return a future completed when the file has got all its records
+         */
+        public CompletableFuture<Void> getEnded()
+        {
+            return ended;
+        }
+
+        @Override
+        public Record getFromReader()
+        {
+            if (ended.isDone()) {
+                return null;
+            }
+            if ((maxRows > 0 && rows >= maxRows) || (maxBytes > 0 && bytes >= maxBytes)) {
+                ended.complete(null);
+                return null;
+            }
+            Record record;
+            if (pending != null) {
+                record = pending;
+                pending = null;
+            }
+            else {
+                record = exhausted ? null : delegate.getFromReader();
+            }
+            if (record == null) {
+                exhausted = true;
+                ended.complete(null);
+                return null;
+            }
+            rows++;
+            bytes += record.getByteSize();
+            return record;
+        }
+
+        @Override
+        public void recycle(Record record)
+        {
+            delegate.recycle(record);
+        }
+
+        @Override
+        public void shutdown()
+        {
+            delegate.shutdown();
+        }
+    }
+}
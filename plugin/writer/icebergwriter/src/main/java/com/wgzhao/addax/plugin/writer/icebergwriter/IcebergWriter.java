@@ -32,11 +32,13 @@ import com.wgzhao.addax.core.util.Configuration;
 import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.OverwriteFiles;
 import org.apache.iceberg.PartitionKey;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.data.GenericAppenderFactory;
 import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.orc.GenericOrcWriter;
@@ -48,12 +50,15 @@ import org.apache.iceberg.io.FileAppenderFactory;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.io.OutputFileFactory;
 import org.apache.iceberg.io.PartitionedFanoutWriter;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.io.UnpartitionedWriter;
 import org.apache.iceberg.io.WriteResult;
 import org.apache.iceberg.orc.ORC;
 import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.types.TypeUtil;
 import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SerializationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +74,13 @@ import java.util.UUID;
 public class IcebergWriter
         extends Writer
 {
+    // `job` commits the files of all the tasks in one snapshot, `batch` (default) commits each batch of each task
+    private static final String COMMIT_MODE = "commitMode";
+    private static final String COMMIT_MODE_JOB = "job";
+    private static final String COMMIT_MODE_BATCH = "batch";
+    // the message key by which the tasks hand their data files over to the job
+    private static final String DATA_FILES_MESSAGE = "icebergDataFiles";
+
     public static class Job
             extends Writer.Job
     {
@@ -76,11 +88,13 @@ public class IcebergWriter
         private Configuration conf = null;
         private Catalog catalog = null;
         private String tableName = null;
+        private boolean jobCommit = false;
 
         @Override
         public void init()
         {
             this.conf = this.getPluginJobConf();
+            this.jobCommit = COMMIT_MODE_JOB.equalsIgnoreCase(conf.getString(COMMIT_MODE, COMMIT_MODE_BATCH));
             try {
                 this.catalog = IcebergHelper.getCatalog(conf);
             }
@@ -108,10 +122,39 @@ public class IcebergWriter
         public void prepare()
         {
             String writeMode = this.conf.getString("writeMode");
-            if ("truncate".equalsIgnoreCase(writeMode)) {
+            // in job commit mode, the old rows are replaced by the same commit adding the new files in post()
+            if ("truncate".equalsIgnoreCase(writeMode) && !jobCommit) {
                 Table table = catalog.loadTable(TableIdentifier.of(tableName.split("\\.")));
-                table.newDelete().deleteFromRowFilter(org.apache.iceberg.expressions.Expressions.alwaysTrue()).commit();
+                table.newDelete().deleteFromRowFilter(Expressions.alwaysTrue()).commit();
+            }
+        }
+
+        @Override
+        public void post()
+        {
+            if (!jobCommit) {
+                return;
             }
+            List<DataFile> dataFiles = new ArrayList<>();
+            List<String> messages = getJobPluginCollector().getMessage(DATA_FILES_MESSAGE);
+            if (messages != null) {
+                for (String message : messages) {
+                    DataFile[] files = SerializationUtil.deserializeFromBase64(message);
+                    dataFiles.addAll(Arrays.asList(files));
+                }
+            }
+            Table table = catalog.loadTable(TableIdentifier.of(tableName.split("\\.")));
+            if ("truncate".equalsIgnoreCase(this.conf.getString("writeMode"))) {
+                OverwriteFiles overwrite = table.newOverwrite().overwriteByRowFilter(Expressions.alwaysTrue());
+                dataFiles.forEach(overwrite::addFile);
+                overwrite.commit();
+            }
+            else if (!dataFiles.isEmpty()) {
+                AppendFiles appends = table.newAppend();
+                dataFiles.forEach(appends::appendFile);
+                appends.commit();
+            }
+            LOG.info("Committed {} data files to the table {} in one snapshot.", dataFiles.size(), tableName);
         }
 
         @Override
@@ -144,6 +187,9 @@ public class IcebergWriter
         private org.apache.iceberg.Schema schema = null;
         private String fileFormat = "parquet";
         private List<org.apache.iceberg.types.Types.NestedField> columnList = null;
+        private boolean jobCommit = false;
+        // in job commit mode, one writer rolls the files of the whole task by the target file size
+        private TaskWriter<org.apache.iceberg.data.Record> taskWriter = null;
 
         @Override
         public void startWrite(RecordReceiver recordReceiver)
@@ -152,17 +198,34 @@ public class IcebergWriter
             List<Record> writerBuffer = new ArrayList<>(this.batchSize);
             Record record;
             long total = 0;
-            while ((record = recordReceiver.getFromReader()) != null) {
-                writerBuffer.add(record);
-                if (writerBuffer.size() >= this.batchSize) {
+            try {
+                while ((record = recordReceiver.getFromReader()) != null) {
+                    writerBuffer.add(record);
+                    if (writerBuffer.size() >= this.batchSize) {
+                        total += doBatchInsert(writerBuffer);
+                        writerBuffer.clear();
+                    }
+                }
+
+                if (!writerBuffer.isEmpty()) {
                     total += doBatchInsert(writerBuffer);
                     writerBuffer.clear();
                 }
-            }
 
-            if (!writerBuffer.isEmpty()) {
-                total += doBatchInsert(writerBuffer);
-                writerBuffer.clear();
+                if (taskWriter != null) {
+                    DataFile[] dataFiles = taskWriter.complete().dataFiles();
+                    taskWriter = null;
+                    getTaskPluginCollector().collectMessage(DATA_FILES_MESSAGE, SerializationUtil.serializeToBase64(dataFiles));
+                    log.info("{} data files are written, they will be committed by the job.", dataFiles.length);
+                }
+            }
+            catch (IOException e) {
+                abortTaskWriter();
+                throw new UncheckedIOException(e);
+            }
+            catch (RuntimeException e) {
+                abortTaskWriter();
+                throw e;
             }
 
             String msg = String.format("task end, write size :%d", total);
@@ -176,6 +239,7 @@ public class IcebergWriter
             Configuration conf = super.getPluginJobConf();
 
             batchSize = conf.getInt("batchSize", 1000);
+            jobCommit = COMMIT_MODE_JOB.equalsIgnoreCase(conf.getString(COMMIT_MODE, COMMIT_MODE_BATCH));
 
             try {
                 this.catalog = IcebergHelper.getCatalog(conf);
@@ -204,6 +268,7 @@ public class IcebergWriter
         @Override
         public void destroy()
         {
+            abortTaskWriter();
             if (this.catalog != null) {
                 try {
                     if (this.catalog instanceof HiveCatalog) {
@@ -219,7 +284,23 @@ public class IcebergWriter
             }
         }
 
+        private void abortTaskWriter()
+        {
+            if (taskWriter == null) {
+                return;
+            }
+            try {
+                // delete the files written so far, nothing refers to them
+                taskWriter.abort();
+            }
+            catch (IOException e) {
+                log.warn("Failed to delete the uncommitted data files", e);
+            }
+            taskWriter = null;
+        }
+
         private long doBatchInsert(final List<Record> writerBuffer)
+                throws IOException
         {
             ImmutableList.Builder<GenericRecord> builder = ImmutableList.builder();
 
@@ -325,6 +406,16 @@ public class IcebergWriter
             }
             ImmutableList<GenericRecord> rows = builder.build();
 
+            if (jobCommit) {
+                if (taskWriter == null) {
+                    taskWriter = createTaskWriter();
+                }
+                for (GenericRecord row : rows) {
+                    taskWriter.write(row);
+                }
+                return rows.size();
+            }
+
             String filepath = table.location() + "/" + UUID.randomUUID();
             OutputFile file = table.io().newOutputFile(filepath);
 
@@ -368,48 +459,7 @@ public class IcebergWriter
                 table.newAppend().appendFile(dataFile).commit();
             }
             else {
-                Map<String, String> tableProps = Maps.newHashMap(table.properties());
-                long targetFileSize =
-                        PropertyUtil.propertyAsLong(
-                                tableProps,
-                                TableProperties.WRITE_TARGET_FILE_SIZE_BYTES,
-                                TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
-
-                int partitionId = 1, taskId = 1;
-                FileFormat fileFormatIntance = FileFormat.PARQUET;
-                if ("orc".equals(fileFormat)) {
-                    fileFormatIntance = FileFormat.ORC;
-                }
-                Set<Integer> identifierFieldIds = table.schema().identifierFieldIds();
-                FileAppenderFactory<org.apache.iceberg.data.Record> appenderFactory;
-                if (identifierFieldIds == null || identifierFieldIds.isEmpty()) {
-                    appenderFactory =
-                            new GenericAppenderFactory(table.schema(), table.spec(), null, null, null)
-                                    .setAll(tableProps);
-                }
-                else {
-                    appenderFactory =
-                            new GenericAppenderFactory(
-                                    table.schema(),
-                                    table.spec(),
-                                    Ints.toArray(identifierFieldIds),
-                                    TypeUtil.select(table.schema(), Sets.newHashSet(identifierFieldIds)),
-                                    null)
-                                    .setAll(tableProps);
-                }
-                OutputFileFactory outputFileFactory = OutputFileFactory.builderFor(table, partitionId, taskId).format(fileFormatIntance).build();
-                final PartitionKey partitionKey = new PartitionKey(table.spec(), table.spec().schema());
-                // partitionedFanoutWriter will auto partitioned record and create the partitioned writer
-                PartitionedFanoutWriter<org.apache.iceberg.data.Record> partitionedFanoutWriter = new PartitionedFanoutWriter<org.apache.iceberg.data.Record>(table.spec(), fileFormatIntance, appenderFactory, outputFileFactory, table.io(), targetFileSize)
-                {
-                    @Override
-                    protected PartitionKey partition(org.apache.iceberg.data.Record record)
-                    {
-                        partitionKey.partition(record);
-                        return partitionKey;
-                    }
-                };
-
+                TaskWriter<org.apache.iceberg.data.Record> partitionedFanoutWriter = createTaskWriter();
                 rows.forEach(
                         row -> {
                             try {
@@ -438,5 +488,57 @@ public class IcebergWriter
             }
             return rows.size();
         }
+
+        /**
+         * Create a writer rolling to a new file when the current one reaches {@code write.target-file-size-bytes},
+         * and keeping one file per partition for a partitioned table.
+         */
+        private TaskWriter<org.apache.iceberg.data.Record> createTaskWriter()
+        {
+            Map<String, String> tableProps = Maps.newHashMap(table.properties());
+            long targetFileSize =
+                    PropertyUtil.propertyAsLong(
+                            tableProps,
+                            TableProperties.WRITE_TARGET_FILE_SIZE_BYTES,
+                            TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
+
+            FileFormat fileFormatIntance = FileFormat.PARQUET;
+            if ("orc".equals(fileFormat)) {
+                fileFormatIntance = FileFormat.ORC;
+            }
+            Set<Integer> identifierFieldIds = table.schema().identifierFieldIds();
+            FileAppenderFactory<org.apache.iceberg.data.Record> appenderFactory;
+            if (identifierFieldIds == null || identifierFieldIds.isEmpty()) {
+                appenderFactory =
+                        new GenericAppenderFactory(table.schema(), table.spec(), null, null, null)
+                                .setAll(tableProps);
+            }
+            else {
+                appenderFactory =
+                        new GenericAppenderFactory(
+                                table.schema(),
+                                table.spec(),
+                                Ints.toArray(identifierFieldIds),
+                                TypeUtil.select(table.schema(), Sets.newHashSet(identifierFieldIds)),
+                                null)
+                                .setAll(tableProps);
+            }
+            // the task id keeps the file names of the tasks apart
+            OutputFileFactory outputFileFactory = OutputFileFactory.builderFor(table, getTaskId(), getTaskId()).format(fileFormatIntance).build();
+            if (table.spec().isUnpartitioned()) {
+                return new UnpartitionedWriter<>(table.spec(), fileFormatIntance, appenderFactory, outputFileFactory, table.io(), targetFileSize);
+            }
+            final PartitionKey partitionKey = new PartitionKey(table.spec(), table.spec().schema());
+            // partitionedFanoutWriter will auto partitioned record and create the partitioned writer
+            return new PartitionedFanoutWriter<org.apache.iceberg.data.Record>(table.spec(), fileFormatIntance, appenderFactory, outputFileFactory, table.io(), targetFileSize)
+            {
+                @Override
+                protected PartitionKey partition(org.apache.iceberg.data.Record record)
+                {
+                    partitionKey.partition(record);
+                    return partitionKey;
+                }
+            };
+        }
     }
 }
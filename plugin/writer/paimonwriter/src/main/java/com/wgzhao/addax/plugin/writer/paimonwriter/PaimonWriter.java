@@ -21,6 +21,7 @@ package com.wgzhao.addax.plugin.writer.paimonwriter;
 
 import com.alibaba.fastjson2.JSON;
 import com.wgzhao.addax.core.element.Column;
+import com.wgzhao.addax.core.exception.AddaxException;
 import com.wgzhao.addax.core.element.Record;
 import com.wgzhao.addax.core.plugin.RecordReceiver;
 import com.wgzhao.addax.core.spi.Writer;
@@ -32,39 +33,60 @@ import org.apache.paimon.catalog.CatalogFactory;
 import org.apache.paimon.catalog.Identifier;
 import org.apache.paimon.data.*;
 import org.apache.paimon.options.Options;
+import org.apache.paimon.table.FileStoreTable;
 import org.apache.paimon.table.Table;
 import org.apache.paimon.table.sink.BatchTableCommit;
 import org.apache.paimon.table.sink.BatchTableWrite;
 import org.apache.paimon.table.sink.BatchWriteBuilder;
 import org.apache.paimon.table.sink.CommitMessage;
+import org.apache.paimon.table.sink.KeyAndBucketExtractor;
 import org.apache.paimon.types.DataField;
 import org.apache.paimon.types.DataType;
 import org.apache.paimon.types.DataTypeRoot;
 import org.apache.paimon.types.DecimalType;
+import org.apache.paimon.utils.InstantiationUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
 import static com.wgzhao.addax.core.base.Key.KERBEROS_KEYTAB_FILE_PATH;
 import static com.wgzhao.addax.core.base.Key.KERBEROS_PRINCIPAL;
+import static com.wgzhao.addax.core.spi.ErrorCode.CONFIG_ERROR;
 
 public class PaimonWriter
         extends Writer
 {
+    // `job` (default) commits the writes of all the tasks at once, `batch` commits each batch of each task
+    private static final String COMMIT_MODE = "commitMode";
+    private static final String COMMIT_MODE_JOB = "job";
+    private static final String COMMIT_MODE_BATCH = "batch";
+    // the message key by which the tasks hand their commit messages over to the job
+    private static final String COMMIT_MESSAGES = "paimonCommitMessages";
+
+    // a primary key table with bucket = -1 has dynamic buckets, which the writer has to choose
+    private static boolean isDynamicBucketTable(Table table)
+    {
+        return "-1".equals(table.options().getOrDefault("bucket", "-1")) && !table.primaryKeys().isEmpty();
+    }
+
     public static class Job
             extends Writer.Job
     {
         private static final Logger LOG = LoggerFactory.getLogger(Job.class);
         private Configuration conf = null;
         private BatchWriteBuilder writeBuilder = null;
+        private boolean jobCommit = false;
+        private boolean dynamicBucket = false;
 
         @Override
         public void init()
         {
             this.conf = this.getPluginJobConf();
+            this.jobCommit = COMMIT_MODE_JOB.equalsIgnoreCase(conf.getString(COMMIT_MODE, COMMIT_MODE_JOB));
 
             Options options = PaimonHelper.getOptions(this.conf);
             CatalogContext context = PaimonHelper.getCatalogContext(options);
@@ -92,12 +114,20 @@ public class PaimonWriter
 
                 Table table = catalog.getTable(identifier);
 
+                dynamicBucket = isDynamicBucketTable(table);
                 writeBuilder = table.newBatchWriteBuilder();
             }
             catch (Exception e) {
                 LOG.error("init paimon error", e);
                 throw new RuntimeException(e);
             }
+            // paimon finds the bucket of a key already written through its hash index, which only works when all the rows
+            // of a key go to one writer, the tasks can not ensure it, so a key could be written twice in different buckets
+            if (jobCommit && dynamicBucket) {
+                throw AddaxException.asAddaxException(CONFIG_ERROR,
+                        "The table [" + this.conf.getString("tableName") + "] has dynamic buckets (bucket = -1), which the job commit mode "
+                                + "does not support. Please set a fixed bucket number for the table, or set commitMode to batch.");
+            }
         }
 
         @Override
@@ -114,7 +144,8 @@ public class PaimonWriter
         public void prepare()
         {
             String writeMode = this.conf.getString("writeMode");
-            if ("truncate".equalsIgnoreCase(writeMode)) {
+            // in job commit mode, the overwrite is done by the commit of the new data in post()
+            if ("truncate".equalsIgnoreCase(writeMode) && !jobCommit) {
                 if (writeBuilder != null) {
                     LOG.info("You specify truncate writeMode, begin to clean history data.");
                     BatchTableWrite write = writeBuilder.withOverwrite().newWrite();
@@ -131,6 +162,36 @@ public class PaimonWriter
             }
         }
 
+        @Override
+        public void post()
+        {
+            if (!jobCommit) {
+                return;
+            }
+            List<CommitMessage> messages = new ArrayList<>();
+            List<String> taskMessages = getJobPluginCollector().getMessage(COMMIT_MESSAGES);
+            try {
+                if (taskMessages != null) {
+                    for (String taskMessage : taskMessages) {
+                        List<CommitMessage> list = InstantiationUtil.deserializeObject(Base64.getDecoder().decode(taskMessage),
+                                Thread.currentThread().getContextClassLoader());
+                        messages.addAll(list);
+                    }
+                }
+                if ("truncate".equalsIgnoreCase(this.conf.getString("writeMode"))) {
+                    writeBuilder.withOverwrite();
+                }
+                try (BatchTableCommit commit = writeBuilder.newCommit()) {
+                    commit.commit(messages);
+                }
+            }
+            catch (Exception e) {
+                LOG.error("commit paimon error", e);
+                throw new RuntimeException(e);
+            }
+            LOG.info("Committed the {} commit messages of all the tasks at once.", messages.size());
+        }
+
         @Override
         public void destroy()
         {
@@ -149,6 +210,11 @@ public class PaimonWriter
         private List<DataType> typeList = new ArrayList<>();
         private boolean isDynamicBucketMode;
         private int bucketNum = 0;
+        private boolean jobCommit = false;
+        // extracts the primary key of a row to choose its bucket in dynamic bucket mode
+        private KeyAndBucketExtractor<InternalRow> keyExtractor = null;
+        // in job commit mode, one write serves the whole task
+        private BatchTableWrite taskWrite = null;
 
         @Override
         public void startWrite(RecordReceiver recordReceiver)
@@ -170,6 +236,20 @@ public class PaimonWriter
                 writerBuffer.clear();
             }
 
+            if (taskWrite != null) {
+                try {
+                    List<CommitMessage> messages = taskWrite.prepareCommit();
+                    getTaskPluginCollector().collectMessage(COMMIT_MESSAGES,
+                            Base64.getEncoder().encodeToString(InstantiationUtil.serializeObject(new ArrayList<>(messages))));
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                finally {
+                    closeTaskWrite();
+                }
+            }
+
             String msg = String.format("task end, write size :%d", total);
             getTaskPluginCollector().collectMessage("writeSize", String.valueOf(total));
             log.info(msg);
@@ -181,6 +261,7 @@ public class PaimonWriter
             Configuration conf = super.getPluginJobConf();
 
             batchSize = conf.getInt("batchSize", 1000);
+            jobCommit = COMMIT_MODE_JOB.equalsIgnoreCase(conf.getString(COMMIT_MODE, COMMIT_MODE_JOB));
 
             Options options = PaimonHelper.getOptions(conf);
             CatalogContext context = PaimonHelper.getCatalogContext(options);
@@ -206,22 +287,24 @@ public class PaimonWriter
 
                 Table table = catalog.getTable(identifier);
 
-                // check the table has dynamic bucket
-                Map<String, String> tableOptions = table.options();
-                String bucketMode = tableOptions.getOrDefault("bucket-mode", "dynamic");
-                this.isDynamicBucketMode = "dynamic".equalsIgnoreCase(bucketMode);
-                String bucketNumStr = tableOptions.getOrDefault("bucket", "32");
-                if (bucketNumStr != null && !bucketNumStr.isEmpty()) {
+                // the tables other than the dynamic bucket ones get the bucket from their own key based bucket function in write(row)
+                this.isDynamicBucketMode = isDynamicBucketTable(table);
+                if (isDynamicBucketMode) {
+                    String bucketNumStr = table.options().getOrDefault("dynamic-bucket.initial-buckets", "32");
                     try {
                         this.bucketNum = Integer.parseInt(bucketNumStr);
-                    } catch (NumberFormatException e) {
+                    }
+                    catch (NumberFormatException e) {
                         log.warn("Can not parse the bucket number: {}", bucketNumStr);
+                        this.bucketNum = 32;
                     }
+                    this.keyExtractor = ((FileStoreTable) table).createRowKeyExtractor();
                 }
 
                 columnList = table.rowType().getFields();
                 typeList = table.rowType().getFieldTypes();
-                writeBuilder = table.newBatchWriteBuilder().withOverwrite();
+                // the truncate is done once, by the job, each batch only appends
+                writeBuilder = table.newBatchWriteBuilder();
             }
             catch (Exception e) {
                 log.error("init paimon error", e);
@@ -232,12 +315,29 @@ public class PaimonWriter
         @Override
         public void destroy()
         {
+            closeTaskWrite();
+        }
 
+        private void closeTaskWrite()
+        {
+            if (taskWrite == null) {
+                return;
+            }
+            try {
+                taskWrite.close();
+            }
+            catch (Exception e) {
+                log.warn("close paimon write error", e);
+            }
+            taskWrite = null;
         }
 
         private long doBatchInsert(final List<Record> writerBuffer)
         {
-            BatchTableWrite write = writeBuilder.newWrite();
+            if (jobCommit && taskWrite == null) {
+                taskWrite = writeBuilder.newWrite();
+            }
+            BatchTableWrite write = jobCommit ? taskWrite : writeBuilder.newWrite();
             GenericRow data;
             for (Record record : writerBuffer) {
                 data = new GenericRow(columnList.size());
@@ -327,9 +427,13 @@ public class PaimonWriter
 
                 try {
                     if (isDynamicBucketMode) {
-                        int bucketId = Math.abs(data.hashCode() % bucketNum);
+                        // only in batch commit mode: hash the primary key over the initial buckets, the hash index of the keys
+                        // already written is not looked up, so such a key may get a second copy in another bucket
+                        keyExtractor.setRecord(data);
+                        int bucketId = KeyAndBucketExtractor.bucket(keyExtractor.trimmedPrimaryKey().hashCode(), bucketNum);
                         write.write(data, bucketId);
-                    } else {
+                    }
+                    else {
                         write.write(data);
                     }
                 }
@@ -338,6 +442,10 @@ public class PaimonWriter
                 }
             }
 
+            if (jobCommit) {
+                return writerBuffer.size();
+            }
+
             List<CommitMessage> messages = null;
             try {
                 messages = write.prepareCommit();
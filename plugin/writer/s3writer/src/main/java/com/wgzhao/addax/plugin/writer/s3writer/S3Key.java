@@ -38,6 +38,9 @@ public class S3Key extends Key
     // unit: MB
     public static final String MAX_FILE_SIZE = "maxFileSize";
 
+    // the number of the parts of an object uploaded at the same time
+    public static final String UPLOAD_CONCURRENCY = "uploadConcurrency";
+
     public static final String DEFAULT_SUFFIX = "defaultSuffix";
 
     public static final String PATH_STYLE_ACCESS_ENABLED = "pathStyleAccessEnabled";
@@ -216,6 +216,7 @@ public class S3Writer
         private String dateFormat;
         private List<String> header;
         private int maxFileSize;// MB
+        private int uploadConcurrency;
         private String fileType;
         private String sslEnabled;
 
@@ -235,6 +236,7 @@ public class S3Writer
             // unit MB
             int DEFAULT_MAX_FILE_SIZE = 10 * 10000;
             this.maxFileSize = writerSliceConfig.getInt(S3Key.MAX_FILE_SIZE, DEFAULT_MAX_FILE_SIZE);
+            this.uploadConcurrency = writerSliceConfig.getInt(S3Key.UPLOAD_CONCURRENCY, 4);
 
             this.fileType = writerSliceConfig.getString(S3Key.FILE_TYPE, "text");
             this.sslEnabled = writerSliceConfig.getString(S3Key.SSL_ENABLED, "true");
@@ -253,7 +255,8 @@ public class S3Writer
                         .setObject(this.object)
                         .setS3Client(this.s3Client)
                         .setFieldDelimiter(this.fieldDelimiter)
-                        .setMaxFileSize(this.maxFileSize);
+                        .setMaxFileSize(this.maxFileSize)
+                        .setUploadConcurrency(this.uploadConcurrency);
                 textWriter.write(lineReceiver, this.getPluginJobConf(), this.getTaskPluginCollector());
             }
             else if ("orc".equals(this.fileType)) {
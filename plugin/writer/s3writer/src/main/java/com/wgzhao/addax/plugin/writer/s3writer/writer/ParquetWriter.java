@@ -21,7 +21,6 @@ package com.wgzhao.addax.plugin.writer.s3writer.writer;
 
 import com.wgzhao.addax.core.base.Constant;
 import com.wgzhao.addax.core.base.Key;
-import com.wgzhao.addax.core.element.Column;
 import com.wgzhao.addax.core.element.Record;
 import com.wgzhao.addax.core.plugin.RecordReceiver;
 import com.wgzhao.addax.core.plugin.TaskPluginCollector;
@@ -33,24 +32,14 @@ import org.apache.hadoop.fs.Path;
 import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.avro.AvroWriteSupport;
 import org.apache.parquet.column.ParquetProperties;
-import org.apache.parquet.example.data.Group;
-import org.apache.parquet.example.data.simple.SimpleGroupFactory;
-import org.apache.parquet.hadoop.example.ExampleParquetWriter;
-import org.apache.parquet.hadoop.example.GroupWriteSupport;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.hadoop.util.HadoopOutputFile;
-import org.apache.parquet.io.api.Binary;
 import org.apache.parquet.schema.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.services.s3.S3Client;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.sql.Timestamp;
 import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
@@ -231,11 +220,10 @@ public class ParquetWriter
         decimalSupport.addLogicalTypeConversion(new Conversions.DecimalConversion());
         hadoopConf.setBoolean(AvroReadSupport.READ_INT96_AS_FIXED, true);
         hadoopConf.setBoolean(AvroWriteSupport.WRITE_FIXED_AS_INT96, true);
-        GroupWriteSupport.setSchema(s, hadoopConf);
         Map<String, String> extraMeta = new HashMap<>();
         // hive need timezone info to handle timestamp
         extraMeta.put("writer.time.zone", ZoneId.systemDefault().toString());
-        try (org.apache.parquet.hadoop.ParquetWriter<Group> writer = ExampleParquetWriter.builder(HadoopOutputFile.fromPath(path, hadoopConf))
+        try (org.apache.parquet.hadoop.ParquetWriter<Record> writer = RecordWriteSupport.builder(HadoopOutputFile.fromPath(path, hadoopConf), s, columns)
                 .withCompressionCodec(codecName)
                 .withConf(hadoopConf)
                 .enableDictionaryEncoding()
@@ -245,12 +233,9 @@ public class ParquetWriter
                 .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
                 .withExtraMetaData(extraMeta)
                 .build()) {
-            SimpleGroupFactory simpleGroupFactory = new SimpleGroupFactory(s);
-            Group group;
             Record record;
             while ((record = lineReceiver.getFromReader()) != null) {
-                group = buildRecord(record, columns, taskPluginCollector, simpleGroupFactory);
-                writer.write(group);
+                writer.write(record);
             }
         }
         catch (IOException e) {
@@ -258,113 +243,6 @@ public class ParquetWriter
         }
     }
 
-    public Group buildRecord(
-            Record record, List<Configuration> columns,
-            TaskPluginCollector taskPluginCollector, SimpleGroupFactory simpleGroupFactory)
-    {
-        Column column;
-        Group group = simpleGroupFactory.newGroup();
-        for (int i = 0; i < record.getColumnNumber(); i++) {
-            column = record.getColumn(i);
-            String colName = columns.get(i).getString(Key.NAME);
-            String typename = columns.get(i).getString(Key.TYPE).toUpperCase();
-            if (null == column || column.getRawData() == null) {
-                continue;
-            }
-            SupportHiveDataType columnType = SupportHiveDataType.valueOf(typename);
-            switch (columnType) {
-                case INT:
-                case INTEGER:
-                    group.append(colName, Integer.parseInt(column.getRawData().toString()));
-                    break;
-                case BIGINT:
-                case LONG:
-                    group.append(colName, column.asLong());
-                    break;
-                case FLOAT:
-                    group.append(colName, column.asDouble().floatValue());
-                    break;
-                case DOUBLE:
-                    group.append(colName, column.asDouble());
-                    break;
-                case STRING:
-                    group.append(colName, column.asString());
-                    break;
-                case BOOLEAN:
-                    group.append(colName, column.asBoolean());
-                    break;
-                case DECIMAL:
-                    int scale = columns.get(i).getInt(Key.SCALE, Constant.DEFAULT_DECIMAL_MAX_SCALE);
-                    group.append(colName, decimalToBinary(column.asString(), scale));
-                    break;
-                case TIMESTAMP:
-                    group.append(colName, tsToBinary(column.asTimestamp()));
-                    break;
-                case DATE:
-                    group.append(colName, (int) Math.round(column.asLong() * 1.0 / 86400000));
-                    break;
-                default:
-                    logger.debug("convert type[{}] into string", column.getType());
-                    group.append(colName, column.asString());
-                    break;
-            }
-        }
-        return group;
-    }
-
-    /**
-     * convert timestamp to parquet INT96
-     *
-     * @param ts the {@link Timestamp} want to convert
-     * @return {@link Binary}
-     */
-    private Binary tsToBinary(Timestamp ts)
-    {
-        long millis = ts.getTime();
-        int julianDays = (int) (millis / 86400000L) + 2440588;
-        long nanosOfDay = (millis % 86400000L) * 1000000L;
-
-        // Write INT96 timestamp
-        byte[] timestampBuffer = new byte[12];
-        ByteBuffer buf = ByteBuffer.wrap(timestampBuffer);
-        buf.order(ByteOrder.LITTLE_ENDIAN).putLong(nanosOfDay).putInt(julianDays).flip();
-
-        // This is the properly encoded INT96 timestamp
-        return Binary.fromReusedByteArray(timestampBuffer);
-    }
-
-    /**
-     * convert Decimal to {@link Binary} using fix 16 bytes array
-     *
-     * @param bigDecimal the decimal value string want to convert
-     * @return {@link Binary}
-     */
-    private Binary decimalToBinary(String bigDecimal, int scale)
-    {
-        int realScale = new BigDecimal(bigDecimal).scale();
-        RoundingMode mode = scale >= realScale ? RoundingMode.UNNECESSARY : RoundingMode.HALF_UP;
-        byte[] decimalBytes = new BigDecimal(bigDecimal)
-                .setScale(scale, mode)
-                .unscaledValue()
-                .toByteArray();
-
-        byte[] myDecimalBuffer = new byte[16];
-        if (myDecimalBuffer.length >= decimalBytes.length) {
-            //Because we set our fixed byte array size as 16 bytes, we need to
-            //pad-left our original value's bytes with zeros
-            int myDecimalBufferIndex = myDecimalBuffer.length - 1;
-            for (int i = decimalBytes.length - 1; i >= 0; i--) {
-                myDecimalBuffer[myDecimalBufferIndex] = decimalBytes[i];
-                myDecimalBufferIndex--;
-            }
-            return Binary.fromConstantByteArray(myDecimalBuffer);
-        }
-        else {
-            throw new IllegalArgumentException(String.format("Decimal size: %d was greater than the allowed max: %d",
-                    decimalBytes.length, myDecimalBuffer.length));
-        }
-    }
-
     private MessageType generateParquetSchema(List<Configuration> columns)
     {
         String type;
@@ -0,0 +1,218 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.s3writer.writer;
+
+import com.wgzhao.addax.core.base.Constant;
+import com.wgzhao.addax.core.base.Key;
+import com.wgzhao.addax.core.element.Column;
+import com.wgzhao.addax.core.element.Record;
+import com.wgzhao.addax.core.util.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes the records straight to the parquet {@link RecordConsumer} by field index,
+ * the converter of each column is chosen once from its type instead of per cell.
+ */
+public class RecordWriteSupport
+        extends WriteSupport<Record>
+{
+    private static final Logger logger = LoggerFactory.getLogger(RecordWriteSupport.class.getName());
+
+    private final MessageType schema;
+    private final String[] fieldNames;
+    private final ValueWriter[] valueWriters;
+    private RecordConsumer recordConsumer;
+
+    public RecordWriteSupport(MessageType schema, List<Configuration> columns)
+    {
+        this.schema = schema;
+        int size = columns.size();
+        this.fieldNames = new String[size];
+        this.valueWriters = new ValueWriter[size];
+        for (int i = 0; i < size; i++) {
+            fieldNames[i] = columns.get(i).getString(Key.NAME);
+            valueWriters[i] = createValueWriter(columns.get(i));
+        }
+    }
+
+    public static Builder builder(OutputFile file, MessageType schema, List<Configuration> columns)
+    {
+        return new Builder(file, schema, columns);
+    }
+
+    @Override
+    public WriteContext init(org.apache.hadoop.conf.Configuration configuration)
+    {
+        return new WriteContext(schema, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer)
+    {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Record record)
+    {
+        recordConsumer.startMessage();
+        for (int i = 0; i < record.getColumnNumber(); i++) {
+            Column column = record.getColumn(i);
+            if (null == column || column.getRawData() == null) {
+                continue;
+            }
+            recordConsumer.startField(fieldNames[i], i);
+            valueWriters[i].write(recordConsumer, column);
+            recordConsumer.endField(fieldNames[i], i);
+        }
+        recordConsumer.endMessage();
+    }
+
+    private static ValueWriter createValueWriter(Configuration colConfig)
+    {
+        String typename = colConfig.getString(Key.TYPE).toUpperCase();
+        SupportHiveDataType columnType = SupportHiveDataType.valueOf(typename);
+        switch (columnType) {
+            case INT:
+            case INTEGER:
+                return (consumer, column) -> consumer.addInteger(Integer.parseInt(column.getRawData().toString()));
+            case BIGINT:
+            case LONG:
+                return (consumer, column) -> consumer.addLong(column.asLong());
+            case FLOAT:
+                return (consumer, column) -> consumer.addFloat(column.asDouble().floatValue());
+            case DOUBLE:
+                return (consumer, column) -> consumer.addDouble(column.asDouble());
+            case STRING:
+                return (consumer, column) -> consumer.addBinary(Binary.fromString(column.asString()));
+            case BOOLEAN:
+                return (consumer, column) -> consumer.addBoolean(column.asBoolean());
+            case DECIMAL:
+                int scale = colConfig.getInt(Key.SCALE, Constant.DEFAULT_DECIMAL_MAX_SCALE);
+                return (consumer, column) -> consumer.addBinary(decimalToBinary(column.asString(), scale));
+            case TIMESTAMP:
+                return (consumer, column) -> consumer.addBinary(tsToBinary(column.asTimestamp()));
+            case DATE:
+                return (consumer, column) -> consumer.addInteger((int) Math.round(column.asLong() * 1.0 / 86400000));
+            default:
+                logger.debug("convert type[{}] into string", typename);
+                return (consumer, column) -> consumer.addBinary(Binary.fromString(column.asString()));
+        }
+    }
+
+    /**
+     * convert timestamp to parquet INT96
+     *
+     * @param ts the {@link Timestamp} want to convert
+     * @return {@link Binary}
+     */
+    private static Binary tsToBinary(Timestamp ts)
+    {
+        long millis = ts.getTime();
+        int julianDays = (int) (millis / 86400000L) + 2440588;
+        long nanosOfDay = (millis % 86400000L) * 1000000L;
+
+        // Write INT96 timestamp
+        byte[] timestampBuffer = new byte[12];
+        ByteBuffer buf = ByteBuffer.wrap(timestampBuffer);
+        buf.order(ByteOrder.LITTLE_ENDIAN).putLong(nanosOfDay).putInt(julianDays).flip();
+
+        // This is the properly encoded INT96 timestamp
+        return Binary.fromConstantByteArray(timestampBuffer);
+    }
+
+    /**
+     * convert Decimal to {@link Binary} using fix 16 bytes array
+     *
+     * @param bigDecimal the decimal value string want to convert
+     * @return {@link Binary}
+     */
+    private static Binary decimalToBinary(String bigDecimal, int scale)
+    {
+        int realScale = new BigDecimal(bigDecimal).scale();
+        RoundingMode mode = scale >= realScale ? RoundingMode.UNNECESSARY : RoundingMode.HALF_UP;
+        byte[] decimalBytes = new BigDecimal(bigDecimal)
+                .setScale(scale, mode)
+                .unscaledValue()
+                .toByteArray();
+
+        byte[] myDecimalBuffer = new byte[16];
+        if (myDecimalBuffer.length >= decimalBytes.length) {
+            //Because we set our fixed byte array size as 16 bytes, we need to
+            //pad-left our original value's bytes with zeros
+            int myDecimalBufferIndex = myDecimalBuffer.length - 1;
+            for (int i = decimalBytes.length - 1; i >= 0; i--) {
+                myDecimalBuffer[myDecimalBufferIndex] = decimalBytes[i];
+                myDecimalBufferIndex--;
+            }
+            return Binary.fromConstantByteArray(myDecimalBuffer);
+        }
+        else {
+            throw new IllegalArgumentException(String.format("Decimal size: %d was greater than the allowed max: %d",
+                    decimalBytes.length, myDecimalBuffer.length));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter
+    {
+        void write(RecordConsumer consumer, Column column);
+    }
+
+    public static class Builder
+            extends org.apache.parquet.hadoop.ParquetWriter.Builder<Record, Builder>
+    {
+        private final MessageType schema;
+        private final List<Configuration> columns;
+
+        private Builder(OutputFile file, MessageType schema, List<Configuration> columns)
+        {
+            super(file);
+            this.schema = schema;
+            this.columns = columns;
+        }
+
+        @Override
+        protected Builder self()
+        {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Record> getWriteSupport(org.apache.hadoop.conf.Configuration conf)
+        {
+            return new RecordWriteSupport(schema, columns);
+        }
+    }
+}
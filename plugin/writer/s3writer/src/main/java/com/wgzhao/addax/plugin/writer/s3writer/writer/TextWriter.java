@@ -27,8 +27,11 @@ import com.wgzhao.addax.core.plugin.TaskPluginCollector;
 import com.wgzhao.addax.core.util.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
@@ -36,13 +39,23 @@ import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.wgzhao.addax.core.spi.ErrorCode.IO_ERROR;
 
@@ -50,6 +63,10 @@ public class TextWriter
         implements IFormatWriter
 {
     private static final Logger LOG = LoggerFactory.getLogger(TextWriter.class);
+    // the times a part is tried before the upload is given up
+    private static final int MAX_PART_ATTEMPTS = 3;
+    // the time to wait for the parts still uploading to stop before the upload is aborted
+    private static final int UPLOAD_STOP_TIMEOUT_SECONDS = 60;
     private char fieldDelimiter;
     private String nullFormat;
     private String dateFormat;
@@ -57,6 +74,7 @@ public class TextWriter
     private String bucket;
     private String object;
     private int maxFileSize;
+    private int uploadConcurrency = 1;
     private List<String> header;
     private S3Client s3Client;
 
@@ -141,6 +159,17 @@ public class TextWriter
         return this;
     }
 
+    public int getUploadConcurrency()
+    {
+        return uploadConcurrency;
+    }
+
+    public TextWriter setUploadConcurrency(int uploadConcurrency)
+    {
+        this.uploadConcurrency = Math.max(1, uploadConcurrency);
+        return this;
+    }
+
     public List<String> getHeader()
     {
         return header;
@@ -177,10 +206,10 @@ public class TextWriter
         final int partSize = 1024 * 1024 * 10;
         long numberCalc = (this.maxFileSize * 1024 * 1024L) / partSize;
         final long maxPartNumber = numberCalc >= 1 ? numberCalc : 1;
-        //warn: may be StringBuffer->StringBuilder
         Record record;
 
-        LOG.info("Begin do write, each object's max file size is {}MB...", maxPartNumber * 10);
+        LOG.info("Begin do write, each object's max file size is {}MB, upload {} part(s) at the same time...",
+                maxPartNumber * 10, uploadConcurrency);
         // First create a multipart upload and get the upload id
         CreateMultipartUploadRequest createMultipartUploadRequest = CreateMultipartUploadRequest.builder()
                 .bucket(bucket)
@@ -189,74 +218,162 @@ public class TextWriter
         CreateMultipartUploadResponse response = s3Client.createMultipartUpload(createMultipartUploadRequest);
         String uploadId = response.uploadId();
         int currPart = 1;
-        List<CompletedPart> completedParts = new ArrayList<>();
+        List<Future<CompletedPart>> uploads = new ArrayList<>();
 
-        UploadPartRequest uploadPartRequest;
-        uploadPartRequest = UploadPartRequest.builder()
-                .bucket(bucket)
-                .key(object)
-                .uploadId(uploadId)
-                .partNumber(currPart).build();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // the parts are uploaded in the background, a full buffer goes back to the pool once its part is uploaded
+        ExecutorService executor = Executors.newFixedThreadPool(uploadConcurrency);
+        AtomicReference<Exception> uploadFailure = new AtomicReference<>();
+        PartBufferPool freeBuffers = new PartBufferPool(uploadConcurrency + 1, uploadFailure);
         Charset charset = Charset.forName(encoding);
-        boolean needInit = true;
-        while ((record = lineReceiver.getFromReader()) != null) {
-            try {
-                if (needInit && !header.isEmpty()) {
+        byte[] lineSeparator = "\n".getBytes(charset);
+        try {
+            PartBuffer outputStream = freeBuffers.take();
+            // the header goes with the first record, so that no object is created without any record
+            boolean needHeader = header != null && !header.isEmpty();
+            while ((record = lineReceiver.getFromReader()) != null) {
+                if (needHeader) {
                     // write header
                     outputStream.write(String.join(String.valueOf(fieldDelimiter), header).getBytes(charset));
-                    outputStream.write("\n".getBytes(charset));
-                    needInit = false;
+                    outputStream.write(lineSeparator);
+                    needHeader = false;
                 }
                 outputStream.write(record2String(record).getBytes(charset));
-                outputStream.write("\n".getBytes(charset));
+                outputStream.write(lineSeparator);
 
                 if (outputStream.size() > partSize) {
-                    String etag = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(outputStream.toByteArray())).eTag();
-                    CompletedPart completedPart = CompletedPart.builder().partNumber(currPart).eTag(etag).build();
-                    completedParts.add(completedPart);
+                    uploads.add(submitPart(executor, freeBuffers, uploadFailure, uploadId, currPart, outputStream));
                     currPart += 1;
-                    outputStream.reset();
-
-                    uploadPartRequest = UploadPartRequest.builder()
-                            .bucket(bucket)
-                            .key(object)
-                            .uploadId(uploadId)
-                            .partNumber(currPart).build();
-                    needInit = true;
+                    outputStream = freeBuffers.take();
                 }
             }
-            catch (IOException e) {
-                throw AddaxException.asAddaxException(IO_ERROR, e.getMessage());
+            // remain bytes
+            if (outputStream.size() > 0) {
+                uploads.add(submitPart(executor, freeBuffers, uploadFailure, uploadId, currPart, outputStream));
+            }
+            List<CompletedPart> completedParts = new ArrayList<>();
+            for (Future<CompletedPart> upload : uploads) {
+                completedParts.add(upload.get());
+            }
+            if (!completedParts.isEmpty()) {
+                // Finally, call completeMultipartUpload operation to tell S3 to merge all uploaded
+                // parts and finish the multipart operation.
+                CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder()
+                        .parts(completedParts)
+                        .build();
+
+                CompleteMultipartUploadRequest completeMultipartUploadRequest =
+                        CompleteMultipartUploadRequest.builder()
+                                .bucket(bucket)
+                                .key(object)
+                                .uploadId(uploadId)
+                                .multipartUpload(completedMultipartUpload)
+                                .build();
+
+                s3Client.completeMultipartUpload(completeMultipartUploadRequest);
+                LOG.info("end do write");
+            }
+            else {
+                abortUpload(uploadId);
+                LOG.info("no content do write");
             }
         }
-        // remain bytes
-        if (outputStream.size() > 0) {
-            String etag = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(outputStream.toByteArray())).eTag();
-            CompletedPart completedPart = CompletedPart.builder().partNumber(currPart).eTag(etag).build();
-            completedParts.add(completedPart);
-            outputStream.reset();
+        catch (IOException | ExecutionException e) {
+            cancelUpload(executor, uploadId);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw AddaxException.asAddaxException(IO_ERROR, cause.getMessage(), cause);
         }
-        if (!completedParts.isEmpty()) {
-            // Finally, call completeMultipartUpload operation to tell S3 to merge all uploaded
-            // parts and finish the multipart operation.
-            CompletedMultipartUpload completedMultipartUpload = CompletedMultipartUpload.builder()
-                    .parts(completedParts)
-                    .build();
-
-            CompleteMultipartUploadRequest completeMultipartUploadRequest =
-                    CompleteMultipartUploadRequest.builder()
-                            .bucket(bucket)
-                            .key(object)
-                            .uploadId(uploadId)
-                            .multipartUpload(completedMultipartUpload)
-                            .build();
-
-            s3Client.completeMultipartUpload(completeMultipartUploadRequest);
-            LOG.info("end do write");
+        catch (InterruptedException e) {
+            cancelUpload(executor, uploadId);
+            Thread.currentThread().interrupt();
+            throw AddaxException.asAddaxException(IO_ERROR, "Interrupted while uploading the parts of " + object, e);
         }
-        else {
-            LOG.info("no content do write");
+        catch (RuntimeException e) {
+            cancelUpload(executor, uploadId);
+            throw e;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Future<CompletedPart> submitPart(ExecutorService executor, PartBufferPool freeBuffers,
+            AtomicReference<Exception> uploadFailure, String uploadId, int partNumber, PartBuffer buffer)
+    {
+        return executor.submit(() -> {
+            try {
+                return uploadPart(uploadId, partNumber, buffer);
+            }
+            catch (Exception e) {
+                uploadFailure.compareAndSet(null, e);
+                throw e;
+            }
+            finally {
+                freeBuffers.release(buffer);
+            }
+        });
+    }
+
+    private CompletedPart uploadPart(String uploadId, int partNumber, PartBuffer buffer)
+            throws InterruptedException
+    {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(object)
+                .uploadId(uploadId)
+                .partNumber(partNumber).build();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // the body reads the buffer in place instead of copying it
+                String etag = s3Client.uploadPart(uploadPartRequest,
+                        RequestBody.fromContentProvider(buffer::newInputStream, buffer.size(), "application/octet-stream")).eTag();
+                return CompletedPart.builder().partNumber(partNumber).eTag(etag).build();
+            }
+            catch (SdkException e) {
+                if (attempt >= MAX_PART_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                LOG.warn("Failed to upload the part {} of [{}], retry it ({}/{}): {}",
+                        partNumber, object, attempt, MAX_PART_ATTEMPTS - 1, e.getMessage());
+                TimeUnit.SECONDS.sleep(attempt);
+            }
+        }
+    }
+
+    // the client has retried the request already, only a server side or throttling error or a broken connection is worth another try
+    private static boolean isRetryable(SdkException e)
+    {
+        if (e instanceof SdkServiceException serviceException) {
+            return serviceException.statusCode() >= 500 || serviceException.isThrottlingException();
+        }
+        return e.retryable() || e.getCause() instanceof IOException;
+    }
+
+    // a part that finishes uploading after the abort is kept by S3, so the uploads are stopped first
+    private void cancelUpload(ExecutorService executor, String uploadId)
+    {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(UPLOAD_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("The parts of [{}] are still uploading after {} seconds, abort the upload anyway.", object, UPLOAD_STOP_TIMEOUT_SECONDS);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        abortUpload(uploadId);
+    }
+
+    private void abortUpload(String uploadId)
+    {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(object)
+                    .uploadId(uploadId)
+                    .build());
+        }
+        catch (SdkException e) {
+            LOG.warn("Failed to abort the multipart upload of [{}]", object, e);
         }
     }
 
@@ -281,4 +398,61 @@ public class TextWriter
         }
         return sj.toString();
     }
+
+    /**
+     * A part buffer whose content can be read in place.
+     */
+    private static class PartBuffer
+            extends ByteArrayOutputStream
+    {
+        InputStream newInputStream()
+        {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
+    /**
+     * Hands the part buffers out to the writer thread. A buffer is only created when no other one is free,
+     * up to the given number, and grows with its part, so a small object does not hold the memory of several parts.
+     */
+    private static class PartBufferPool
+    {
+        private final BlockingQueue<PartBuffer> freeBuffers;
+        private final int maxBuffers;
+        private final AtomicReference<Exception> uploadFailure;
+        private int createdBuffers = 0;
+
+        PartBufferPool(int maxBuffers, AtomicReference<Exception> uploadFailure)
+        {
+            this.freeBuffers = new ArrayBlockingQueue<>(maxBuffers);
+            this.maxBuffers = maxBuffers;
+            this.uploadFailure = uploadFailure;
+        }
+
+        // waits for a free buffer once all of them are created, and gives up as soon as an upload has failed
+        PartBuffer take()
+                throws InterruptedException, IOException
+        {
+            PartBuffer buffer = freeBuffers.poll();
+            if (buffer == null) {
+                if (createdBuffers < maxBuffers) {
+                    createdBuffers++;
+                    buffer = new PartBuffer();
+                }
+                else {
+                    buffer = freeBuffers.take();
+                }
+            }
+            if (uploadFailure.get() != null) {
+                throw new IOException("Failed to upload a part", uploadFailure.get());
+            }
+            return buffer;
+        }
+
+        void release(PartBuffer buffer)
+        {
+            buffer.reset();
+            freeBuffers.add(buffer);
+        }
+    }
 }
@@ -25,11 +25,11 @@ import com.wgzhao.addax.core.spi.Writer;
 import com.wgzhao.addax.core.util.Configuration;
 import com.wgzhao.addax.rdbms.util.DataBaseType;
 import com.wgzhao.addax.rdbms.writer.CommonRdbmsWriter;
+import org.apache.commons.lang3.time.FastDateFormat;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.text.SimpleDateFormat;
 import java.util.List;
 
 import static com.wgzhao.addax.core.base.Constant.DEFAULT_DATE_FORMAT;
@@ -94,6 +94,9 @@ public class SqliteWriter
     public static class Task
             extends Writer.Task
     {
+        // thread safe, so one instance serves all the cells
+        private static final FastDateFormat DATE_FORMAT = FastDateFormat.getInstance(DEFAULT_DATE_FORMAT);
+
         private Configuration writerSliceConfig;
         private CommonRdbmsWriter.Task commonRdbmsWriterTask;
 
@@ -115,8 +118,7 @@ public class SqliteWriter
                         // SQLite does not have a storage class set aside for storing dates and/or times.
                         // Instead, the built-in Date And Time Functions of SQLite are capable of storing dates and times as
                         // TEXT, REAL, or INTEGER values: https://www.sqlite.org/datatype3.html
-                        SimpleDateFormat sdf = new SimpleDateFormat(DEFAULT_DATE_FORMAT);
-                        preparedStatement.setString(columnIndex, sdf.format(column.asDate()));
+                        preparedStatement.setString(columnIndex, DATE_FORMAT.format(column.asDate()));
                         return preparedStatement;
                     }
                     return super.fillPreparedStatementColumnType(preparedStatement, columnIndex, columnSqlType, column);
@@ -56,7 +56,9 @@ public class StarRocksWriterOptions
     private static final String KEY_FLUSH_INTERVAL = "flushInterval";
     private static final String KEY_LOAD_URL = "loadUrl";
     private static final String KEY_FLUSH_QUEUE_LENGTH = "flushQueueLength";
+    private static final String KEY_FLUSH_CONCURRENCY = "flushConcurrency";
     private static final String KEY_LOAD_PROPS = "loadProps";
+    private static final String KEY_COMPRESS = "compress";
     private final Configuration options;
     private List<String> infoCchemaColumns;
     private final List<String> userSetColumns;
@@ -75,6 +77,7 @@ public class StarRocksWriterOptions
     {
         validateRequired();
         validateStreamLoadUrl();
+        validateCompress();
     }
 
     public String getJdbcUrl()
@@ -169,6 +172,15 @@ public class StarRocksWriterOptions
         return null == len ? 1 : len;
     }
 
+    /**
+     * @return the number of stream loads running at the same time
+     */
+    public int getFlushConcurrency()
+    {
+        Integer concurrency = options.getInt(KEY_FLUSH_CONCURRENCY);
+        return null == concurrency ? 1 : Math.max(1, concurrency);
+    }
+
     public StreamLoadFormat getStreamLoadFormat()
     {
         Map<String, Object> loadProps = getLoadProps();
@@ -182,6 +194,24 @@ public class StarRocksWriterOptions
         return StreamLoadFormat.CSV;
     }
 
+    /**
+     * @return true if the stream load body is compressed by gzip
+     */
+    public boolean isGzipCompress()
+    {
+        String compress = options.getString(KEY_COMPRESS, "none");
+        return "gzip".equalsIgnoreCase(compress) || "gz".equalsIgnoreCase(compress);
+    }
+
+    private void validateCompress()
+    {
+        String compress = options.getString(KEY_COMPRESS, "none");
+        if (!"none".equalsIgnoreCase(compress) && !isGzipCompress()) {
+            throw AddaxException.asAddaxException(CONFIG_ERROR,
+                    "The compress [" + compress + "] is not supported, only none and gzip are supported.");
+        }
+    }
+
     private void validateStreamLoadUrl()
     {
         List<String> urlList = getLoadUrlList();
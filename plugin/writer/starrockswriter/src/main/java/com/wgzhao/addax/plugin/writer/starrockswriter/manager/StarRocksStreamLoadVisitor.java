@@ -22,6 +22,7 @@ package com.wgzhao.addax.plugin.writer.starrockswriter.manager;
 import com.alibaba.fastjson2.JSON;
 import com.wgzhao.addax.plugin.writer.starrockswriter.StarRocksWriterOptions;
 import com.wgzhao.addax.plugin.writer.starrockswriter.row.StarRocksDelimiterParser;
+import com.wgzhao.addax.rdbms.writer.util.StreamLoadBody;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.config.RequestConfig;
@@ -29,11 +30,10 @@ import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultRedirectStrategy;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,12 +42,12 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class StarRocksStreamLoadVisitor
@@ -63,12 +63,43 @@ public class StarRocksStreamLoadVisitor
     private static final String LABEL_STATE_VISIBLE = "VISIBLE";
     private static final String LABEL_STATE_COMMITTED = "COMMITTED";
 
+    // the connections per route kept for the label state checks and retries, each concurrent load takes one more
+    private static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+
     private final StarRocksWriterOptions writerOptions;
-    private long pos;
+    private final CloseableHttpClient httpClient;
+    // the host the next load starts from, shared by the concurrent loads
+    private final AtomicLong pos = new AtomicLong();
 
     public StarRocksStreamLoadVisitor(StarRocksWriterOptions writerOptions)
     {
         this.writerOptions = writerOptions;
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        int perRoute = MAX_CONNECTIONS_PER_ROUTE + writerOptions.getFlushConcurrency();
+        connectionManager.setDefaultMaxPerRoute(perRoute);
+        connectionManager.setMaxTotal(perRoute * Math.max(2, writerOptions.getLoadUrlList().size() * 2));
+        // the FE answers a stream load by a 307 redirect to a BE, follow it for PUT too
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setRedirectStrategy(new DefaultRedirectStrategy()
+                {
+                    @Override
+                    protected boolean isRedirectable(String method)
+                    {
+                        return true;
+                    }
+                })
+                .build();
+    }
+
+    public void close()
+    {
+        try {
+            httpClient.close();
+        }
+        catch (IOException e) {
+            LOG.warn("Failed to close the http client of stream load", e);
+        }
     }
 
     public void doStreamLoad(StarRocksFlushTuple flushData)
@@ -84,7 +115,7 @@ public class StarRocksStreamLoadVisitor
                 "/" +
                 writerOptions.getTable() +
                 "/_stream_load";
-        Map<String, Object> loadResult = doHttpPut(loadUrl, flushData.getLabel(), joinRows(flushData.getRows(), flushData.getBytes().intValue()));
+        Map<String, Object> loadResult = doHttpPut(loadUrl, flushData.getLabel(), joinRows(flushData.getRows()));
 
         final String keyStatus = "Status";
         if (null == loadResult || !loadResult.containsKey(keyStatus)) {
@@ -104,9 +135,10 @@ public class StarRocksStreamLoadVisitor
     private String getAvailableHost()
     {
         List<String> hostList = writerOptions.getLoadUrlList();
-        long tmp = pos + hostList.size();
-        for (; pos < tmp; pos++) {
-            String host = "http://" + hostList.get((int) (pos % hostList.size()));
+        // the loads take the FEs in turn, so the concurrent ones are spread over them
+        long start = pos.getAndIncrement();
+        for (int i = 0; i < hostList.size(); i++) {
+            String host = "http://" + hostList.get((int) ((start + i) % hostList.size()));
             if (tryHttpConnection(host)) {
                 return host;
             }
@@ -130,33 +162,19 @@ public class StarRocksStreamLoadVisitor
         }
     }
 
-    private byte[] joinRows(List<byte[]> rows, int totalBytes)
+    private StarRocksRowsEntity joinRows(List<byte[]> rows)
     {
+        byte[] empty = new byte[0];
         if (StarRocksWriterOptions.StreamLoadFormat.CSV.equals(writerOptions.getStreamLoadFormat())) {
             Map<String, Object> props = writerOptions.getLoadProps();
-            byte[] lineDelimiter = StarRocksDelimiterParser.parse((String) props.get("row_delimiter"), "\n").getBytes(StandardCharsets.UTF_8);
-            ByteBuffer bos = ByteBuffer.allocate(totalBytes + rows.size() * lineDelimiter.length);
-            for (byte[] row : rows) {
-                bos.put(row);
-                bos.put(lineDelimiter);
-            }
-            return bos.array();
+            String rowDelimiter = null == props ? null : (String) props.get("row_delimiter");
+            byte[] lineDelimiter = StarRocksDelimiterParser.parse(rowDelimiter, "\n").getBytes(StandardCharsets.UTF_8);
+            return new StarRocksRowsEntity(new StreamLoadBody(rows, empty, lineDelimiter, rows.isEmpty() ? empty : lineDelimiter, writerOptions.isGzipCompress()));
         }
 
         if (StarRocksWriterOptions.StreamLoadFormat.JSON.equals(writerOptions.getStreamLoadFormat())) {
-            ByteBuffer bos = ByteBuffer.allocate(totalBytes + (rows.isEmpty() ? 2 : rows.size() + 1));
-            bos.put("[".getBytes(StandardCharsets.UTF_8));
-            byte[] jsonDelimiter = ",".getBytes(StandardCharsets.UTF_8);
-            boolean isFirstElement = true;
-            for (byte[] row : rows) {
-                if (!isFirstElement) {
-                    bos.put(jsonDelimiter);
-                }
-                bos.put(row);
-                isFirstElement = false;
-            }
-            bos.put("]".getBytes(StandardCharsets.UTF_8));
-            return bos.array();
+            return new StarRocksRowsEntity(new StreamLoadBody(rows, "[".getBytes(StandardCharsets.UTF_8), ",".getBytes(StandardCharsets.UTF_8),
+                    "]".getBytes(StandardCharsets.UTF_8), writerOptions.isGzipCompress()));
         }
         throw new RuntimeException("Failed to join rows data, unsupported `format` from stream load properties:");
     }
@@ -172,14 +190,13 @@ public class StarRocksStreamLoadVisitor
             catch (InterruptedException ex) {
                 break;
             }
-            try (CloseableHttpClient httpclient = HttpClients.createDefault()) {
+            try {
                 URIBuilder uriBuilder = new URIBuilder(host + "/api/" + writerOptions.getDatabase() + "/get_load_state");
                 uriBuilder.addParameter("label", label);
                 HttpGet httpGet = new HttpGet(uriBuilder.build().toString());
                 httpGet.setHeader("Authorization", getBasicAuthHeader(writerOptions.getUsername(), writerOptions.getPassword()));
-                httpGet.setHeader("Connection", "close");
 
-                try (CloseableHttpResponse resp = httpclient.execute(httpGet)) {
+                try (CloseableHttpResponse resp = httpClient.execute(httpGet)) {
                     HttpEntity respEntity = getHttpEntity(resp);
                     if (respEntity == null) {
                         throw new IOException(String.format("Failed to flush data to StarRocks, Error " +
@@ -213,43 +230,35 @@ public class StarRocksStreamLoadVisitor
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> doHttpPut(String loadUrl, String label, byte[] data)
+    private Map<String, Object> doHttpPut(String loadUrl, String label, StarRocksRowsEntity data)
             throws IOException
     {
-        LOG.info("Executing stream load to: '{}', size: '{}'", loadUrl, data.length);
-        final HttpClientBuilder httpClientBuilder = HttpClients.custom()
-                .setRedirectStrategy(new DefaultRedirectStrategy()
-                {
-                    @Override
-                    protected boolean isRedirectable(String method)
-                    {
-                        return true;
-                    }
-                });
-        try (CloseableHttpClient httpclient = httpClientBuilder.build()) {
-            HttpPut httpPut = new HttpPut(loadUrl);
-            List<String> cols = writerOptions.getColumns();
-            if (null != cols && !cols.isEmpty() && StarRocksWriterOptions.StreamLoadFormat.CSV.equals(writerOptions.getStreamLoadFormat())) {
-                httpPut.setHeader("columns", cols.stream().map(f -> String.format("`%s`", f)).collect(Collectors.joining(",")));
-            }
-            if (null != writerOptions.getLoadProps()) {
-                for (Map.Entry<String, Object> entry : writerOptions.getLoadProps().entrySet()) {
-                    httpPut.setHeader(entry.getKey(), String.valueOf(entry.getValue()));
-                }
+        LOG.info("Executing stream load to: '{}', size: '{}'", loadUrl, data.getRawLength());
+        HttpPut httpPut = new HttpPut(loadUrl);
+        List<String> cols = writerOptions.getColumns();
+        if (null != cols && !cols.isEmpty() && StarRocksWriterOptions.StreamLoadFormat.CSV.equals(writerOptions.getStreamLoadFormat())) {
+            httpPut.setHeader("columns", cols.stream().map(f -> String.format("`%s`", f)).collect(Collectors.joining(",")));
+        }
+        if (null != writerOptions.getLoadProps()) {
+            for (Map.Entry<String, Object> entry : writerOptions.getLoadProps().entrySet()) {
+                httpPut.setHeader(entry.getKey(), String.valueOf(entry.getValue()));
             }
-            httpPut.setHeader("Expect", "100-continue");
-            httpPut.setHeader("label", label);
-            httpPut.setHeader("Content-Type", "application/x-www-form-urlencoded");
-            httpPut.setHeader("Authorization", getBasicAuthHeader(writerOptions.getUsername(), writerOptions.getPassword()));
-            httpPut.setEntity(new ByteArrayEntity(data));
-            httpPut.setConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
-            try (CloseableHttpResponse resp = httpclient.execute(httpPut)) {
-                HttpEntity respEntity = getHttpEntity(resp);
-                if (respEntity == null) {
-                    return null;
-                }
-                return (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
+        }
+        if (writerOptions.isGzipCompress()) {
+            httpPut.setHeader("compression", "gzip");
+        }
+        httpPut.setHeader("Expect", "100-continue");
+        httpPut.setHeader("label", label);
+        httpPut.setHeader("Content-Type", "application/x-www-form-urlencoded");
+        httpPut.setHeader("Authorization", getBasicAuthHeader(writerOptions.getUsername(), writerOptions.getPassword()));
+        httpPut.setEntity(data);
+        httpPut.setConfig(RequestConfig.custom().setRedirectsEnabled(true).build());
+        try (CloseableHttpResponse resp = httpClient.execute(httpPut)) {
+            HttpEntity respEntity = getHttpEntity(resp);
+            if (respEntity == null) {
+                return null;
             }
+            return (Map<String, Object>) JSON.parse(EntityUtils.toString(respEntity));
         }
     }
 
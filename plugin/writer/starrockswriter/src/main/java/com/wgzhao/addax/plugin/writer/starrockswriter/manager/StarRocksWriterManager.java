@@ -19,7 +19,6 @@
 
 package com.wgzhao.addax.plugin.writer.starrockswriter.manager;
 
-import com.google.common.base.Strings;
 import com.wgzhao.addax.plugin.writer.starrockswriter.StarRocksWriterOptions;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
@@ -30,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
@@ -50,6 +50,11 @@ public class StarRocksWriterManager
     private long batchSize = 0;
     private volatile boolean closed = false;
     private volatile Exception flushException;
+    // the batches queued or being loaded, guarded by pendingLock
+    private int pendingBatches = 0;
+    private final Object pendingLock = new Object();
+    private final Object schedulerLock = new Object();
+    private ExecutorService flushExecutor;
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> scheduledFuture;
 
@@ -64,32 +69,36 @@ public class StarRocksWriterManager
 
     public void startScheduler()
     {
-        stopScheduler();
-        this.scheduler = Executors.newScheduledThreadPool(1, new BasicThreadFactory.Builder().namingPattern("starrocks-interval-flush").daemon(true).build());
-        this.scheduledFuture = this.scheduler.schedule(() -> {
-            synchronized (StarRocksWriterManager.this) {
-                if (!closed) {
-                    try {
-                        String label = createBatchLabel();
-                        LOG.info("StarRocks interval Sinking triggered: label[{}].", label);
-                        if (batchCount == 0) {
-                            startScheduler();
+        synchronized (schedulerLock) {
+            stopScheduler();
+            this.scheduler = Executors.newScheduledThreadPool(1, new BasicThreadFactory.Builder().namingPattern("starrocks-interval-flush").daemon(true).build());
+            this.scheduledFuture = this.scheduler.schedule(() -> {
+                synchronized (StarRocksWriterManager.this) {
+                    if (!closed) {
+                        try {
+                            String label = createBatchLabel();
+                            LOG.info("StarRocks interval Sinking triggered: label[{}].", label);
+                            if (batchCount == 0) {
+                                startScheduler();
+                            }
+                            flush(label, false);
+                        }
+                        catch (Exception e) {
+                            setFlushException(e);
                         }
-                        flush(label, false);
-                    }
-                    catch (Exception e) {
-                        flushException = e;
                     }
                 }
-            }
-        }, writerOptions.getFlushInterval(), TimeUnit.MILLISECONDS);
+            }, writerOptions.getFlushInterval(), TimeUnit.MILLISECONDS);
+        }
     }
 
     public void stopScheduler()
     {
-        if (this.scheduledFuture != null) {
-            scheduledFuture.cancel(false);
-            this.scheduler.shutdown();
+        synchronized (schedulerLock) {
+            if (this.scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+                this.scheduler.shutdown();
+            }
         }
     }
 
@@ -123,7 +132,19 @@ public class StarRocksWriterManager
             }
             return;
         }
-        flushQueue.put(new StarRocksFlushTuple(label, batchSize, new ArrayList<>(buffer)));
+        synchronized (pendingLock) {
+            pendingBatches++;
+        }
+        try {
+            // blocks while the queue is full, so the buffered batches are bounded by flushQueueLength + flushConcurrency
+            flushQueue.put(new StarRocksFlushTuple(label, batchSize, new ArrayList<>(buffer)));
+        }
+        catch (InterruptedException e) {
+            synchronized (pendingLock) {
+                pendingBatches--;
+            }
+            throw e;
+        }
         if (waitUtilDone) {
             // wait the last flush
             waitAsyncFlushingDone();
@@ -147,6 +168,10 @@ public class StarRocksWriterManager
             catch (Exception e) {
                 throw new RuntimeException("Writing records to StarRocks failed.", e);
             }
+            finally {
+                flushExecutor.shutdownNow();
+                starrocksStreamLoadVisitor.close();
+            }
         }
         checkFlushException();
     }
@@ -158,27 +183,35 @@ public class StarRocksWriterManager
 
     private void startAsyncFlushing()
     {
-        // start flush thread
-        Thread flushThread = new Thread(() -> {
-            while (true) {
-                try {
-                    asyncFlush();
-                }
-                catch (Exception e) {
-                    flushException = e;
+        // each flush thread runs its own stream loads, so several batches are loaded at the same time
+        int concurrency = writerOptions.getFlushConcurrency();
+        flushExecutor = Executors.newFixedThreadPool(concurrency,
+                new BasicThreadFactory.Builder().namingPattern("starrocks-stream-load-%d").daemon(true).build());
+        for (int i = 0; i < concurrency; i++) {
+            flushExecutor.execute(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        asyncFlush();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    catch (Exception e) {
+                        setFlushException(e);
+                    }
                 }
-            }
-        });
-        flushThread.setDaemon(true);
-        flushThread.start();
+            });
+        }
     }
 
     private void waitAsyncFlushingDone()
             throws InterruptedException
     {
-        // wait previous flushing
-        for (int i = 0; i <= writerOptions.getFlushQueueLength(); i++) {
-            flushQueue.put(new StarRocksFlushTuple("", 0L, null));
+        // wait all the queued and running loads
+        synchronized (pendingLock) {
+            while (pendingBatches > 0) {
+                pendingLock.wait();
+            }
         }
         checkFlushException();
     }
@@ -187,37 +220,62 @@ public class StarRocksWriterManager
             throws Exception
     {
         StarRocksFlushTuple flushData = flushQueue.take();
-        if (Strings.isNullOrEmpty(flushData.getLabel())) {
-            return;
-        }
-        stopScheduler();
-        for (int i = 0; i <= writerOptions.getMaxRetries(); i++) {
-            try {
-                // flush to StarRocks with a stream load
-                starrocksStreamLoadVisitor.doStreamLoad(flushData);
-                LOG.info("Async stream load finished: label[{}].", flushData.getLabel());
-                startScheduler();
-                break;
+        try {
+            if (flushException != null) {
+                // the job fails anyway, do not load the batches behind the failed one
+                LOG.warn("Skip the stream load of label[{}] as a previous load failed.", flushData.getLabel());
+                return;
             }
-            catch (Exception e) {
-                LOG.warn("Failed to flush batch data to StarRocks, retry times = {}", i, e);
-                if (i >= writerOptions.getMaxRetries()) {
-                    throw new IOException(e);
-                }
-                if (e instanceof StarRocksStreamLoadFailedException && ((StarRocksStreamLoadFailedException) e).needReCreateLabel()) {
-                    String newLabel = createBatchLabel();
-                    LOG.warn("Batch label changed from [{}] to [{}]", flushData.getLabel(), newLabel);
-                    flushData.setLabel(newLabel);
-                }
+            stopScheduler();
+            for (int i = 0; i <= writerOptions.getMaxRetries(); i++) {
                 try {
-                    TimeUnit.SECONDS.sleep(Math.min(i + 1, 10));
+                    // flush to StarRocks with a stream load
+                    starrocksStreamLoadVisitor.doStreamLoad(flushData);
+                    LOG.info("Async stream load finished: label[{}].", flushData.getLabel());
+                    startScheduler();
+                    break;
                 }
-                catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                    throw new IOException("Unable to flush, interrupted while doing another attempt", e);
+                catch (Exception e) {
+                    LOG.warn("Failed to flush batch data to StarRocks, retry times = {}", i, e);
+                    if (i >= writerOptions.getMaxRetries()) {
+                        throw new IOException("Failed to load the batch of label[" + flushData.getLabel() + "]", e);
+                    }
+                    if (e instanceof StarRocksStreamLoadFailedException && ((StarRocksStreamLoadFailedException) e).needReCreateLabel()) {
+                        String newLabel = createBatchLabel();
+                        LOG.warn("Batch label changed from [{}] to [{}]", flushData.getLabel(), newLabel);
+                        flushData.setLabel(newLabel);
+                    }
+                    try {
+                        TimeUnit.SECONDS.sleep(Math.min(i + 1, 10));
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Unable to flush, interrupted while doing another attempt", e);
+                    }
                 }
             }
         }
+        catch (Exception e) {
+            // record the failure before the batch counts as done, or the writer waiting for it may not see it
+            setFlushException(e);
+            throw e;
+        }
+        finally {
+            synchronized (pendingLock) {
+                pendingBatches--;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    private void setFlushException(Exception e)
+    {
+        // keep the first failure, the later ones are usually caused by it
+        synchronized (pendingLock) {
+            if (flushException == null) {
+                flushException = e;
+            }
+        }
     }
 
     private void checkFlushException()
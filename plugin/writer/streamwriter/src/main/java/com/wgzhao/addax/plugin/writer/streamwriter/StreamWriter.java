@@ -171,6 +171,16 @@ public class StreamWriter
             }
         }
 
+        @Override
+        public Configuration getSplitTaskConfig(int taskId)
+        {
+            // the tasks writing to the console can share the configuration, a file can only have one writer
+            if (StringUtils.isNoneBlank(path, fileName)) {
+                return null;
+            }
+            return getPluginJobConf().clone();
+        }
+
         private void writeToConsole(RecordReceiver recordReceiver)
         {
             BufferedWriter writer = new BufferedWriter(
@@ -179,6 +189,7 @@ public class StreamWriter
                 Record record;
                 while ((record = recordReceiver.getFromReader()) != null) {
                     writer.write(recordToString(record));
+                    recordReceiver.recycle(record);
                 }
                 writer.flush();
             }
@@ -205,6 +216,7 @@ public class StreamWriter
                         count = 0;
                     }
                     writer.write(recordToString(record));
+                    recordReceiver.recycle(record);
                     count++;
                 }
                 writer.flush();